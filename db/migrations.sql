@@ -3,6 +3,11 @@
 --   GRANT ALL PRIVILEGES ON TABLE cluster_assignments TO your_user;
 --   GRANT ALL PRIVILEGES ON TABLE category_mappings TO your_user;
 --   GRANT ALL PRIVILEGES ON TABLE user_stats TO your_user;
+--   GRANT ALL PRIVILEGES ON TABLE clues_java_staging TO your_user;
+--   GRANT ALL PRIVILEGES ON TABLE topic_stats TO your_user;
+--   GRANT ALL PRIVILEGES ON TABLE unmapped_categories TO your_user;
+--   GRANT ALL PRIVILEGES ON TABLE clue_duplicates TO your_user;
+--   GRANT SELECT ON topic_totals TO your_user;
 --   GRANT USAGE, SELECT ON SEQUENCE user_stats_id_seq TO your_user;
 -- (The sequence grant is required for an INSERT into user_stats because id is SERIAL.)
 
@@ -48,3 +53,79 @@ CREATE TABLE user_stats (
 );
 
 CREATE INDEX idx_user_stats_topic ON user_stats (canonical_topic);
+
+-- Migration 6: Unlogged staging table for TsvLoader --copy (COPY into here, then merge)
+CREATE UNLOGGED TABLE clues_java_staging (LIKE clues_java INCLUDING DEFAULTS);
+
+-- Migration 7: Typed value and air date columns, written by Storer and TsvLoader
+ALTER TABLE clues_java ADD COLUMN clue_value_int INT, ADD COLUMN air_date DATE;
+ALTER TABLE clues_java_staging ADD COLUMN clue_value_int INT, ADD COLUMN air_date DATE;
+
+-- Backfill rows stored before Migration 7
+UPDATE clues_java
+SET clue_value_int = CASE
+      WHEN clue_value ~ '^\$[0-9,]+$'
+      THEN CAST(REPLACE(REPLACE(clue_value, '$', ''), ',', '') AS INTEGER)
+    END,
+    air_date = CASE WHEN game_date ~ '^\d{4}-\d{2}-\d{2}$' THEN CAST(game_date AS DATE) END
+WHERE clue_value_int IS NULL;
+
+CREATE INDEX idx_clues_air_date ON clues_java (air_date);
+CREATE INDEX idx_clues_category_value ON clues_java (category, clue_value_int);
+
+-- Migration 8: Per-topic aggregates for the Phase 4 bubble chart, kept current by Storer and
+-- TsvLoader as part of each batch. Requires PostgreSQL 15+ (MERGE). Populate existing data with:
+--   ClueStorage rebuild-topic-stats
+-- and re-run it after category_mappings changes.
+CREATE TABLE topic_stats (
+    canonical_topic VARCHAR NOT NULL,
+    round VARCHAR NOT NULL,
+    clue_count BIGINT NOT NULL,
+    value_sum BIGINT NOT NULL,
+    value_count BIGINT NOT NULL,
+    PRIMARY KEY (canonical_topic, round)
+);
+
+CREATE VIEW topic_totals AS
+SELECT canonical_topic,
+       SUM(clue_count) AS clue_count,
+       CAST(SUM(value_sum) AS DOUBLE PRECISION) / NULLIF(SUM(value_count), 0) AS mean_value
+FROM topic_stats
+GROUP BY canonical_topic;
+
+-- Migration 9: Denormalized canonical topic, written by Storer and TsvLoader from an in-memory
+-- copy of category_mappings, plus the queue of categories that still need a mapping. After
+-- category_mappings changes, `ClueStorage rebuild-topic-stats` re-derives the column, drops newly
+-- mapped categories from the queue and rebuilds topic_stats.
+ALTER TABLE clues_java ADD COLUMN canonical_topic VARCHAR;
+ALTER TABLE clues_java_staging ADD COLUMN canonical_topic VARCHAR;
+
+UPDATE clues_java c
+SET canonical_topic = cm.canonical_topic
+FROM category_mappings cm
+WHERE cm.jeopardy_category = c.category;
+
+CREATE INDEX idx_clues_canonical_topic ON clues_java (canonical_topic);
+
+CREATE TABLE unmapped_categories (
+    jeopardy_category VARCHAR PRIMARY KEY,
+    queued_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+INSERT INTO unmapped_categories (jeopardy_category)
+SELECT DISTINCT c.category
+FROM clues_java c
+WHERE c.canonical_topic IS NULL AND c.category IS NOT NULL
+ON CONFLICT DO NOTHING;
+
+-- Migration 10: Near-duplicate clues found by ClueDeduper (MinHash/LSH). TSV and scraped rows of
+-- the same game have unrelated ids, so overlapping seasons store some clues twice. Each row points
+-- a duplicate at the clue kept in its place; exclude duplicates with
+--   NOT EXISTS (SELECT 1 FROM clue_duplicates d WHERE d.clue_id = c.id)
+-- Rows cascade away with either clue, so `reparse --replace` can delete a game's clues; the next
+-- ClueDeduper run finds the pairs again.
+CREATE TABLE clue_duplicates (
+    clue_id VARCHAR PRIMARY KEY REFERENCES clues_java(id) ON DELETE CASCADE,
+    duplicate_of VARCHAR NOT NULL REFERENCES clues_java(id) ON DELETE CASCADE,
+    similarity REAL NOT NULL
+);
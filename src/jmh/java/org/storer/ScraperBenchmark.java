@@ -0,0 +1,57 @@
+package org.storer;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.storer.meta.Clue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Parsing cost of one J! Archive game page, with and without the HTML parse itself. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScraperBenchmark {
+
+  private Scraper scraper;
+  private String html;
+  private Document doc;
+
+  @Setup
+  public void setUp() throws Exception {
+    scraper = new Scraper(new ScraperHelper());
+    html = Files.readString(Path.of("src/test/java/testFiles/game9036.html"), StandardCharsets.UTF_8);
+    doc = Jsoup.parse(html, SeasonScraper.GAME_URL + "9036");
+  }
+
+  @Benchmark
+  public List<Clue> scrapeGame() throws Exception {
+    return scraper.scrapeGame(doc, 9036);
+  }
+
+  @Benchmark
+  public List<Clue> scrapeGameWithSelectors() {
+    return SelectorScraper.scrapeGame(scraper, doc, 9036);
+  }
+
+  @Benchmark
+  public List<Clue> parseAndScrapeGame() throws Exception {
+    return scraper.scrapeGame(Jsoup.parse(html, SeasonScraper.GAME_URL + "9036"), 9036);
+  }
+}
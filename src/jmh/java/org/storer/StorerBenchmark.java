@@ -0,0 +1,59 @@
+package org.storer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.storer.bench.BenchDatabase;
+import org.storer.meta.Clue;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Storing one scraped game (60 clues, one JDBC batch) into in-memory H2. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorerBenchmark {
+
+  private HikariDataSource dataSource;
+  private Storer storer;
+  private List<Clue> game;
+
+  @Setup
+  public void setUp() throws Exception {
+    dataSource = BenchDatabase.create("storerbench");
+    storer = new Storer(dataSource);
+    game = new Scraper(new ScraperHelper())
+        .scrapeGame(Jsoup.parse(new File("src/test/java/testFiles/game9036.html"), "UTF-8"), 9036);
+  }
+
+  @Setup(Level.Iteration)
+  public void clearTable() throws Exception {
+    BenchDatabase.truncate(dataSource);
+  }
+
+  @TearDown
+  public void tearDown() {
+    dataSource.close();
+  }
+
+  @Benchmark
+  public void storeGame() {
+    storer.storeClues(game);
+  }
+}
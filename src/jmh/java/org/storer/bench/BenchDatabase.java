@@ -0,0 +1,77 @@
+package org.storer.bench;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/** In-memory H2 database with the same tables the tests use. */
+public final class BenchDatabase {
+
+  private BenchDatabase() {
+  }
+
+  public static HikariDataSource create(String name) throws SQLException {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl("jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+    config.setUsername("sa");
+    config.setPassword("");
+    HikariDataSource dataSource = new HikariDataSource(config);
+
+    try (Connection conn = dataSource.getConnection();
+      Statement stmt = conn.createStatement()) {
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS clues_java (
+          id VARCHAR PRIMARY KEY,
+          category VARCHAR,
+          round VARCHAR,
+          category_number INT,
+          clue_value VARCHAR,
+          question TEXT,
+          answer TEXT,
+          is_daily_double BOOLEAN,
+          game_id INT,
+          game_date VARCHAR,
+          date_added VARCHAR,
+          clue_value_int INT,
+          air_date DATE,
+          canonical_topic VARCHAR
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS category_mappings (
+          jeopardy_category VARCHAR PRIMARY KEY,
+          canonical_topic VARCHAR NOT NULL
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS unmapped_categories (
+          jeopardy_category VARCHAR PRIMARY KEY,
+          queued_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS topic_stats (
+          canonical_topic VARCHAR NOT NULL,
+          round VARCHAR NOT NULL,
+          clue_count BIGINT NOT NULL,
+          value_sum BIGINT NOT NULL,
+          value_count BIGINT NOT NULL,
+          PRIMARY KEY (canonical_topic, round)
+        )
+      """);
+    }
+    return dataSource;
+  }
+
+  public static void truncate(HikariDataSource dataSource) throws SQLException {
+    try (Connection conn = dataSource.getConnection();
+      Statement stmt = conn.createStatement()) {
+      stmt.execute("TRUNCATE TABLE clues_java");
+      stmt.execute("TRUNCATE TABLE topic_stats");
+      stmt.execute("TRUNCATE TABLE unmapped_categories");
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package org.storer.dedupe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/** Full MinHash/LSH pass over a synthetic corpus the size of the real one, 1% of it duplicated. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ClueDeduperBenchmark {
+
+  private static final int CLUES = 530_000;
+
+  private List<String> ids;
+  private List<String> texts;
+  private int[] groups;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(1);
+    String[] vocabulary = new String[30_000];
+    for (int i = 0; i < vocabulary.length; i++) {
+      vocabulary[i] = Integer.toString(i * 7919 + 100_000, 36);
+    }
+    texts = new ArrayList<>(CLUES);
+    ids = new ArrayList<>(CLUES);
+    groups = new int[CLUES];
+    for (int i = 0; i < CLUES; i++) {
+      // About 60 clues per game and round, with each copy in its original's game
+      groups[i] = i % 100 == 99 ? groups[i - 50] : random.nextInt(CLUES / 60) * 4;
+      if (i % 100 == 99) {
+        texts.add(texts.get(i - 50).toUpperCase() + ".");
+      } else {
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < 14; w++) {
+          text.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+        }
+        texts.add(text.append("| ").append(vocabulary[random.nextInt(vocabulary.length)]).toString());
+      }
+      ids.add(String.format("%07d", i));
+    }
+  }
+
+  @Benchmark
+  public List<ClueDeduper.Duplicate> find() {
+    return new ClueDeduper(ClueDeduper.DEFAULT_THRESHOLD, ForkJoinPool.commonPool()).find(ids, texts, groups);
+  }
+}
@@ -0,0 +1,145 @@
+package org.storer.loader;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.storer.bench.BenchDatabase;
+import org.storer.meta.Clue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TSV parsing plus id hashing over a generated file, and full loads of that file into in-memory
+ * H2. Throughput is reported per file, so rows/sec is {@code rows} times the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TsvLoaderBenchmark {
+
+  private static final String HEADER =
+      "round\tclue_value\tdaily_double_value\tcategory\tcomments\tanswer\tquestion\tair_date\tnotes\n";
+  private static final String[] CATEGORIES = {"GEOGRAPHY", "SCIENCE", "HISTORY", "WORLD CAPITALS", "POTPOURRI"};
+
+  @Param({"10000"})
+  public int rows;
+
+  private Path file;
+  private String content;
+  private HikariDataSource dataSource;
+
+  @Setup
+  public void setUp() throws Exception {
+    content = generate(rows);
+    file = Files.createTempFile("tsv-bench", ".tsv");
+    Files.writeString(file, content, StandardCharsets.UTF_8);
+    dataSource = BenchDatabase.create("tsvbench");
+  }
+
+  @Setup(Level.Invocation)
+  public void clearTable() throws Exception {
+    BenchDatabase.truncate(dataSource);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    dataSource.close();
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  public void parseAndHash(Blackhole blackhole) throws IOException {
+    try (Reader reader = new StringReader(content);
+      CSVParser parser = new CSVParser(reader, TsvLoader.tsvFormat())) {
+      for (CSVRecord record : parser) {
+        Clue clue = TsvLoader.parseRecord(record);
+        blackhole.consume(clue.id());
+      }
+    }
+  }
+
+  @Benchmark
+  public long parseChunked() throws Exception {
+    // Small pieces so the generated file still splits into one range per thread and more
+    try (TsvChunks chunks = TsvChunks.open(file, 64 * 1024, 4)) {
+      return parseParallel(chunks, 4);
+    }
+  }
+
+  /** Parses every chunk on {@code parallelism} threads without storing anything; returns the rows. */
+  private static long parseParallel(TsvChunks chunks, int parallelism) throws Exception {
+    LongAdder parsed = new LongAdder();
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      List<Future<?>> tasks = new ArrayList<>();
+      for (TsvChunks.Chunk chunk : chunks.chunks()) {
+        tasks.add(executor.submit(() -> {
+          chunks.parse(chunk, clue -> parsed.increment());
+          return null;
+        }));
+      }
+      for (Future<?> task : tasks) {
+        task.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return parsed.sum();
+  }
+
+  @Benchmark
+  public void load() {
+    new TsvLoader(dataSource).load(file.toString());
+  }
+
+  @Benchmark
+  public void loadParallel() {
+    new TsvLoader(dataSource).loadParallel(file.toString(), 4, TsvPipeline.DEFAULT_QUEUE_DEPTH);
+  }
+
+  static String generate(int rows) {
+    Random random = new Random(42);
+    StringBuilder out = new StringBuilder(rows * 96).append(HEADER);
+    for (int i = 0; i < rows; i++) {
+      int round = 1 + random.nextInt(3);
+      int value = round == 3 ? 0 : (1 + random.nextInt(5)) * 200 * round;
+      int dd = random.nextInt(20) == 0 ? 1000 : 0;
+      out.append(round).append('\t').append(value).append('\t').append(dd).append('\t')
+          .append(CATEGORIES[random.nextInt(CATEGORIES.length)]).append("\t\t")
+          .append("answer ").append(i).append('\t')
+          .append("This clue number ").append(i).append(" mentions something worth knowing").append('\t')
+          .append(String.format("%d-%02d-%02d", 1984 + i % 40, 1 + i % 12, 1 + i % 28)).append("\t\n");
+    }
+    return out.toString();
+  }
+}
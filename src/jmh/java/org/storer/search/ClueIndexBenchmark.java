@@ -0,0 +1,78 @@
+package org.storer.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency against an index of generated clues drawn from a skewed vocabulary, so common
+ * terms have long postings lists and rare terms short ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClueIndexBenchmark {
+
+  private static final int VOCABULARY = 20_000;
+
+  @Param({"500000"})
+  public int clues;
+
+  private ClueIndex index;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    IndexBuilder builder = new IndexBuilder();
+    StringBuilder question = new StringBuilder();
+    for (int i = 0; i < clues; i++) {
+      question.setLength(0);
+      for (int word = 0; word < 12; word++) {
+        question.append(term(random)).append(' ');
+      }
+      builder.add(new UUID(0, i), question.toString(), term(random) + " " + term(random));
+    }
+    index = builder.build();
+  }
+
+  /** Roughly Zipfian: w0 is far more common than w19999. */
+  private static String term(Random random) {
+    return "w" + (int) Math.pow(VOCABULARY, random.nextDouble());
+  }
+
+  @Benchmark
+  public List<ClueIndex.Hit> rareTerm() {
+    return index.search("w15000", 10);
+  }
+
+  @Benchmark
+  public List<ClueIndex.Hit> conjunction() {
+    return index.search("w40 w700", 10);
+  }
+
+  @Benchmark
+  public List<ClueIndex.Hit> phrase() {
+    return index.search("\"w3 w5\"", 10);
+  }
+
+  @Benchmark
+  public List<ClueIndex.Hit> disjunctionWithExclusion() {
+    return index.search("w900 OR w1200 -w2", 10);
+  }
+}
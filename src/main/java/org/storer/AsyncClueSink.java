@@ -0,0 +1,191 @@
+package org.storer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.storer.meta.Clue;
+import org.storer.util.IntHashSet;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind {@link ClueSink}: producers enqueue games and a single background thread combines
+ * queued games into one transaction of up to {@code maxRows} rows, or fewer when the storer's
+ * batch-size controller has shortened transactions. The writer waits up to
+ * {@code lingerMillis} for more games before committing a partly filled transaction. If the
+ * writer thread dies, callers blocked in {@link #submit}, {@link #flush} or {@link #close} fail
+ * instead of waiting for it.
+ */
+class AsyncClueSink implements ClueSink {
+
+  private static final Logger log = LoggerFactory.getLogger(AsyncClueSink.class);
+
+  /** A queued game, or a flush/stop marker when {@code clues} is null. */
+  private record Pending(List<Clue> clues, CountDownLatch done, boolean stop) {}
+
+  private final Storer storer;
+  private final int maxRows;
+  private final long lingerNanos;
+  private final BlockingQueue<Pending> queue;
+  private final Thread writer;
+  private volatile Throwable writerFailure;
+
+  private final List<Exception> failures = new ArrayList<>();
+  private IntHashSet failedGames = new IntHashSet();
+  private volatile boolean closed;
+
+  AsyncClueSink(Storer storer, int maxRows, int queueDepth, long lingerMillis) {
+    this.storer = storer;
+    this.maxRows = maxRows;
+    this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+    this.queue = new ArrayBlockingQueue<>(queueDepth);
+    this.writer = Thread.ofPlatform().name("clue-writer").daemon().start(this::run);
+  }
+
+  @Override
+  public void submit(List<Clue> clues) {
+    if (closed) {
+      throw new IllegalStateException("Sink is closed");
+    }
+    if (!clues.isEmpty()) {
+      put(new Pending(clues, null, false));
+    }
+  }
+
+  @Override
+  public void flush() {
+    CountDownLatch done = new CountDownLatch(1);
+    put(new Pending(null, done, false));
+    await(done);
+    reportFailures();
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    CountDownLatch done = new CountDownLatch(1);
+    put(new Pending(null, done, true));
+    await(done);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    reportFailures();
+  }
+
+  private void run() {
+    try {
+      writeQueued();
+    } catch (Throwable t) {
+      writerFailure = t;
+      log.error("Clue writer stopped", t);
+    }
+  }
+
+  private void writeQueued() {
+    List<List<Clue>> games = new ArrayList<>();
+    while (true) {
+      Pending next;
+      try {
+        next = queue.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+
+      int rows = 0;
+      int limit = storer.transactionRows(maxRows);
+      long deadline = System.nanoTime() + lingerNanos;
+      while (next != null && next.clues() != null) {
+        games.add(next.clues());
+        rows += next.clues().size();
+        if (rows >= limit) {
+          next = null;
+          break;
+        }
+        try {
+          next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+          next = null;
+        }
+      }
+
+      if (!games.isEmpty()) {
+        write(games, rows);
+        games.clear();
+      }
+      if (next != null) {
+        next.done().countDown();
+        if (next.stop()) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void write(List<List<Clue>> games, int rows) {
+    List<Clue> combined = new ArrayList<>(rows);
+    games.forEach(combined::addAll);
+    try {
+      storer.insertTransaction(combined);
+      log.debug("Committed {} games ({} rows)", games.size(), rows);
+    } catch (SQLException | RuntimeException e) {
+      log.error("Failed to store {} games ({} rows)", games.size(), rows, e);
+      synchronized (failures) {
+        failures.add(e);
+        games.forEach(game -> failedGames.add(game.getFirst().gameId()));
+      }
+    }
+  }
+
+  private void reportFailures() {
+    synchronized (failures) {
+      if (failures.isEmpty()) {
+        return;
+      }
+      FailedGamesException error = new FailedGamesException(
+          "Failed to store " + failedGames.size() + " games", failures.getFirst(), failedGames);
+      failures.subList(1, failures.size()).forEach(error::addSuppressed);
+      failures.clear();
+      failedGames = new IntHashSet();
+      throw error;
+    }
+  }
+
+  private void put(Pending pending) {
+    try {
+      while (!queue.offer(pending, 100, TimeUnit.MILLISECONDS)) {
+        checkWriter();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while queueing clues", e);
+    }
+  }
+
+  private void await(CountDownLatch done) {
+    try {
+      while (!done.await(100, TimeUnit.MILLISECONDS)) {
+        checkWriter();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for writes", e);
+    }
+  }
+
+  /** Fails fast once the writer thread has died, since nothing would drain the queue. */
+  private void checkWriter() {
+    if (!writer.isAlive()) {
+      throw new IllegalStateException("Clue writer has stopped", writerFailure);
+    }
+  }
+}
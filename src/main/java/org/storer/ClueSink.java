@@ -0,0 +1,41 @@
+package org.storer;
+
+import org.storer.meta.Clue;
+import org.storer.util.IntHashSet;
+
+import java.util.List;
+
+/** Destination for scraped games. Implementations may write asynchronously. */
+public interface ClueSink extends AutoCloseable {
+
+  /** Queues one game's clues for storage. May block if the sink is backed up. */
+  void submit(List<Clue> clues);
+
+  /**
+   * Waits until every submitted game has been written.
+   *
+   * @throws FailedGamesException if any write failed since the last flush
+   */
+  void flush();
+
+  /** Flushes outstanding writes and releases the sink's resources. */
+  @Override
+  void close();
+
+  /** Writes that failed since the last flush, with the ids of the games they held. */
+  class FailedGamesException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient IntHashSet gameIds;
+
+    public FailedGamesException(String message, Throwable cause, IntHashSet gameIds) {
+      super(message, cause);
+      this.gameIds = gameIds;
+    }
+
+    public IntHashSet gameIds() {
+      return gameIds;
+    }
+  }
+}
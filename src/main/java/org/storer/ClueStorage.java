@@ -2,50 +2,285 @@ package org.storer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.storer.archive.PageArchive;
 import org.storer.meta.Clue;
+import org.storer.metrics.Metrics;
+import org.storer.util.IntHashSet;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 public class ClueStorage {
 
   private static final Logger log = LoggerFactory.getLogger(ClueStorage.class);
-  private static final Scraper scraper = new Scraper(new ScraperHelper());
+  private static final String USAGE =
+      "Usage: ClueStorage [--dry-run] [--concurrency <games>] [--rate <requests/sec>] [--unordered]"
+          + " [--archive <dir>] [--metrics <json-file>] <season | first-last | all>\n"
+          + "       ClueStorage --follow [--poll <minutes>] [--dry-run] [--concurrency <games>] [--rate <requests/sec>]"
+          + " [--archive <dir>] [--metrics <json-file>] [season]\n"
+          + "       ClueStorage reparse [--dry-run] [--replace] [--metrics <json-file>] <archive-dir>\n"
+          + "       ClueStorage rebuild-topic-stats";
 
-  private static void storeClues(int season, boolean dryRun) {
-    String seasonUrl = "https://www.j-archive.com/showseason.php?season=" + season;
-    List<String> gameIds = scraper.scrapeSeason(seasonUrl);
-    System.out.println(gameIds);
+  private static final String SEASON_URL = "https://www.j-archive.com/showseason.php?season=";
+  private static final String SEASON_LIST_URL = "https://www.j-archive.com/listseasons.php";
+  private static final int SINK_MAX_ROWS = 2_000;
+  private static final int SINK_QUEUE_DEPTH = 64;
+  private static final long SINK_LINGER_MILLIS = 500;
+  private static final int DEFAULT_CONCURRENCY = 1;
+  private static final double DEFAULT_RATE = 2.0;
+  private static final long DEFAULT_POLL_MINUTES = 60;
 
-    Storer storer = dryRun ? null : new Storer();
+  private static void storeClues(List<Integer> seasons, Scraper scraper, Storer storer,
+                  int concurrency, boolean ordered) throws InterruptedException {
+    boolean dryRun = storer == null;
+    IntHashSet storedGameIds = dryRun ? new IntHashSet() : storer.loadStoredGameIds();
+    log.info("{} games already stored", storedGameIds.size());
 
-    gameIds.forEach(gameId -> {
-      String gameUrl = "https://j-archive.com/showgame.php?game_id=" + gameId;
-      List<Clue> clues = scraper.scrapeGame(gameUrl, Integer.parseInt(gameId));
-      String date = clues.isEmpty() ? "unknown" : clues.getFirst().gameDate();
-      if (dryRun) {
-        log.info("[DRY RUN] Game {} ({}): {} clues would be stored", gameId, date, clues.size());
-      } else {
-        log.info("Storing game {} ({}): {} clues", gameId, date, clues.size());
-        storer.storeClues(clues);
+    SeasonScraper seasonScraper = new SeasonScraper(scraper, concurrency, ordered);
+    try (ClueSink sink = dryRun ? null : storer.asyncSink(SINK_MAX_ROWS, SINK_QUEUE_DEPTH, SINK_LINGER_MILLIS)) {
+      for (int season : seasons) {
+        storeSeason(season, scraper, seasonScraper, sink, storedGameIds);
+      }
+    }
+  }
+
+  private static void storeSeason(int season, Scraper scraper, SeasonScraper seasonScraper, ClueSink sink,
+                  IntHashSet storedGameIds) throws InterruptedException {
+    boolean dryRun = sink == null;
+    List<String> gameIds = scraper.scrapeSeason(SEASON_URL + season);
+    List<String> missing = new ArrayList<>();
+    for (String gameId : gameIds) {
+      if (!storedGameIds.contains(Integer.parseInt(gameId))) {
+        missing.add(gameId);
+      }
+    }
+    log.info("Season {}: {} games, {} already stored, {} to scrape",
+        season, gameIds.size(), gameIds.size() - missing.size(), missing.size());
+
+    seasonScraper.scrape(missing, (gameId, clues) -> {
+      storeGame(sink, gameId, clues);
+      if (!dryRun && !clues.isEmpty()) {
+        storedGameIds.add(Integer.parseInt(gameId));
       }
     });
   }
 
+  private static void storeGame(ClueSink sink, String gameId, List<Clue> clues) {
+    String date = clues.isEmpty() ? "unknown" : clues.getFirst().gameDate();
+    if (sink == null) {
+      log.info("[DRY RUN] Game {} ({}): {} clues would be stored", gameId, date, clues.size());
+    } else {
+      log.info("Storing game {} ({}): {} clues", gameId, date, clues.size());
+      sink.submit(clues);
+    }
+  }
+
+  /** Polls {@code season}, or the newest season when it is 0, until interrupted. */
+  private static void follow(int season, Scraper scraper, Storer storer, int concurrency, Duration interval)
+      throws InterruptedException {
+    boolean dryRun = storer == null;
+    IntHashSet storedGameIds = dryRun ? new IntHashSet() : storer.loadStoredGameIds();
+    log.info("{} games already stored", storedGameIds.size());
+
+    SeasonFollower follower = new SeasonFollower(scraper, new SeasonScraper(scraper, concurrency, false),
+        SEASON_LIST_URL, SEASON_URL, season);
+    try (ClueSink sink = dryRun ? null : storer.asyncSink(SINK_MAX_ROWS, SINK_QUEUE_DEPTH, SINK_LINGER_MILLIS)) {
+      follower.run(storedGameIds, (gameId, clues) -> storeGame(sink, gameId, clues), sink, interval);
+    }
+  }
+
+  private static void reparse(Path archiveDir, Storer storer, boolean replace) throws IOException {
+    boolean dryRun = storer == null;
+    IntHashSet storedGameIds = dryRun || replace ? new IntHashSet() : storer.loadStoredGameIds();
+
+    try (PageArchive archive = PageArchive.open(archiveDir);
+      ClueSink sink = dryRun || replace ? null : storer.asyncSink(SINK_MAX_ROWS, SINK_QUEUE_DEPTH, SINK_LINGER_MILLIS)) {
+      long start = System.nanoTime();
+      long clueCount = new Reparser(new Scraper(new ScraperHelper()), archive).reparse((gameId, clues) -> {
+        int id = Integer.parseInt(gameId);
+        if (dryRun) {
+          log.debug("[DRY RUN] Game {}: {} clues re-parsed", gameId, clues.size());
+        } else if (clues.isEmpty() || storedGameIds.contains(id)) {
+          log.debug("Skipping game {}", gameId);
+        } else if (replace) {
+          log.info("Replacing game {}: {} clues", gameId, clues.size());
+          storer.replaceGame(id, clues);
+        } else {
+          log.info("Storing game {}: {} clues", gameId, clues.size());
+          sink.submit(clues);
+        }
+      });
+      log.info("{}Re-parsed {} clues in {} ms", dryRun ? "[DRY RUN] " : "", clueCount,
+          (System.nanoTime() - start) / 1_000_000);
+    }
+  }
+
+  private static void reparseMain(String[] args) {
+    boolean dryRun = false;
+    boolean replace = false;
+    String archiveArg = null;
+    String metricsArg = null;
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--dry-run" -> dryRun = true;
+          case "--replace" -> replace = true;
+          case "--metrics" -> metricsArg = args[++i];
+          default -> archiveArg = args[i];
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      archiveArg = null;
+    }
+    if (archiveArg == null) {
+      System.err.println(USAGE);
+      System.exit(1);
+    }
+
+    Metrics.Reporter reporter = startMetrics(metricsArg);
+    try (reporter) {
+      reparse(Path.of(archiveArg), dryRun ? null : new Storer(), replace);
+    } catch (IOException e) {
+      log.error("Failed to read archive {}", archiveArg, e);
+      System.exit(1);
+    } catch (IllegalStateException e) {
+      log.error(e.getMessage(), e.getCause());
+      System.exit(1);
+    }
+  }
+
+  /** Starts metrics when {@code --metrics} was given; {@code null} otherwise. */
+  private static Metrics.Reporter startMetrics(String metricsArg) {
+    return metricsArg == null ? null : Metrics.start(Path.of(metricsArg), Metrics.REPORT_INTERVAL);
+  }
+
+  private static void rebuildTopicStatsMain() {
+    try {
+      long start = System.nanoTime();
+      int rows = new Storer().rebuildTopicStats();
+      log.info("Rebuilt topic_stats: {} topic/round rows in {} ms", rows,
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (IllegalStateException e) {
+      log.error(e.getMessage(), e.getCause());
+      System.exit(1);
+    }
+  }
+
+  /** Parses {@code 42}, {@code 40-42} or {@code all}; the season list is only fetched for {@code all}. */
+  static List<Integer> parseSeasons(String spec, Supplier<List<Integer>> allSeasons) {
+    if (spec.equalsIgnoreCase("all")) {
+      return allSeasons.get();
+    }
+    int dash = spec.indexOf('-', 1);
+    if (dash < 0) {
+      return List.of(Integer.parseInt(spec));
+    }
+    int first = Integer.parseInt(spec.substring(0, dash));
+    int last = Integer.parseInt(spec.substring(dash + 1));
+    if (last < first) {
+      throw new NumberFormatException("Season range is reversed: " + spec);
+    }
+    return IntStream.rangeClosed(first, last).boxed().toList();
+  }
+
   public static void main(String[] args) {
-    boolean dryRun = args.length > 0 && args[0].equals("--dry-run");
-    int seasonArgIndex = dryRun ? 1 : 0;
+    if (args.length > 0 && args[0].equals("reparse")) {
+      reparseMain(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+    if (args.length > 0 && args[0].equals("rebuild-topic-stats")) {
+      rebuildTopicStatsMain();
+      return;
+    }
+
+    boolean dryRun = false;
+    boolean ordered = true;
+    boolean follow = false;
+    long pollMinutes = DEFAULT_POLL_MINUTES;
+    int concurrency = DEFAULT_CONCURRENCY;
+    double rate = DEFAULT_RATE;
+    String seasonArg = null;
+    String archiveArg = null;
+    String metricsArg = null;
+    boolean valid = true;
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--dry-run" -> dryRun = true;
+          case "--unordered" -> ordered = false;
+          case "--follow" -> follow = true;
+          case "--poll" -> pollMinutes = Long.parseLong(args[++i]);
+          case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+          case "--rate" -> rate = Double.parseDouble(args[++i]);
+          case "--archive" -> archiveArg = args[++i];
+          case "--metrics" -> metricsArg = args[++i];
+          default -> seasonArg = args[i];
+        }
+      }
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      valid = false;
+    }
 
-    if (seasonArgIndex >= args.length) {
-      System.err.println("Usage: ClueStorage [--dry-run] <season>");
+    if (!valid || (seasonArg == null && !follow) || concurrency < 1 || pollMinutes < 1) {
+      System.err.println(USAGE);
       System.exit(1);
     }
 
-    String seasonArg = args[seasonArgIndex];
+    PageArchive archive = null;
+    if (archiveArg != null) {
+      try {
+        archive = PageArchive.open(Path.of(archiveArg));
+      } catch (IOException e) {
+        log.error("Failed to open archive {}", archiveArg, e);
+        System.exit(1);
+      }
+    }
+
+    Scraper scraper = new Scraper(new ScraperHelper(), new PageFetcher(rate, concurrency, archive));
+    List<Integer> seasons = List.of();
+    int followSeason = 0;
     try {
-      storeClues(Integer.parseInt(seasonArg), dryRun);
+      if (follow) {
+        followSeason = seasonArg == null ? 0 : Integer.parseInt(seasonArg);
+      } else {
+        seasons = parseSeasons(seasonArg, () -> scraper.scrapeSeasonList(SEASON_LIST_URL));
+      }
     } catch (NumberFormatException e) {
-      System.err.println("Error: season must be a number, got: " + seasonArg);
+      System.err.println(follow
+          ? "Error: --follow takes a single season number, got: " + seasonArg
+          : "Error: season must be a number, a range like 40-42, or 'all', got: " + seasonArg);
       System.exit(1);
     }
+
+    Metrics.Reporter reporter = startMetrics(metricsArg);
+    try (reporter) {
+      Storer storer = dryRun ? null : new Storer();
+      if (follow) {
+        follow(followSeason, scraper, storer, concurrency, Duration.ofMinutes(pollMinutes));
+      } else {
+        storeClues(seasons, scraper, storer, concurrency, ordered);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      System.exit(1);
+    } catch (IllegalStateException e) {
+      log.error(e.getMessage(), e.getCause());
+      System.exit(1);
+    } finally {
+      if (archive != null) {
+        try {
+          archive.close();
+        } catch (IOException e) {
+          log.error("Failed to close archive {}", archiveArg, e);
+        }
+      }
+    }
   }
 }
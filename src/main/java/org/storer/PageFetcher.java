@@ -0,0 +1,148 @@
+package org.storer;
+
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.storer.archive.PageArchive;
+import org.storer.metrics.Histogram;
+import org.storer.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fetches pages with Jsoup, optionally throttled by a token bucket per host and copied into a
+ * {@link PageArchive} for offline re-parsing. Fetch latency is recorded per host as
+ * {@code http.fetch.<host>}, and time spent waiting on the token bucket as {@code http.throttle}.
+ */
+public class PageFetcher {
+
+  private final double requestsPerSecond;
+  private final int burst;
+  private final PageArchive archive;
+  private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+  // ETag and Last-Modified of the last full response to each URL fetched with fetchIfModified
+  private final Map<String, Validators> validators = new ConcurrentHashMap<>();
+
+  private static final Histogram THROTTLE_TIME = Metrics.timer("http.throttle");
+
+  /** Unthrottled fetcher. */
+  public PageFetcher() {
+    this(0, 1);
+  }
+
+  /** @param requestsPerSecond per-host limit; zero or less disables throttling */
+  public PageFetcher(double requestsPerSecond, int burst) {
+    this(requestsPerSecond, burst, null);
+  }
+
+  /** @param archive receives the body of every fetched page; may be {@code null} */
+  public PageFetcher(double requestsPerSecond, int burst, PageArchive archive) {
+    this.requestsPerSecond = requestsPerSecond;
+    this.burst = burst;
+    this.archive = archive;
+  }
+
+  Document fetch(String url) throws IOException {
+    throttle(url);
+    long start = Metrics.startTimer();
+    Document doc;
+    if (archive == null) {
+      doc = Jsoup.connect(url).get();
+    } else {
+      String body = Jsoup.connect(url).execute().body();
+      archive.append(url, gameIdOf(url), body);
+      doc = Jsoup.parse(body, url);
+    }
+    if (start != 0) {
+      Metrics.timer("http.fetch." + hostKey(url)).recordSince(start);
+    }
+    return doc;
+  }
+
+  /**
+   * Conditional GET: sends the ETag and Last-Modified of the previous response to {@code url}, if
+   * any, and returns {@code null} when the server answers 304 Not Modified.
+   */
+  Document fetchIfModified(String url) throws IOException {
+    throttle(url);
+    long start = Metrics.startTimer();
+    Connection connection = Jsoup.connect(url).ignoreHttpErrors(true);
+    Validators previous = validators.get(url);
+    if (previous != null) {
+      if (previous.etag() != null) {
+        connection.header("If-None-Match", previous.etag());
+      }
+      if (previous.lastModified() != null) {
+        connection.header("If-Modified-Since", previous.lastModified());
+      }
+    }
+    Connection.Response response = connection.execute();
+    if (start != 0) {
+      Metrics.timer("http.fetch." + hostKey(url)).recordSince(start);
+    }
+    if (response.statusCode() == 304) {
+      return null;
+    }
+    if (response.statusCode() >= 400) {
+      throw new HttpStatusException("HTTP error fetching URL", response.statusCode(), url);
+    }
+    String body = response.body();
+    if (archive != null) {
+      archive.append(url, gameIdOf(url), body);
+    }
+    validators.put(url, new Validators(response.header("ETag"), response.header("Last-Modified")));
+    return Jsoup.parse(body, url);
+  }
+
+  private record Validators(String etag, String lastModified) {
+  }
+
+  /** The {@code game_id} query parameter of a game page URL, or -1 for any other page. */
+  static int gameIdOf(String url) {
+    String query = URI.create(url).getQuery();
+    if (query != null) {
+      for (String param : query.split("&")) {
+        if (param.startsWith("game_id=")) {
+          try {
+            return Integer.parseInt(param.substring("game_id=".length()));
+          } catch (NumberFormatException e) {
+            return -1;
+          }
+        }
+      }
+    }
+    return -1;
+  }
+
+  private void throttle(String url) throws IOException {
+    if (requestsPerSecond <= 0) {
+      return;
+    }
+    TokenBucket bucket = buckets.computeIfAbsent(hostKey(url),
+        host -> new TokenBucket(requestsPerSecond, burst));
+    long start = Metrics.startTimer();
+    try {
+      bucket.acquire();
+      THROTTLE_TIME.recordSince(start);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to fetch " + url);
+    }
+  }
+
+  /** www.j-archive.com and j-archive.com are the same server, so they share a bucket. */
+  static String hostKey(String url) {
+    String host = URI.create(url).getHost();
+    if (host == null) {
+      return "";
+    }
+    host = host.toLowerCase(Locale.ROOT);
+    return host.startsWith("www.") ? host.substring(4) : host;
+  }
+}
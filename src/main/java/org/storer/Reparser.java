@@ -0,0 +1,53 @@
+package org.storer;
+
+import org.jsoup.Jsoup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.storer.archive.PageArchive;
+import org.storer.meta.Clue;
+
+import java.util.List;
+
+/**
+ * Re-derives clues from a {@link PageArchive} without touching the network. Games are parsed in
+ * parallel chunks on the common fork-join pool and handed to the handler in archive order.
+ */
+class Reparser {
+
+  private static final Logger log = LoggerFactory.getLogger(Reparser.class);
+  private static final int CHUNK_GAMES = 256;
+
+  private final Scraper scraper;
+  private final PageArchive archive;
+
+  Reparser(Scraper scraper, PageArchive archive) {
+    this.scraper = scraper;
+    this.archive = archive;
+  }
+
+  /** Returns the number of clues produced. */
+  long reparse(SeasonScraper.GameHandler handler) {
+    List<PageArchive.Entry> games = archive.latestGames();
+    log.info("Re-parsing {} archived games", games.size());
+
+    long clueCount = 0;
+    for (int start = 0; start < games.size(); start += CHUNK_GAMES) {
+      List<PageArchive.Entry> chunk = games.subList(start, Math.min(start + CHUNK_GAMES, games.size()));
+      List<List<Clue>> parsed = chunk.parallelStream().map(this::parse).toList();
+      for (int i = 0; i < chunk.size(); i++) {
+        clueCount += parsed.get(i).size();
+        handler.handle(String.valueOf(chunk.get(i).gameId()), parsed.get(i));
+      }
+    }
+    return clueCount;
+  }
+
+  private List<Clue> parse(PageArchive.Entry entry) {
+    try {
+      return scraper.scrapeGame(Jsoup.parse(archive.read(entry), entry.url()), entry.gameId());
+    } catch (Exception e) {
+      log.error("Failed to re-parse game {}", entry.gameId(), e);
+      return List.of();
+    }
+  }
+}
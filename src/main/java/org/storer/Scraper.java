@@ -1,48 +1,60 @@
 package org.storer;
 
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.storer.meta.Clue;
+import org.storer.meta.Round;
+import org.storer.metrics.Histogram;
+import org.storer.metrics.Metrics;
 
 import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
 
 public class Scraper {
 
   private static final Logger log = LoggerFactory.getLogger(Scraper.class);
+  private static final Histogram PARSE_TIME = Metrics.timer("scrape.parse");
+  private static final Histogram CLUES_PER_GAME = Metrics.distribution("scrape.cluesPerGame");
   private final ScraperHelper scraperHelper;
+  private final PageFetcher fetcher;
 
   public Scraper(ScraperHelper scraperHelper) {
+    this(scraperHelper, new PageFetcher());
+  }
+
+  public Scraper(ScraperHelper scraperHelper, PageFetcher fetcher) {
     this.scraperHelper = scraperHelper;
+    this.fetcher = fetcher;
   }
 
   List<Clue> scrapeGame(Document doc, int gameNumber) throws Exception {
-    String title = doc.title();
-    log.debug("Title: {}", title);
+    long start = Metrics.startTimer();
+    int airDay = getAirDay(doc, gameNumber);
 
-    String[] titleParts = title.split("aired");
-    if (titleParts.length < 2) {
-      throw new IllegalArgumentException("Unexpected page title format: " + title);
-    }
-    String gameDate = titleParts[1].trim();
-    log.debug("Scraping Game: {} for date: {}", gameNumber, gameDate);
-
-    List<String> categories = getCategories(doc);
-    log.debug("Categories: {}", categories);
+    BoardWalker board = new BoardWalker();
+    NodeTraversor.traverse(board, doc);
+    log.debug("Categories: {}", board.categories);
 
-    List<Clue> clues = getClues(doc, categories, gameNumber, gameDate);
+    List<Clue> clues = getClues(board.cells, board.categories, gameNumber, airDay);
     log.debug("Clue Count: {}", clues.size());
+    PARSE_TIME.recordSince(start);
+    CLUES_PER_GAME.record(clues.size());
     return clues;
   }
 
   protected List<Clue> scrapeGame(String url, int gameNumber) {
     try {
-      Document doc = Jsoup.connect(url).get();
+      Document doc = fetcher.fetch(url);
       return scrapeGame(doc, gameNumber);
     } catch (Exception e) {
       log.error("Failed to scrape game {}", gameNumber, e);
@@ -50,24 +62,78 @@ public class Scraper {
     }
   }
 
-  private List<String> getCategories(Document doc) {
-    List<String> categories = new ArrayList<>();
-    Elements categoryElements = doc.select(".category_name");
-    for (Element element : categoryElements) {
-      categories.add(element.text());
+  int getAirDay(Document doc, int gameNumber) {
+    String title = doc.title();
+    log.debug("Title: {}", title);
+
+    String[] titleParts = title.split("aired");
+    if (titleParts.length < 2) {
+      throw new IllegalArgumentException("Unexpected page title format: " + title);
     }
-    return categories;
+    String gameDate = titleParts[1].trim();
+    log.debug("Scraping Game: {} for date: {}", gameNumber, gameDate);
+    return Clue.parseDate(gameDate);
   }
 
-  private List<Clue> getClues(Document doc, List<String> categories,
-                int gameId, String gameDate) {
-    List<Clue> clues = new ArrayList<>();
+  /** The first text, value and response elements found inside one {@code td.clue} cell. */
+  record ClueCell(Element text, Element value, Element response) {}
+
+  /**
+   * Collects category names and clue cells in one walk over the document, matching what the
+   * {@code .category_name}, {@code td.clue}, {@code td.clue_text}, {@code td.clue_value} and
+   * {@code td em.correct_response} selectors would find.
+   */
+  private static final class BoardWalker implements NodeVisitor {
+    final List<String> categories = new ArrayList<>(13);
+    final List<ClueCell> cells = new ArrayList<>(61);
+
+    private Element cell;
+    private Element text;
+    private Element value;
+    private Element response;
+
+    @Override
+    public void head(Node node, int depth) {
+      if (!(node instanceof Element element)) {
+        return;
+      }
+      boolean isTd = element.normalName().equals("td");
+      if (element.hasClass("category_name")) {
+        categories.add(element.text());
+      }
+      if (cell == null) {
+        if (isTd && element.hasClass("clue")) {
+          cell = element;
+        }
+      } else if (isTd) {
+        if (text == null && element.hasClass("clue_text")) {
+          text = element;
+        } else if (value == null && element.hasClass("clue_value")) {
+          value = element;
+        }
+      } else if (response == null && element.normalName().equals("em") && element.hasClass("correct_response")) {
+        response = element;
+      }
+    }
+
+    @Override
+    public void tail(Node node, int depth) {
+      if (node == cell) {
+        cells.add(new ClueCell(text, value, response));
+        cell = null;
+        text = null;
+        value = null;
+        response = null;
+      }
+    }
+  }
 
-    Elements clueElements = doc.select("td.clue");
-    log.debug("Clue Element Count: {}", clueElements.size());
+  List<Clue> getClues(List<ClueCell> cells, List<String> categories,
+                int gameId, int airDay) {
+    List<Clue> clues = new ArrayList<>(cells.size());
 
-    for (Element clue : clueElements) {
-      Element textElement = clue.selectFirst("td.clue_text");
+    for (ClueCell cell : cells) {
+      Element textElement = cell.text();
       if (textElement == null) {
         log.debug("Skipping unrevealed clue");
         continue;
@@ -76,7 +142,7 @@ public class Scraper {
       String clueText = textElement.text();
       String clueId = textElement.attr("id");
       boolean isDailyDouble = false;
-      Element valueElement = clue.selectFirst("td.clue_value");
+      Element valueElement = cell.value();
       String clueValue;
 
       // Check if the clue is a daily double (FJ has no value element but is not a DD)
@@ -91,16 +157,16 @@ public class Scraper {
         clueValue = valueElement.text();
       }
 
-      Element responseElement = clue.selectFirst("td em.correct_response");
+      Element responseElement = cell.response();
       String correctResponse = responseElement != null ?
           responseElement.text() : "Default Correct Response";
 
       Clue clueObj;
       if (clueId.contains("FJ")) {
-        clueObj = constructFjClue(categories, clueText, correctResponse, gameId, gameDate);
+        clueObj = constructFjClue(categories, clueText, correctResponse, gameId, airDay);
       } else {
         clueObj = constructClue(categories, clueValue, clueText,
-            clueId, correctResponse, isDailyDouble, gameId, gameDate);
+            clueId, correctResponse, isDailyDouble, gameId, airDay);
       }
       clues.add(clueObj);
       log.debug("Parsed clue {} | {} | {}", clueId, clueObj.category(), clueObj.clueValue());
@@ -111,52 +177,118 @@ public class Scraper {
   private Clue constructClue(
       List<String> categories, String clueValue, String clueText,
       String clueId, String correctResponse, boolean isDailyDouble,
-      int gameId, String gameDate) {
+      int gameId, int airDay) {
     String[] clueIdParts = clueId.split("_");
-    String round = clueIdParts[1];
+    Round round = Round.of(clueIdParts[1]);
     int categoryNumber = -1;
-    if (round.equals("J")) {
+    if (round == Round.J) {
       categoryNumber = Integer.parseInt(clueIdParts[2]) - 1;
-    } else if (round.equals("DJ")) {
+    } else if (round == Round.DJ) {
       categoryNumber = Integer.parseInt(clueIdParts[2]) + 6 - 1;
     }
+    int row = Integer.parseInt(clueIdParts[3]);
     String category = categories.get(categoryNumber);
-    return new Clue(category, round, categoryNumber, clueValue, clueText,
-        correctResponse, isDailyDouble, gameId, gameDate);
+    return new Clue(clueId(gameId, round, categoryNumber, row), category, round, categoryNumber,
+        Clue.parseValue(clueValue), clueText, correctResponse, isDailyDouble, gameId, airDay);
   }
 
   private Clue constructFjClue(List<String> categories, String clueText,
-                String correctResponse, int gameId, String gameDate) {
-    return new Clue(categories.get(categories.size() - 1),
-        "FJ",
-        categories.size() - 1,
-        "$0",
+                String correctResponse, int gameId, int airDay) {
+    int categoryNumber = categories.size() - 1;
+    return new Clue(clueId(gameId, Round.FJ, categoryNumber, 0),
+        categories.get(categoryNumber),
+        Round.FJ,
+        categoryNumber,
+        0,
         clueText,
         correctResponse,
         false,
         gameId,
-        gameDate);
+        airDay);
+  }
+
+  /**
+   * Id of a scraped clue, derived from its board position so that re-scraping a game yields the
+   * same ids. {@code row} is the last part of the clue element id ({@code clue_J_3_2}); FJ uses 0.
+   */
+  static UUID clueId(int gameId, Round round, int categoryNumber, int row) {
+    return UUID.nameUUIDFromBytes((gameId + "|" + round + "|" + categoryNumber + "|" + row)
+        .getBytes(StandardCharsets.UTF_8));
   }
 
   protected List<String> scrapeSeason(String url) {
-    List<String> gameIds = new ArrayList<>();
     try {
-      Document doc = Jsoup.connect(url).get();
-      Elements links = doc.select("a[href]");
-      for (Element link : links) {
-        String childUrl = link.absUrl("href");
-        if (childUrl.contains("game_id")) {
-          for (String param : new URI(childUrl).getQuery().split("&")) {
-            if (param.startsWith("game_id=")) {
-              gameIds.add(param.substring("game_id=".length()));
-              break;
-            }
+      return scrapeSeason(fetcher.fetch(url));
+    } catch (Exception e) {
+      log.error("Failed to scrape season at {}", url, e);
+      return new ArrayList<>();
+    }
+  }
+
+  /**
+   * Like {@link #scrapeSeason(String)}, but with a conditional GET: {@code null} when the page has
+   * not changed since the last poll of {@code url}, or could not be fetched.
+   */
+  protected List<String> pollSeason(String url) {
+    try {
+      Document doc = fetcher.fetchIfModified(url);
+      return doc == null ? null : scrapeSeason(doc);
+    } catch (Exception e) {
+      log.error("Failed to poll season at {}", url, e);
+      return null;
+    }
+  }
+
+  List<String> scrapeSeason(Document doc) throws URISyntaxException {
+    List<String> gameIds = new ArrayList<>();
+    for (Element link : doc.select("a[href]")) {
+      String childUrl = link.absUrl("href");
+      if (childUrl.contains("game_id")) {
+        for (String param : new URI(childUrl).getQuery().split("&")) {
+          if (param.startsWith("game_id=")) {
+            gameIds.add(param.substring("game_id=".length()));
+            break;
           }
         }
       }
-    } catch (Exception e) {
-      log.error("Failed to scrape season at {}", url, e);
     }
     return gameIds;
   }
+
+  /** Numeric season ids linked from the season list page, in ascending order. */
+  protected List<Integer> scrapeSeasonList(String url) {
+    try {
+      return scrapeSeasonList(fetcher.fetch(url));
+    } catch (Exception e) {
+      log.error("Failed to scrape season list at {}", url, e);
+      return new ArrayList<>();
+    }
+  }
+
+  /** Conditional-GET variant of {@link #scrapeSeasonList(String)}; {@code null} when unchanged. */
+  protected List<Integer> pollSeasonList(String url) {
+    try {
+      Document doc = fetcher.fetchIfModified(url);
+      return doc == null ? null : scrapeSeasonList(doc);
+    } catch (Exception e) {
+      log.error("Failed to poll season list at {}", url, e);
+      return null;
+    }
+  }
+
+  List<Integer> scrapeSeasonList(Document doc) {
+    TreeSet<Integer> seasons = new TreeSet<>();
+    for (Element link : doc.select("a[href*=showseason.php]")) {
+      String href = link.attr("href");
+      int start = href.indexOf("season=");
+      if (start < 0) {
+        continue;
+      }
+      String season = href.substring(start + "season=".length());
+      if (!season.isEmpty() && season.chars().allMatch(Character::isDigit)) {
+        seasons.add(Integer.parseInt(season));
+      }
+    }
+    return new ArrayList<>(seasons);
+  }
 }
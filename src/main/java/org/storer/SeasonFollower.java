@@ -0,0 +1,115 @@
+package org.storer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.storer.util.IntHashSet;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the database current by polling the latest season page with conditional GETs and
+ * scraping only games that are not stored yet. An unchanged page costs one 304 response; the
+ * game list from the last full response is kept so that games which failed to scrape or to store
+ * are retried on the next poll without refetching the season page.
+ */
+class SeasonFollower {
+
+  private static final Logger log = LoggerFactory.getLogger(SeasonFollower.class);
+
+  private final Scraper scraper;
+  private final SeasonScraper seasonScraper;
+  private final String seasonListUrl;
+  private final String seasonUrl;
+  private final boolean latest;
+
+  private int season;
+  private List<String> gameIds = List.of();
+
+  /**
+   * @param season the season to follow, or 0 to follow whichever season is newest on the season
+   *               list page
+   */
+  SeasonFollower(Scraper scraper, SeasonScraper seasonScraper, String seasonListUrl, String seasonUrl,
+          int season) {
+    this.scraper = scraper;
+    this.seasonScraper = seasonScraper;
+    this.seasonListUrl = seasonListUrl;
+    this.seasonUrl = seasonUrl;
+    this.latest = season == 0;
+    this.season = season;
+  }
+
+  /** Polls until interrupted, sleeping {@code interval} between polls. */
+  void run(IntHashSet storedGameIds, SeasonScraper.GameHandler handler, ClueSink sink, Duration interval)
+      throws InterruptedException {
+    while (!Thread.currentThread().isInterrupted()) {
+      int stored = poll(storedGameIds, handler, sink);
+      log.info("Season {}: {} new games; next poll in {} min", season, stored, interval.toMinutes());
+      Thread.sleep(interval);
+    }
+  }
+
+  /**
+   * Hands every game of the followed season that is not in {@code storedGameIds} to the handler,
+   * which submits them to {@code sink}. The sink is then flushed, and only games it wrote are added
+   * to {@code storedGameIds}. {@code sink} is null in dry-run mode.
+   */
+  int poll(IntHashSet storedGameIds, SeasonScraper.GameHandler handler, ClueSink sink)
+      throws InterruptedException {
+    if (latest) {
+      List<Integer> seasons = scraper.pollSeasonList(seasonListUrl);
+      if (seasons != null && !seasons.isEmpty() && seasons.getLast() != season) {
+        season = seasons.getLast();
+        gameIds = List.of();
+        log.info("Following season {}", season);
+      }
+    }
+    if (season == 0) {
+      return 0;
+    }
+
+    List<String> polled = scraper.pollSeason(seasonUrl + season);
+    if (polled != null) {
+      gameIds = polled;
+    }
+    List<String> missing = new ArrayList<>();
+    for (String gameId : gameIds) {
+      if (!storedGameIds.contains(Integer.parseInt(gameId))) {
+        missing.add(gameId);
+      }
+    }
+    if (missing.isEmpty()) {
+      return 0;
+    }
+
+    List<Integer> handled = new ArrayList<>();
+    seasonScraper.scrape(missing, (gameId, clues) -> {
+      handler.handle(gameId, clues);
+      if (!clues.isEmpty()) {
+        synchronized (handled) {
+          handled.add(Integer.parseInt(gameId));
+        }
+      }
+    });
+
+    IntHashSet failed = new IntHashSet();
+    if (sink != null) {
+      try {
+        sink.flush();
+      } catch (ClueSink.FailedGamesException e) {
+        log.error("Failed to store {} games; retrying them next poll", e.gameIds().size(), e);
+        failed = e.gameIds();
+      }
+    }
+    int stored = 0;
+    for (int gameId : handled) {
+      if (!failed.contains(gameId)) {
+        storedGameIds.add(gameId);
+        stored++;
+      }
+    }
+    return stored;
+  }
+}
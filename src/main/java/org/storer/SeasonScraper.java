@@ -0,0 +1,82 @@
+package org.storer;
+
+import org.storer.meta.Clue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Scrapes a list of games on virtual threads. At most {@code maxInFlight} games are being fetched
+ * or waiting to be handed over at any time; results reach the handler on the calling thread,
+ * either in game order or as soon as each game completes.
+ */
+class SeasonScraper {
+
+  static final String GAME_URL = "https://j-archive.com/showgame.php?game_id=";
+
+  interface GameHandler {
+    void handle(String gameId, List<Clue> clues);
+  }
+
+  private final Scraper scraper;
+  private final int maxInFlight;
+  private final boolean ordered;
+
+  SeasonScraper(Scraper scraper, int maxInFlight, boolean ordered) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be positive");
+    }
+    this.scraper = scraper;
+    this.maxInFlight = maxInFlight;
+    this.ordered = ordered;
+  }
+
+  void scrape(List<String> gameIds, GameHandler handler) throws InterruptedException {
+    List<CompletableFuture<List<Clue>>> results = new ArrayList<>(gameIds.size());
+    for (int i = 0; i < gameIds.size(); i++) {
+      results.add(new CompletableFuture<>());
+    }
+    BlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+    Semaphore permits = new Semaphore(maxInFlight);
+
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      executor.execute(() -> {
+        for (int i = 0; i < gameIds.size(); i++) {
+          int index = i;
+          try {
+            permits.acquire();
+          } catch (InterruptedException e) {
+            return;
+          }
+          executor.execute(() -> {
+            String gameId = gameIds.get(index);
+            try {
+              results.get(index).complete(scraper.scrapeGame(GAME_URL + gameId, Integer.parseInt(gameId)));
+            } catch (Throwable t) {
+              results.get(index).completeExceptionally(t);
+            } finally {
+              completed.add(index);
+            }
+          });
+        }
+      });
+
+      for (int n = 0; n < gameIds.size(); n++) {
+        int index = ordered ? n : completed.take();
+        List<Clue> clues = results.get(index).join();
+        permits.release();
+        handler.handle(gameIds.get(index), clues);
+      }
+    } finally {
+      executor.shutdownNow();
+      executor.close();
+    }
+  }
+}
@@ -2,22 +2,47 @@ package org.storer;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.storer.meta.Clue;
+import org.storer.metrics.HikariMetrics;
+import org.storer.metrics.Histogram;
+import org.storer.metrics.Metrics;
+import org.storer.topics.CategoryTopics;
+import org.storer.topics.TopicStats;
+import org.storer.util.AdaptiveBatchSize;
+import org.storer.util.IntHashSet;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 public class Storer {
 
+  private static final Logger log = LoggerFactory.getLogger(Storer.class);
   private static final String TABLE = "clues_java";
   private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+  static final Histogram BATCH_TIME = Metrics.timer("db.executeBatch");
+  static final Histogram BATCH_ROWS = Metrics.distribution("db.rowsPerBatch");
+  static final int INITIAL_BATCH_ROWS = 500;
+  static final int MIN_BATCH_ROWS = 50;
+  static final int MAX_BATCH_ROWS = 5_000;
+  static final Duration TARGET_BATCH_LATENCY = Duration.ofMillis(100);
 
   private final HikariDataSource dataSource;
+  // Shared by every transaction of this Storer, so the size follows the database's current speed
+  private final AdaptiveBatchSize batching =
+      new AdaptiveBatchSize("storer", INITIAL_BATCH_ROWS, MIN_BATCH_ROWS, MAX_BATCH_ROWS, TARGET_BATCH_LATENCY);
+  // Loaded from category_mappings on first write and reused for the life of this Storer
+  private volatile CategoryTopics topics;
 
   public Storer() {
     String url = System.getenv("DB_URL");
@@ -33,23 +58,162 @@ public class Storer {
     config.setJdbcUrl(url);
     config.setUsername(user);
     config.setPassword(password);
+    // Lets PgJDBC send each JDBC batch as multi-row INSERTs
+    config.addDataSourceProperty("reWriteBatchedInserts", "true");
+    HikariMetrics.install(config);
     dataSource = new HikariDataSource(config);
   }
 
+  Storer(HikariDataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  /** Every game_id already present in the table, loaded with a single query. */
+  IntHashSet loadStoredGameIds() {
+    IntHashSet gameIds = new IntHashSet(16_384);
+    try (Connection connection = dataSource.getConnection();
+      Statement stmt = connection.createStatement();
+      ResultSet rs = stmt.executeQuery("SELECT DISTINCT game_id FROM " + TABLE)) {
+      while (rs.next()) {
+        gameIds.add(rs.getInt(1));
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to load stored game ids", e);
+    }
+    return gameIds;
+  }
+
+  /**
+   * Returns a write-behind sink that combines queued games into transactions of up to
+   * {@code maxRows} rows on a background thread.
+   */
+  public ClueSink asyncSink(int maxRows, int queueDepth, long lingerMillis) {
+    return new AsyncClueSink(this, maxRows, queueDepth, lingerMillis);
+  }
+
+  /**
+   * Replaces every stored clue of a game with the given clues, in one transaction. The game's
+   * {@code cluster_assignments} rows reference the old clues, so they are deleted too; the next
+   * clusterer run assigns the new ones.
+   */
+  void replaceGame(int gameId, List<Clue> clues) {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement unassign = connection.prepareStatement(
+          "DELETE FROM cluster_assignments WHERE clue_id IN (SELECT id FROM " + TABLE + " WHERE game_id = ?)");
+        PreparedStatement delete = connection.prepareStatement(
+          "DELETE FROM " + TABLE + " WHERE game_id = ?")) {
+        TopicStats.subtractGame(connection, gameId);
+        unassign.setInt(1, gameId);
+        unassign.executeUpdate();
+        delete.setInt(1, gameId);
+        delete.executeUpdate();
+        List<String> queued = insert(connection, clues);
+        connection.commit();
+        topics.markQueued(queued);
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      }
+    } catch (SQLException e) {
+      log.error("Failed to replace game {}", gameId, e);
+      throw new IllegalStateException("Failed to replace game " + gameId, e);
+    }
+  }
+
   protected void storeClues(List<Clue> clues) {
+    try {
+      insertTransaction(clues);
+    } catch (SQLException e) {
+      log.error("Failed to store {} clues", clues.size(), e);
+      throw new IllegalStateException("Failed to store " + clues.size() + " clues", e);
+    }
+  }
+
+  /**
+   * Re-derives each row's {@code canonical_topic} from {@code category_mappings} and recomputes
+   * {@code topic_stats} from scratch; returns the number of topic rows.
+   */
+  public int rebuildTopicStats() {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try {
+        int remapped = CategoryTopics.remap(connection);
+        int rows = TopicStats.rebuild(connection);
+        connection.commit();
+        topics = CategoryTopics.load(connection);
+        log.info("Remapped {} clues; {} topic rows", remapped, rows);
+        return rows;
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to rebuild topic_stats", e);
+    }
+  }
+
+  /** Rows per transaction for a write-behind sink, as chosen by the batch-size controller. */
+  int transactionRows(int limit) {
+    return batching.transactionRows(limit);
+  }
+
+  /** Inserts the clues in a single transaction. */
+  void insertTransaction(List<Clue> clues) throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try {
+        List<String> queued = insert(connection, clues);
+        connection.commit();
+        topics.markQueued(queued);
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      }
+    }
+  }
+
+  private CategoryTopics topics(Connection connection) throws SQLException {
+    CategoryTopics loaded = topics;
+    if (loaded == null) {
+      synchronized (this) {
+        loaded = topics;
+        if (loaded == null) {
+          loaded = CategoryTopics.load(connection);
+          log.info("Loaded {} category mappings", loaded.size());
+          topics = loaded;
+        }
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Inserts the clues with their canonical topics, in {@code executeBatch} calls sized by
+   * {@link #batching}, queues unmapped categories and adds the new rows to {@code topic_stats};
+   * the caller commits and then marks the returned categories queued.
+   */
+  private List<String> insert(Connection connection, List<Clue> clues) throws SQLException {
+    // Scraped ids are deterministic, so re-storing a game is a no-op per existing row
     String insertQuery =
       "INSERT INTO " + TABLE +
       " (id, category, round, category_number, clue_value, question, answer, is_daily_double," +
-      " game_id, game_date, date_added)" +
-      " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+      " game_id, game_date, date_added, clue_value_int, air_date, canonical_topic)" +
+      " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)" +
+      " ON CONFLICT DO NOTHING";
+    String dateAdded = LocalDate.now().format(FORMATTER);
+    CategoryTopics categoryTopics = topics(connection);
 
-    try (Connection connection = dataSource.getConnection();
-      PreparedStatement ps = connection.prepareStatement(insertQuery)) {
+    try (PreparedStatement ps = connection.prepareStatement(insertQuery, TopicStats.INSERTED_ID)) {
 
-      for (Clue clue : clues) {
-        ps.setString(1, UUID.randomUUID().toString());
+      List<String> newIds = new ArrayList<>();
+      int batchStart = 0;
+      int batchSize = batching.size();
+      for (int i = 0; i < clues.size(); i++) {
+        Clue clue = clues.get(i);
+        ps.setString(1, clue.id().toString());
         ps.setString(2, clue.category());
-        ps.setString(3, clue.round());
+        ps.setString(3, clue.round().name());
         ps.setInt(4, clue.categoryNumber());
         ps.setString(5, clue.clueValue());
         ps.setString(6, clue.question());
@@ -57,13 +221,27 @@ public class Storer {
         ps.setBoolean(8, clue.isDailyDouble());
         ps.setInt(9, clue.gameId());
         ps.setString(10, clue.gameDate());
-        ps.setString(11, LocalDate.now().format(FORMATTER));
+        ps.setString(11, dateAdded);
+        ps.setInt(12, clue.value());
+        ps.setObject(13, clue.airDate(), Types.DATE);
+        ps.setString(14, categoryTopics.topic(clue.category()));
         ps.addBatch();
+        if (i + 1 - batchStart == batchSize || i + 1 == clues.size()) {
+          int rows = i + 1 - batchStart;
+          long start = System.nanoTime();
+          ps.executeBatch();
+          long elapsed = System.nanoTime() - start;
+          newIds.addAll(TopicStats.insertedIds(ps));
+          BATCH_TIME.record(elapsed);
+          BATCH_ROWS.record(rows);
+          batching.record(rows, elapsed);
+          batchStart = i + 1;
+          batchSize = batching.size();
+        }
       }
-      ps.executeBatch();
-
-    } catch (SQLException e) {
-      e.printStackTrace();
+      List<String> queued = categoryTopics.queueUnmapped(connection, clues);
+      TopicStats.add(connection, newIds);
+      return queued;
     }
   }
 }
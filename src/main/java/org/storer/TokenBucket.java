@@ -0,0 +1,56 @@
+package org.storer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiter. Callers that find the bucket empty reserve a future token and sleep
+ * outside the lock, so waiting virtual threads never pin their carrier.
+ */
+class TokenBucket {
+
+  private final double permitsPerNano;
+  private final double capacity;
+  private final LongSupplier clock;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private double tokens;
+  private long lastRefill;
+
+  TokenBucket(double permitsPerSecond, int burst) {
+    this(permitsPerSecond, burst, System::nanoTime);
+  }
+
+  TokenBucket(double permitsPerSecond, int burst, LongSupplier clock) {
+    if (permitsPerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+    }
+    this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.capacity = burst;
+    this.clock = clock;
+    this.tokens = burst;
+    this.lastRefill = clock.getAsLong();
+  }
+
+  /** Takes a token and returns how many nanoseconds the caller must wait before using it. */
+  long reserve() {
+    lock.lock();
+    try {
+      long now = clock.getAsLong();
+      tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+      lastRefill = now;
+      tokens -= 1;
+      return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void acquire() throws InterruptedException {
+    long waitNanos = reserve();
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+}
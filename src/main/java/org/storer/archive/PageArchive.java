@@ -0,0 +1,249 @@
+package org.storer.archive;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only archive of fetched pages. Each page is deflate-compressed and appended to the
+ * current segment file ({@code segment-NNNNN.dat}); its location is then appended to
+ * {@code index.tsv} as {@code segment, offset, length, game_id, url}. Segments roll over at
+ * {@link #MAX_SEGMENT_BYTES} and are memory-mapped for reading.
+ *
+ * <p>A page is only visible once its index line is written, so bytes left behind in a segment by
+ * a crash are simply never referenced. A torn last index line is cut off when the archive is
+ * opened, and lines that do not parse are skipped.
+ */
+public class PageArchive implements Closeable {
+
+  static final long MAX_SEGMENT_BYTES = 256L << 20;
+  private static final String INDEX_FILE = "index.tsv";
+
+  public record Entry(int segment, long offset, int length, int gameId, String url) {}
+
+  private final Path dir;
+  private final List<Entry> entries = new ArrayList<>();
+  private final Map<String, Entry> byUrl = new HashMap<>();
+  private final Map<Integer, Entry> byGameId = new LinkedHashMap<>();
+  private final Map<Integer, MappedByteBuffer> mapped = new HashMap<>();
+
+  private Writer index;
+  private FileChannel segmentChannel;
+  private int segment;
+
+  private PageArchive(Path dir) {
+    this.dir = dir;
+  }
+
+  public static PageArchive open(Path dir) throws IOException {
+    Files.createDirectories(dir);
+    PageArchive archive = new PageArchive(dir);
+    Path indexFile = dir.resolve(INDEX_FILE);
+    if (Files.exists(indexFile)) {
+      truncateTornLine(indexFile);
+      try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          String[] parts = line.split("\t", 5);
+          if (parts.length != 5) {
+            continue;
+          }
+          try {
+            archive.register(new Entry(Integer.parseInt(parts[0]), Long.parseLong(parts[1]),
+                Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), parts[4]));
+          } catch (NumberFormatException e) {
+            // A corrupt line; its page is unreachable but the rest of the index is fine
+          }
+        }
+      }
+    }
+    archive.segment = archive.entries.isEmpty() ? 0 : archive.entries.getLast().segment();
+    return archive;
+  }
+
+  /**
+   * Cuts the index back to its last newline, so that a line torn by a crash is neither read as a
+   * cut-off entry nor merged with the next appended one.
+   */
+  private static void truncateTornLine(Path indexFile) throws IOException {
+    try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      long end = channel.size();
+      ByteBuffer buffer = ByteBuffer.allocate(4096);
+      while (end > 0) {
+        long start = Math.max(0, end - buffer.capacity());
+        buffer.clear().limit((int) (end - start));
+        while (buffer.hasRemaining()) {
+          if (channel.read(buffer, start + buffer.position()) < 0) {
+            break;
+          }
+        }
+        for (int i = buffer.position() - 1; i >= 0; i--) {
+          if (buffer.get(i) == '\n') {
+            if (start + i + 1 < channel.size()) {
+              channel.truncate(start + i + 1);
+            }
+            return;
+          }
+        }
+        end = start;
+      }
+      channel.truncate(0);
+    }
+  }
+
+  /** Compresses and appends a page. Returns the new index entry. */
+  public synchronized Entry append(String url, int gameId, String html) throws IOException {
+    byte[] compressed = deflate(html.getBytes(StandardCharsets.UTF_8));
+
+    FileChannel channel = segmentChannel();
+    if (channel.size() > 0 && channel.size() + compressed.length > MAX_SEGMENT_BYTES) {
+      channel.close();
+      segmentChannel = null;
+      segment++;
+      channel = segmentChannel();
+    }
+    long offset = channel.size();
+    ByteBuffer buffer = ByteBuffer.wrap(compressed);
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, offset + buffer.position());
+    }
+
+    Entry entry = new Entry(segment, offset, compressed.length, gameId, url);
+    if (index == null) {
+      index = Files.newBufferedWriter(dir.resolve(INDEX_FILE), StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+    index.write(entry.segment() + "\t" + entry.offset() + "\t" + entry.length() + "\t"
+        + entry.gameId() + "\t" + url.replace('\t', ' ').replace('\n', ' ') + "\n");
+    index.flush();
+    mapped.remove(segment);
+    register(entry);
+    return entry;
+  }
+
+  /** Every stored page, in append order. */
+  public synchronized List<Entry> entries() {
+    return Collections.unmodifiableList(new ArrayList<>(entries));
+  }
+
+  /** The most recent page for each game, in the order the games were first archived. */
+  public synchronized List<Entry> latestGames() {
+    return new ArrayList<>(byGameId.values());
+  }
+
+  public synchronized Optional<Entry> lookup(String url) {
+    return Optional.ofNullable(byUrl.get(url));
+  }
+
+  public synchronized Optional<Entry> lookupGame(int gameId) {
+    return Optional.ofNullable(byGameId.get(gameId));
+  }
+
+  /** Decompresses a page straight out of its memory-mapped segment. Safe to call concurrently. */
+  public String read(Entry entry) {
+    ByteBuffer slice = map(entry.segment()).slice((int) entry.offset(), entry.length());
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(slice);
+      byte[] out = new byte[Math.max(entry.length() * 4, 1024)];
+      int size = 0;
+      while (!inflater.finished()) {
+        if (size == out.length) {
+          out = Arrays.copyOf(out, out.length * 2);
+        }
+        int n = inflater.inflate(out, size, out.length - size);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IOException("Truncated page in segment " + entry.segment() + " at " + entry.offset());
+        }
+        size += n;
+      }
+      return new String(out, 0, size, StandardCharsets.UTF_8);
+    } catch (IOException | DataFormatException e) {
+      throw new UncheckedIOException(new IOException("Corrupt page for " + entry.url(), e));
+    } finally {
+      inflater.end();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (index != null) {
+      index.close();
+      index = null;
+    }
+    if (segmentChannel != null) {
+      segmentChannel.close();
+      segmentChannel = null;
+    }
+    mapped.clear();
+  }
+
+  private void register(Entry entry) {
+    entries.add(entry);
+    byUrl.put(entry.url(), entry);
+    if (entry.gameId() >= 0) {
+      byGameId.put(entry.gameId(), entry);
+    }
+  }
+
+  private FileChannel segmentChannel() throws IOException {
+    if (segmentChannel == null) {
+      segmentChannel = FileChannel.open(segmentPath(segment),
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+    }
+    return segmentChannel;
+  }
+
+  private synchronized MappedByteBuffer map(int segmentNumber) {
+    return mapped.computeIfAbsent(segmentNumber, n -> {
+      try (FileChannel channel = FileChannel.open(segmentPath(n), StandardOpenOption.READ)) {
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  private Path segmentPath(int segmentNumber) {
+    return dir.resolve(String.format("segment-%05d.dat", segmentNumber));
+  }
+
+  private static byte[] deflate(byte[] input) {
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try {
+      deflater.setInput(input);
+      deflater.finish();
+      byte[] buffer = new byte[Math.max(input.length / 2, 1024)];
+      int size = 0;
+      while (!deflater.finished()) {
+        if (size == buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        size += deflater.deflate(buffer, size, buffer.length - size);
+      }
+      return Arrays.copyOf(buffer, size);
+    } finally {
+      deflater.end();
+    }
+  }
+}
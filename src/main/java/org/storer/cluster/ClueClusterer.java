@@ -0,0 +1,217 @@
+package org.storer.cluster;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Java port of {@code pipeline/cluster_clues.py}. It clusters clue questions by hashed TF-IDF and
+ * mini-batch k-means, labels each cluster with its heaviest centroid terms, and replaces
+ * {@code cluster_assignments} with the result.
+ */
+public class ClueClusterer {
+
+  private static final Logger log = LoggerFactory.getLogger(ClueClusterer.class);
+  private static final int FETCH_SIZE = 10_000;
+  private static final int BATCH_SIZE = 5_000;
+
+  static final int DEFAULT_CLUSTERS = 50;
+  static final int DEFAULT_TOP_WORDS = 3;
+  static final int DEFAULT_FEATURES = 5_000;
+  static final int DEFAULT_ITERATIONS = 100;
+  static final int MINI_BATCH = 2_048;
+  static final long SEED = 42;
+
+  private static final String USAGE =
+      "Usage: ClueClusterer [--clusters <n>] [--top-words <n>] [--features <n>] [--iterations <n>]"
+          + " [--dry-run [--min-date <yyyy-mm-dd>]]";
+
+  record Cluster(int id, String label, int size) {
+  }
+
+  record Result(List<String> clueIds, int[] assignments, List<Cluster> clusters) {
+  }
+
+  private final int clusters;
+  private final int topWords;
+  private final int features;
+  private final int iterations;
+  private final ForkJoinPool pool;
+
+  ClueClusterer(int clusters, int topWords, int features, int iterations, ForkJoinPool pool) {
+    this.clusters = clusters;
+    this.topWords = topWords;
+    this.features = features;
+    this.iterations = iterations;
+    this.pool = pool;
+  }
+
+  public static void main(String[] args) {
+    int clusters = DEFAULT_CLUSTERS;
+    int topWords = DEFAULT_TOP_WORDS;
+    int features = DEFAULT_FEATURES;
+    int iterations = DEFAULT_ITERATIONS;
+    LocalDate minDate = null;
+    boolean dryRun = false;
+    boolean valid = true;
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--clusters" -> clusters = Integer.parseInt(args[++i]);
+          case "--top-words" -> topWords = Integer.parseInt(args[++i]);
+          case "--features" -> features = Integer.parseInt(args[++i]);
+          case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+          case "--min-date" -> minDate = LocalDate.parse(args[++i]);
+          case "--dry-run" -> dryRun = true;
+          default -> valid = false;
+        }
+      }
+    } catch (NumberFormatException | DateTimeException | ArrayIndexOutOfBoundsException e) {
+      valid = false;
+    }
+    // cluster_assignments is replaced as a whole, so a date-limited run may only be previewed
+    if (!valid || (minDate != null && !dryRun) || clusters < 1 || topWords < 1 || features < 1
+        || iterations < 0) {
+      System.err.println(USAGE);
+      System.exit(1);
+    }
+
+    String url      = System.getenv("DB_URL");
+    String user     = System.getenv("DB_USER");
+    String password = System.getenv("DB_PASSWORD");
+
+    if (url == null || user == null || password == null) {
+      System.err.println("Missing required environment variables: DB_URL, DB_USER, DB_PASSWORD");
+      System.exit(1);
+    }
+
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(url);
+    config.setUsername(user);
+    config.setPassword(password);
+    // Lets PgJDBC send each JDBC batch as multi-row INSERTs
+    config.addDataSourceProperty("reWriteBatchedInserts", "true");
+
+    ClueClusterer clusterer = new ClueClusterer(clusters, topWords, features, iterations, ForkJoinPool.commonPool());
+    try (HikariDataSource dataSource = new HikariDataSource(config);
+      Connection connection = dataSource.getConnection()) {
+      Result result = clusterer.run(connection, minDate);
+      for (Cluster cluster : result.clusters()) {
+        log.info("  Cluster {}: {} ({} clues)", String.format("%2d", cluster.id()), cluster.label(), cluster.size());
+      }
+      if (dryRun) {
+        log.info("[DRY RUN] {} assignments would be written", result.clueIds().size());
+      } else {
+        write(connection, result);
+      }
+    } catch (SQLException e) {
+      log.error("Clustering failed", e);
+      System.exit(1);
+    }
+  }
+
+  /** Loads questions (aired on or after {@code minDate}, if set) and clusters them. */
+  Result run(Connection connection, LocalDate minDate) throws SQLException {
+    long start = System.nanoTime();
+    List<String> ids = new ArrayList<>();
+    List<String> questions = new ArrayList<>();
+    String query = "SELECT id, question FROM clues_java WHERE question IS NOT NULL"
+        + (minDate == null ? "" : " AND air_date >= ?") + " ORDER BY id";
+
+    boolean autoCommit = connection.getAutoCommit();
+    // PgJDBC only streams with a fetch size inside a transaction
+    connection.setAutoCommit(false);
+    try (PreparedStatement ps = connection.prepareStatement(query)) {
+      ps.setFetchSize(FETCH_SIZE);
+      if (minDate != null) {
+        ps.setObject(1, minDate);
+      }
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          ids.add(rs.getString(1));
+          questions.add(rs.getString(2));
+        }
+      }
+      connection.commit();
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+    log.info("Loaded {} clues in {} ms", ids.size(), (System.nanoTime() - start) / 1_000_000);
+    return cluster(ids, questions);
+  }
+
+  Result cluster(List<String> ids, List<String> questions) {
+    long start = System.nanoTime();
+    TfIdfVectorizer.Vectors vectors = TfIdfVectorizer.vectorize(questions, features, pool);
+    long vectorized = System.nanoTime();
+    MiniBatchKMeans.Result fit = new MiniBatchKMeans(clusters, MINI_BATCH, iterations, SEED, pool).fit(vectors);
+    log.info("Vectorized {} clues into {} features in {} ms; k-means with {} clusters took {} ms",
+        vectors.rows(), vectors.featureCount(), (vectorized - start) / 1_000_000, fit.centroids().length,
+        (System.nanoTime() - vectorized) / 1_000_000);
+
+    List<Cluster> labelled = new ArrayList<>(fit.centroids().length);
+    for (int c = 0; c < fit.centroids().length; c++) {
+      labelled.add(new Cluster(c, label(fit.centroids()[c], vectors.terms()), fit.sizes()[c]));
+    }
+    return new Result(ids, fit.assignments(), labelled);
+  }
+
+  /** The top terms of a centroid, title-cased and joined like the Python pipeline's labels. */
+  String label(float[] centroid, String[] terms) {
+    Integer[] order = new Integer[centroid.length];
+    Arrays.setAll(order, i -> i);
+    Arrays.sort(order, (a, b) -> Float.compare(centroid[b], centroid[a]));
+    List<String> words = new ArrayList<>(topWords);
+    for (int i = 0; i < Math.min(topWords, order.length); i++) {
+      String term = terms[order[i]];
+      words.add(term.substring(0, 1).toUpperCase(Locale.ROOT) + term.substring(1));
+    }
+    return String.join(" | ", words);
+  }
+
+  /** Replaces {@code cluster_assignments} in one transaction. */
+  static void write(Connection connection, Result result) throws SQLException {
+    long start = System.nanoTime();
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try (Statement stmt = connection.createStatement();
+      PreparedStatement ps = connection.prepareStatement(
+          "INSERT INTO cluster_assignments (clue_id, cluster_id, cluster_label) VALUES (?, ?, ?)")) {
+      stmt.execute("TRUNCATE TABLE cluster_assignments");
+      int[] assignments = result.assignments();
+      for (int r = 0; r < assignments.length; r++) {
+        ps.setString(1, result.clueIds().get(r));
+        ps.setInt(2, assignments[r]);
+        ps.setString(3, result.clusters().get(assignments[r]).label());
+        ps.addBatch();
+        if ((r + 1) % BATCH_SIZE == 0) {
+          ps.executeBatch();
+        }
+      }
+      ps.executeBatch();
+      connection.commit();
+    } catch (SQLException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+    log.info("Wrote {} rows to cluster_assignments in {} ms", result.clueIds().size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+}
@@ -0,0 +1,183 @@
+package org.storer.cluster;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Mini-batch k-means (Sculley, 2010) over L2-normalized sparse rows with dense centroids. Each
+ * iteration assigns a random batch in parallel, then moves every centroid towards the mean of
+ * its new members by its per-centroid learning rate. Centroids start from k-means++ seeding on a
+ * sample. Results depend only on the seed, not on the pool's parallelism.
+ */
+final class MiniBatchKMeans {
+
+  record Result(float[][] centroids, int[] assignments, int[] sizes) {
+  }
+
+  private final int clusters;
+  private final int batchSize;
+  private final int iterations;
+  private final long seed;
+  private final ForkJoinPool pool;
+
+  MiniBatchKMeans(int clusters, int batchSize, int iterations, long seed, ForkJoinPool pool) {
+    if (clusters < 1) {
+      throw new IllegalArgumentException("clusters must be positive");
+    }
+    this.clusters = clusters;
+    this.batchSize = batchSize;
+    this.iterations = iterations;
+    this.seed = seed;
+    this.pool = pool;
+  }
+
+  Result fit(TfIdfVectorizer.Vectors vectors) {
+    int rows = vectors.rows();
+    int k = Math.min(clusters, rows);
+    SplittableRandom random = new SplittableRandom(seed);
+    float[][] centroids = seed(vectors, k, random);
+    float[] squaredNorms = new float[k];
+    long[] counts = new long[k];
+
+    int batch = Math.min(batchSize, rows);
+    int[] sample = new int[batch];
+    int[] assigned = new int[batch];
+    for (int iteration = 0; iteration < iterations; iteration++) {
+      for (int c = 0; c < k; c++) {
+        squaredNorms[c] = dot(centroids[c], centroids[c]);
+      }
+      for (int i = 0; i < batch; i++) {
+        sample[i] = random.nextInt(rows);
+      }
+      TfIdfVectorizer.run(pool, () -> IntStream.range(0, batch).parallel()
+          .forEach(i -> assigned[i] = nearest(vectors, sample[i], centroids, squaredNorms)));
+
+      float[][] sums = new float[k][];
+      int[] members = new int[k];
+      for (int i = 0; i < batch; i++) {
+        int c = assigned[i];
+        if (sums[c] == null) {
+          sums[c] = new float[centroids[c].length];
+        }
+        addRow(vectors, sample[i], sums[c]);
+        members[c]++;
+      }
+      for (int c = 0; c < k; c++) {
+        if (members[c] == 0) {
+          continue;
+        }
+        counts[c] += members[c];
+        float rate = (float) members[c] / counts[c];
+        float[] centroid = centroids[c];
+        for (int f = 0; f < centroid.length; f++) {
+          centroid[f] += rate * (sums[c][f] / members[c] - centroid[f]);
+        }
+      }
+    }
+
+    for (int c = 0; c < k; c++) {
+      squaredNorms[c] = dot(centroids[c], centroids[c]);
+    }
+    int[] assignments = new int[rows];
+    TfIdfVectorizer.run(pool, () -> IntStream.range(0, rows).parallel()
+        .forEach(r -> assignments[r] = nearest(vectors, r, centroids, squaredNorms)));
+    int[] sizes = new int[k];
+    for (int c : assignments) {
+      sizes[c]++;
+    }
+    return new Result(centroids, assignments, sizes);
+  }
+
+  /** k-means++ over a sample: each next centroid is a row drawn with probability ∝ distance². */
+  private float[][] seed(TfIdfVectorizer.Vectors vectors, int k, SplittableRandom random) {
+    int rows = vectors.rows();
+    int sampleSize = Math.min(rows, Math.max(batchSize, 20 * k));
+    int[] sample = new int[sampleSize];
+    for (int i = 0; i < sampleSize; i++) {
+      sample[i] = sampleSize == rows ? i : random.nextInt(rows);
+    }
+
+    float[][] centroids = new float[k][];
+    centroids[0] = dense(vectors, sample[random.nextInt(sampleSize)]);
+    double[] distances = new double[sampleSize];
+    Arrays.fill(distances, Double.MAX_VALUE);
+    for (int c = 1; c < k; c++) {
+      float[] previous = centroids[c - 1];
+      float previousNorm = dot(previous, previous);
+      TfIdfVectorizer.run(pool, () -> IntStream.range(0, sampleSize).parallel().forEach(i -> {
+        double distance = squaredNorm(vectors, sample[i]) - 2 * dot(vectors, sample[i], previous) + previousNorm;
+        distances[i] = Math.min(distances[i], Math.max(0, distance));
+      }));
+      double total = 0;
+      for (double distance : distances) {
+        total += distance;
+      }
+      int chosen = sampleSize - 1;
+      double target = random.nextDouble() * total;
+      for (int i = 0; i < sampleSize; i++) {
+        target -= distances[i];
+        if (target < 0) {
+          chosen = i;
+          break;
+        }
+      }
+      centroids[c] = dense(vectors, sample[chosen]);
+    }
+    return centroids;
+  }
+
+  /** Closest centroid by squared Euclidean distance, ties to the lowest index. */
+  static int nearest(TfIdfVectorizer.Vectors vectors, int row, float[][] centroids, float[] squaredNorms) {
+    int best = 0;
+    float bestDistance = Float.MAX_VALUE;
+    for (int c = 0; c < centroids.length; c++) {
+      // |x|² is the same for every centroid, so it is left out
+      float distance = squaredNorms[c] - 2 * dot(vectors, row, centroids[c]);
+      if (distance < bestDistance) {
+        bestDistance = distance;
+        best = c;
+      }
+    }
+    return best;
+  }
+
+  private static float dot(TfIdfVectorizer.Vectors vectors, int row, float[] centroid) {
+    float sum = 0;
+    int[] features = vectors.features();
+    float[] weights = vectors.weights();
+    for (int i = vectors.rowStart()[row]; i < vectors.rowStart()[row + 1]; i++) {
+      sum += weights[i] * centroid[features[i]];
+    }
+    return sum;
+  }
+
+  private static float squaredNorm(TfIdfVectorizer.Vectors vectors, int row) {
+    float sum = 0;
+    for (int i = vectors.rowStart()[row]; i < vectors.rowStart()[row + 1]; i++) {
+      sum += vectors.weights()[i] * vectors.weights()[i];
+    }
+    return sum;
+  }
+
+  private static float dot(float[] a, float[] b) {
+    float sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      sum += a[i] * b[i];
+    }
+    return sum;
+  }
+
+  private static void addRow(TfIdfVectorizer.Vectors vectors, int row, float[] target) {
+    for (int i = vectors.rowStart()[row]; i < vectors.rowStart()[row + 1]; i++) {
+      target[vectors.features()[i]] += vectors.weights()[i];
+    }
+  }
+
+  private static float[] dense(TfIdfVectorizer.Vectors vectors, int row) {
+    float[] centroid = new float[vectors.featureCount()];
+    addRow(vectors, row, centroid);
+    return centroid;
+  }
+}
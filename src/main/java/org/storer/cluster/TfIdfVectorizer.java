@@ -0,0 +1,169 @@
+package org.storer.cluster;
+
+import org.storer.search.Tokenizer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * Hashed TF-IDF vectors in compressed sparse rows. Terms are hashed into {@link #BUCKETS} buckets
+ * instead of being collected into a vocabulary. Only the {@code maxFeatures} buckets with the
+ * highest total count are kept, as with scikit-learn's {@code max_features}. Weights use the smoothed
+ * idf {@code ln((1 + n) / (1 + df)) + 1}, and each row is L2-normalized. Tokenizing and weighting
+ * run on the given pool.
+ */
+final class TfIdfVectorizer {
+
+  static final int BUCKETS = 1 << 18;
+
+  /** Common English function words, which would otherwise dominate every centroid. */
+  static final Set<String> STOP_WORDS = Set.of(
+      "a", "about", "above", "after", "again", "against", "all", "also", "am", "an", "and", "any", "are",
+      "as", "at", "be", "because", "been", "before", "being", "below", "between", "both", "but", "by",
+      "can", "could", "did", "do", "does", "doing", "down", "during", "each", "either", "else", "ever",
+      "every", "few", "for", "from", "further", "had", "has", "have", "having", "he", "her", "here",
+      "hers", "herself", "him", "himself", "his", "how", "i", "if", "in", "into", "is", "it", "its",
+      "itself", "just", "may", "me", "might", "more", "most", "much", "must", "my", "myself", "no", "nor",
+      "not", "now", "of", "off", "on", "once", "one", "only", "or", "other", "our", "ours", "ourselves",
+      "out", "over", "own", "same", "she", "should", "so", "some", "such", "than", "that", "the", "their",
+      "theirs", "them", "themselves", "then", "there", "these", "they", "this", "those", "through", "to",
+      "too", "under", "until", "up", "upon", "us", "very", "was", "we", "were", "what", "when", "where",
+      "which", "while", "who", "whom", "whose", "why", "will", "with", "would", "yet", "you", "your",
+      "yours", "yourself", "yourselves");
+
+  /**
+   * Row {@code r} has features {@code features[rowStart[r]..rowStart[r + 1])}, in ascending order,
+   * with matching {@code weights}. {@code terms[f]} names feature {@code f}: the alphabetically
+   * first term hashed into its bucket, so labels are stable across runs.
+   */
+  record Vectors(int rows, int[] rowStart, int[] features, float[] weights, String[] terms) {
+
+    int featureCount() {
+      return terms.length;
+    }
+  }
+
+  private TfIdfVectorizer() {
+  }
+
+  static Vectors vectorize(List<String> texts, int maxFeatures, ForkJoinPool pool) {
+    int rows = texts.size();
+    int[][] buckets = new int[rows][];
+    int[][] counts = new int[rows][];
+    AtomicReferenceArray<String> names = new AtomicReferenceArray<>(BUCKETS);
+    run(pool, () -> IntStream.range(0, rows).parallel().forEach(r -> {
+      int[] hashed = Tokenizer.tokens(texts.get(r)).stream()
+          .filter(t -> t.length() > 1 && !STOP_WORDS.contains(t))
+          .mapToInt(t -> {
+            int bucket = bucket(t);
+            String name = names.get(bucket);
+            if (name == null || t.compareTo(name) < 0) {
+              names.accumulateAndGet(bucket, t, TfIdfVectorizer::smaller);
+            }
+            return bucket;
+          })
+          .sorted()
+          .toArray();
+      int distinct = 0;
+      int[] tf = new int[hashed.length];
+      for (int i = 0; i < hashed.length; i++) {
+        if (distinct > 0 && hashed[distinct - 1] == hashed[i]) {
+          tf[distinct - 1]++;
+        } else {
+          hashed[distinct] = hashed[i];
+          tf[distinct++] = 1;
+        }
+      }
+      buckets[r] = Arrays.copyOf(hashed, distinct);
+      counts[r] = Arrays.copyOf(tf, distinct);
+    }));
+
+    long[] totals = new long[BUCKETS];
+    int[] documentFrequency = new int[BUCKETS];
+    for (int r = 0; r < rows; r++) {
+      for (int i = 0; i < buckets[r].length; i++) {
+        totals[buckets[r][i]] += counts[r][i];
+        documentFrequency[buckets[r][i]]++;
+      }
+    }
+
+    int[] kept = topBuckets(totals, maxFeatures);
+    int[] featureOf = new int[BUCKETS];
+    Arrays.fill(featureOf, -1);
+    String[] terms = new String[kept.length];
+    float[] idf = new float[kept.length];
+    for (int f = 0; f < kept.length; f++) {
+      featureOf[kept[f]] = f;
+      terms[f] = names.get(kept[f]);
+      idf[f] = (float) (Math.log((1.0 + rows) / (1.0 + documentFrequency[kept[f]])) + 1);
+    }
+
+    int[] rowStart = new int[rows + 1];
+    for (int r = 0; r < rows; r++) {
+      int nonZero = 0;
+      for (int bucket : buckets[r]) {
+        if (featureOf[bucket] >= 0) {
+          nonZero++;
+        }
+      }
+      rowStart[r + 1] = rowStart[r] + nonZero;
+    }
+    int[] features = new int[rowStart[rows]];
+    float[] weights = new float[rowStart[rows]];
+    run(pool, () -> IntStream.range(0, rows).parallel().forEach(r -> {
+      int at = rowStart[r];
+      double norm = 0;
+      for (int i = 0; i < buckets[r].length; i++) {
+        int feature = featureOf[buckets[r][i]];
+        if (feature >= 0) {
+          float weight = counts[r][i] * idf[feature];
+          features[at] = feature;
+          weights[at++] = weight;
+          norm += (double) weight * weight;
+        }
+      }
+      float scale = norm == 0 ? 0 : (float) (1 / Math.sqrt(norm));
+      for (int i = rowStart[r]; i < at; i++) {
+        weights[i] *= scale;
+      }
+    }));
+    return new Vectors(rows, rowStart, features, weights, terms);
+  }
+
+  private static String smaller(String a, String b) {
+    return a == null || b.compareTo(a) < 0 ? b : a;
+  }
+
+  static int bucket(String term) {
+    int h = term.hashCode() * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & (BUCKETS - 1);
+  }
+
+  /** Indexes of the {@code limit} largest non-zero totals, in ascending bucket order. */
+  private static int[] topBuckets(long[] totals, int limit) {
+    long[] keyed = new long[BUCKETS];
+    int n = 0;
+    for (int b = 0; b < BUCKETS; b++) {
+      if (totals[b] > 0) {
+        // Count in the high bits, bucket in the low bits, so one sort ranks them
+        keyed[n++] = (totals[b] << 20) | b;
+      }
+    }
+    Arrays.sort(keyed, 0, n);
+    int kept = Math.min(limit, n);
+    int[] buckets = new int[kept];
+    for (int i = 0; i < kept; i++) {
+      buckets[i] = (int) (keyed[n - 1 - i] & ((1 << 20) - 1));
+    }
+    Arrays.sort(buckets);
+    return buckets;
+  }
+
+  static void run(ForkJoinPool pool, Runnable task) {
+    pool.submit(task).join();
+  }
+}
@@ -0,0 +1,299 @@
+package org.storer.dedupe;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.storer.meta.Round;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Finds clues stored more than once under different ids, such as a TSV row and a scraped row of
+ * the same game, whose text differs slightly. Question and answer are MinHashed in parallel, and
+ * LSH banding turns equal bands into candidate pairs in near-linear time. Only clues with the same
+ * air date and round are compared, so a clue legitimately repeated in another game, or a generic
+ * stub, is not merged across games; clues without an air date are never merged. Candidates whose
+ * signatures agree on at least {@code threshold} of their slots are joined into clusters. Within a
+ * cluster, the clue with the smallest id is kept. Every other member that is itself within
+ * {@code threshold} of the kept clue is written to {@code clue_duplicates} with its id, so queries
+ * can leave it out with {@code NOT EXISTS}.
+ */
+public class ClueDeduper {
+
+  private static final Logger log = LoggerFactory.getLogger(ClueDeduper.class);
+  private static final int FETCH_SIZE = 10_000;
+  private static final int BATCH_SIZE = 5_000;
+
+  // 16 bands of 4 rows: pairs at 0.8 similarity become candidates 99.98% of the time, at 0.3 under 13%
+  static final int BANDS = 16;
+  static final int ROWS_PER_BAND = MinHash.HASHES / BANDS;
+  static final float DEFAULT_THRESHOLD = 0.8f;
+  // Buckets larger than this are compared against their first member only, to stay near-linear
+  private static final int MAX_ALL_PAIRS = 64;
+  private static final int ROW_BITS = 24;
+  /** Group of a clue that is never compared, because its air date or round is unknown. */
+  static final int NO_GROUP = -1;
+
+  private static final String USAGE = "Usage: ClueDeduper [--threshold <0-1>] [--dry-run]";
+
+  /** {@code clueId} repeats {@code duplicateOf}, with estimated Jaccard {@code similarity}. */
+  record Duplicate(String clueId, String duplicateOf, float similarity) {
+  }
+
+  private final float threshold;
+  private final ForkJoinPool pool;
+
+  ClueDeduper(float threshold, ForkJoinPool pool) {
+    this.threshold = threshold;
+    this.pool = pool;
+  }
+
+  public static void main(String[] args) {
+    float threshold = DEFAULT_THRESHOLD;
+    boolean dryRun = false;
+    boolean valid = true;
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--threshold" -> threshold = Float.parseFloat(args[++i]);
+          case "--dry-run" -> dryRun = true;
+          default -> valid = false;
+        }
+      }
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      valid = false;
+    }
+    if (!valid || !(threshold > 0 && threshold <= 1)) {
+      System.err.println(USAGE);
+      System.exit(1);
+    }
+
+    String url      = System.getenv("DB_URL");
+    String user     = System.getenv("DB_USER");
+    String password = System.getenv("DB_PASSWORD");
+
+    if (url == null || user == null || password == null) {
+      System.err.println("Missing required environment variables: DB_URL, DB_USER, DB_PASSWORD");
+      System.exit(1);
+    }
+
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(url);
+    config.setUsername(user);
+    config.setPassword(password);
+    // Lets PgJDBC send each JDBC batch as multi-row INSERTs
+    config.addDataSourceProperty("reWriteBatchedInserts", "true");
+
+    ClueDeduper deduper = new ClueDeduper(threshold, ForkJoinPool.commonPool());
+    try (HikariDataSource dataSource = new HikariDataSource(config);
+      Connection connection = dataSource.getConnection()) {
+      List<Duplicate> duplicates = deduper.run(connection);
+      if (dryRun) {
+        duplicates.stream().limit(20).forEach(d ->
+            log.info("[DRY RUN] {} duplicates {} ({})", d.clueId(), d.duplicateOf(), d.similarity()));
+        log.info("[DRY RUN] {} duplicates would be written", duplicates.size());
+      } else {
+        write(connection, duplicates);
+      }
+    } catch (SQLException e) {
+      log.error("Deduplication failed", e);
+      System.exit(1);
+    }
+  }
+
+  /** Loads every clue's question, answer, air date and round, then finds the duplicates among them. */
+  List<Duplicate> run(Connection connection) throws SQLException {
+    long start = System.nanoTime();
+    List<String> ids = new ArrayList<>();
+    List<String> texts = new ArrayList<>();
+    int[] groups = new int[1024];
+
+    boolean autoCommit = connection.getAutoCommit();
+    // PgJDBC only streams with a fetch size inside a transaction
+    connection.setAutoCommit(false);
+    try (PreparedStatement ps = connection.prepareStatement(
+        "SELECT id, question, answer, air_date, round FROM clues_java ORDER BY id")) {
+      ps.setFetchSize(FETCH_SIZE);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          if (ids.size() == groups.length) {
+            groups = Arrays.copyOf(groups, groups.length * 2);
+          }
+          groups[ids.size()] = group(rs.getDate(4), rs.getString(5));
+          ids.add(rs.getString(1));
+          String question = rs.getString(2);
+          String answer = rs.getString(3);
+          texts.add((question == null ? "" : question) + " | " + (answer == null ? "" : answer));
+        }
+      }
+      connection.commit();
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+    log.info("Loaded {} clues in {} ms", ids.size(), (System.nanoTime() - start) / 1_000_000);
+    return find(ids, texts, groups);
+  }
+
+  /** Air date and round packed into one comparable int, or {@link #NO_GROUP} if either is unknown. */
+  static int group(Date airDate, String round) {
+    if (airDate == null) {
+      return NO_GROUP;
+    }
+    for (Round r : Round.values()) {
+      if (r.name().equals(round)) {
+        return Math.toIntExact(airDate.toLocalDate().toEpochDay()) * 4 + r.ordinal();
+      }
+    }
+    return NO_GROUP;
+  }
+
+  /**
+   * Duplicates among {@code texts}, comparing only rows in the same {@code groups} entry; {@code ids}
+   * must be in ascending order so the smallest is kept.
+   */
+  List<Duplicate> find(List<String> ids, List<String> texts, int[] groups) {
+    int rows = texts.size();
+    if (rows >= 1 << ROW_BITS) {
+      throw new IllegalArgumentException("Too many clues: " + rows);
+    }
+    long start = System.nanoTime();
+    int[] signatures = MinHash.signatures(texts, pool);
+    long signed = System.nanoTime();
+
+    long[][] pairs = new long[BANDS][];
+    pool.submit(() -> IntStream.range(0, BANDS).parallel()
+        .forEach(band -> pairs[band] = candidates(signatures, groups, rows, band))).join();
+
+    int[] parent = new int[rows];
+    Arrays.setAll(parent, i -> i);
+    long candidateCount = 0;
+    for (long[] bandPairs : pairs) {
+      candidateCount += bandPairs.length;
+      for (long pair : bandPairs) {
+        union(parent, (int) (pair >>> 32), (int) pair);
+      }
+    }
+
+    List<Duplicate> duplicates = new ArrayList<>();
+    for (int row = 0; row < rows; row++) {
+      int root = find(parent, row);
+      if (root == row) {
+        continue;
+      }
+      // A chain A~B~C can join rows that are not similar themselves; those stay distinct clues
+      float similarity = MinHash.similarity(signatures, row, root);
+      if (similarity >= threshold) {
+        duplicates.add(new Duplicate(ids.get(row), ids.get(root), similarity));
+      }
+    }
+    log.info("MinHashed {} clues in {} ms; {} verified pairs, {} duplicates in {} ms", rows,
+        (signed - start) / 1_000_000, candidateCount, duplicates.size(), (System.nanoTime() - signed) / 1_000_000);
+    return duplicates;
+  }
+
+  /**
+   * Verified pairs, packed as {@code (a << 32) | b}, among rows of the same group whose signatures
+   * agree on {@code band}.
+   */
+  private long[] candidates(int[] signatures, int[] groups, int rows, int band) {
+    // Band hash in the high bits and row in the low bits, so one sort groups each bucket
+    long[] keyed = new long[rows];
+    int n = 0;
+    for (int row = 0; row < rows; row++) {
+      int offset = row * MinHash.HASHES + band * ROWS_PER_BAND;
+      if (signatures[row * MinHash.HASHES] == MinHash.EMPTY || groups[row] == NO_GROUP) {
+        continue;
+      }
+      // Seeding with the group keeps other dates and rounds out of the bucket
+      long h = MinHash.mix(((long) groups[row] << 8) | band);
+      for (int i = 0; i < ROWS_PER_BAND; i++) {
+        h = MinHash.mix(h * 31 + signatures[offset + i]);
+      }
+      keyed[n++] = (h << ROW_BITS) | row;
+    }
+    Arrays.sort(keyed, 0, n);
+
+    LongStream.Builder verified = LongStream.builder();
+    int runStart = 0;
+    for (int i = 1; i <= n; i++) {
+      if (i < n && keyed[i] >>> ROW_BITS == keyed[runStart] >>> ROW_BITS) {
+        continue;
+      }
+      int size = i - runStart;
+      for (int a = runStart; a < i - 1 && (a == runStart || size <= MAX_ALL_PAIRS); a++) {
+        int rowA = (int) (keyed[a] & ((1 << ROW_BITS) - 1));
+        for (int b = a + 1; b < i; b++) {
+          int rowB = (int) (keyed[b] & ((1 << ROW_BITS) - 1));
+          if (groups[rowA] == groups[rowB] && MinHash.similarity(signatures, rowA, rowB) >= threshold) {
+            verified.add(((long) rowA << 32) | rowB);
+          }
+        }
+      }
+      runStart = i;
+    }
+    return verified.build().toArray();
+  }
+
+  /** Joins the clusters of {@code a} and {@code b} under the smaller root, so roots are minimal rows. */
+  private static void union(int[] parent, int a, int b) {
+    int rootA = find(parent, a);
+    int rootB = find(parent, b);
+    if (rootA < rootB) {
+      parent[rootB] = rootA;
+    } else if (rootB < rootA) {
+      parent[rootA] = rootB;
+    }
+  }
+
+  private static int find(int[] parent, int row) {
+    while (parent[row] != row) {
+      // Path halving
+      parent[row] = parent[parent[row]];
+      row = parent[row];
+    }
+    return row;
+  }
+
+  /** Replaces {@code clue_duplicates} in one transaction. */
+  static void write(Connection connection, List<Duplicate> duplicates) throws SQLException {
+    long start = System.nanoTime();
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try (Statement stmt = connection.createStatement();
+      PreparedStatement ps = connection.prepareStatement(
+          "INSERT INTO clue_duplicates (clue_id, duplicate_of, similarity) VALUES (?, ?, ?)")) {
+      stmt.execute("TRUNCATE TABLE clue_duplicates");
+      for (int i = 0; i < duplicates.size(); i++) {
+        Duplicate duplicate = duplicates.get(i);
+        ps.setString(1, duplicate.clueId());
+        ps.setString(2, duplicate.duplicateOf());
+        ps.setFloat(3, duplicate.similarity());
+        ps.addBatch();
+        if ((i + 1) % BATCH_SIZE == 0) {
+          ps.executeBatch();
+        }
+      }
+      ps.executeBatch();
+      connection.commit();
+    } catch (SQLException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+    log.info("Wrote {} rows to clue_duplicates in {} ms", duplicates.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+}
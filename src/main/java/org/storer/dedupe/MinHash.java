@@ -0,0 +1,95 @@
+package org.storer.dedupe;
+
+import org.storer.search.Tokenizer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * MinHash signatures over character shingles. Text is normalized with the search
+ * {@link Tokenizer}, so case, accents and punctuation do not matter. It is then cut into
+ * overlapping {@link #SHINGLE}-character shingles. Each of the {@link #HASHES} slots keeps the
+ * minimum of one multiply-shift hash over the shingles. The fraction of equal slots between two
+ * signatures estimates the Jaccard similarity of their shingle sets.
+ */
+final class MinHash {
+
+  static final int HASHES = 64;
+  static final int SHINGLE = 5;
+  /** Signature of a text with no shingles; never matched. */
+  static final int EMPTY = -1;
+
+  private static final long SEED = 0x5DEECE66DL;
+  private static final long[] MULTIPLIERS = new long[HASHES];
+  private static final long[] ADDENDS = new long[HASHES];
+
+  static {
+    SplittableRandom random = new SplittableRandom(SEED);
+    for (int i = 0; i < HASHES; i++) {
+      MULTIPLIERS[i] = random.nextLong() | 1;
+      ADDENDS[i] = random.nextLong();
+    }
+  }
+
+  private MinHash() {
+  }
+
+  /** Signatures of every text, {@link #HASHES} ints per row in one flat array, computed on the pool. */
+  static int[] signatures(List<String> texts, ForkJoinPool pool) {
+    int[] signatures = new int[texts.size() * HASHES];
+    pool.submit(() -> IntStream.range(0, texts.size()).parallel()
+        .forEach(r -> sign(texts.get(r), signatures, r * HASHES))).join();
+    return signatures;
+  }
+
+  static void sign(String text, int[] target, int offset) {
+    String normalized = String.join(" ", Tokenizer.tokens(text));
+    if (normalized.isEmpty()) {
+      Arrays.fill(target, offset, offset + HASHES, EMPTY);
+      return;
+    }
+    Arrays.fill(target, offset, offset + HASHES, Integer.MAX_VALUE);
+    int last = Math.max(0, normalized.length() - SHINGLE);
+    for (int start = 0; start <= last; start++) {
+      long h = 0;
+      for (int i = start; i < Math.min(start + SHINGLE, normalized.length()); i++) {
+        h = h * 31 + normalized.charAt(i);
+      }
+      h = mix(h);
+      for (int slot = 0; slot < HASHES; slot++) {
+        // Top 31 bits, so plain int comparison orders the values
+        int value = (int) ((MULTIPLIERS[slot] * h + ADDENDS[slot]) >>> 33);
+        if (value < target[offset + slot]) {
+          target[offset + slot] = value;
+        }
+      }
+    }
+  }
+
+  /** Share of equal slots between rows {@code a} and {@code b}; 0 if either text was empty. */
+  static float similarity(int[] signatures, int a, int b) {
+    int offsetA = a * HASHES;
+    int offsetB = b * HASHES;
+    if (signatures[offsetA] == EMPTY || signatures[offsetB] == EMPTY) {
+      return 0;
+    }
+    int equal = 0;
+    for (int slot = 0; slot < HASHES; slot++) {
+      if (signatures[offsetA + slot] == signatures[offsetB + slot]) {
+        equal++;
+      }
+    }
+    return (float) equal / HASHES;
+  }
+
+  static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    return h ^ (h >>> 33);
+  }
+}
@@ -0,0 +1,168 @@
+package org.storer.export;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams {@code clues_java} to NDJSON, TSV or a compressed columnar file. The query runs with
+ * autocommit off and a fetch size, so PgJDBC reads the result through a server-side cursor and
+ * memory use does not grow with the table.
+ */
+public class ClueExporter {
+
+  private static final Logger log = LoggerFactory.getLogger(ClueExporter.class);
+  static final int FETCH_SIZE = 10_000;
+
+  private static final String USAGE =
+      "Usage: ClueExporter [--format ndjson|tsv|columnar] [--from <yyyy-mm-dd>] [--to <yyyy-mm-dd>]"
+          + " [--round <J|DJ|FJ>]... [--topics] <output-file>\n"
+          + "       NDJSON and TSV output is gzipped when the file name ends in .gz";
+
+  static final String COLUMNS =
+      "SELECT c.id, c.category, c.round, c.category_number, c.clue_value_int, c.question, c.answer," +
+      " c.is_daily_double, c.game_id, c.air_date";
+
+  public static void main(String[] args) {
+    ExportFormat format = ExportFormat.NDJSON;
+    LocalDate from = null;
+    LocalDate to = null;
+    Set<Round> rounds = EnumSet.noneOf(Round.class);
+    boolean topics = false;
+    String output = null;
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--format" -> format = ExportFormat.of(args[++i]);
+          case "--from" -> from = LocalDate.parse(args[++i]);
+          case "--to" -> to = LocalDate.parse(args[++i]);
+          case "--round" -> rounds.add(Round.of(args[++i]));
+          case "--topics" -> topics = true;
+          default -> output = args[i];
+        }
+      }
+    } catch (IllegalArgumentException | DateTimeException | ArrayIndexOutOfBoundsException e) {
+      output = null;
+    }
+    if (output == null) {
+      System.err.println(USAGE);
+      System.exit(1);
+    }
+
+    String url      = System.getenv("DB_URL");
+    String user     = System.getenv("DB_USER");
+    String password = System.getenv("DB_PASSWORD");
+
+    if (url == null || user == null || password == null) {
+      System.err.println("Missing required environment variables: DB_URL, DB_USER, DB_PASSWORD");
+      System.exit(1);
+    }
+
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(url);
+    config.setUsername(user);
+    config.setPassword(password);
+
+    Path file = Path.of(output);
+    ExportFilter filter = new ExportFilter(from, to, rounds);
+    try (HikariDataSource dataSource = new HikariDataSource(config);
+      Connection connection = dataSource.getConnection()) {
+      long start = System.nanoTime();
+      long rows = export(connection, filter, topics, format, file);
+      log.info("Exported {} clues as {} to {} ({} bytes) in {} ms", rows, format, file, Files.size(file),
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (SQLException | IOException e) {
+      log.error("Failed to export clues to {}", output, e);
+      System.exit(1);
+    }
+  }
+
+  /** Writes the matching clues to {@code file}; returns the number of rows. */
+  public static long export(Connection connection, ExportFilter filter, boolean topics, ExportFormat format,
+                Path file) throws SQLException, IOException {
+    OutputStream out = Files.newOutputStream(file);
+    if (format != ExportFormat.COLUMNAR && file.getFileName().toString().endsWith(".gz")) {
+      out = new GZIPOutputStream(out, 1 << 16);
+    }
+    try (ClueWriter writer = format.open(out, topics)) {
+      return export(connection, filter, topics, writer);
+    }
+  }
+
+  /**
+   * Streams the matching clues, in game and board order, to {@code writer}; returns the number of
+   * rows. Rows with a missing or unknown round are skipped and counted in a warning.
+   */
+  public static long export(Connection connection, ExportFilter filter, boolean topics, ClueWriter writer)
+      throws SQLException, IOException {
+    String query = COLUMNS + (topics ? ", c.canonical_topic" : "") + " FROM clues_java c" + filter.where()
+        + " ORDER BY c.game_id, c.category_number, c.id";
+    long rows = 0;
+    long skipped = 0;
+
+    boolean autoCommit = connection.getAutoCommit();
+    // PgJDBC only streams with a fetch size inside a transaction
+    connection.setAutoCommit(false);
+    try (PreparedStatement ps = connection.prepareStatement(query)) {
+      ps.setFetchSize(FETCH_SIZE);
+      filter.bind(connection, ps);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          Clue clue = toClue(rs);
+          if (clue == null) {
+            skipped++;
+            continue;
+          }
+          writer.write(clue, topics ? rs.getString("canonical_topic") : null);
+          rows++;
+        }
+      }
+      connection.commit();
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+    if (skipped > 0) {
+      log.warn("Skipped {} clues with a missing or unknown round", skipped);
+    }
+    return rows;
+  }
+
+  /** The current row as a clue, or {@code null} if its round is missing or unknown. */
+  private static Clue toClue(ResultSet rs) throws SQLException {
+    Round round;
+    try {
+      round = Round.of(rs.getString("round"));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    int value = rs.getInt("clue_value_int");
+    if (rs.wasNull()) {
+      value = Clue.NO_VALUE;
+    }
+    Date airDate = rs.getDate("air_date");
+    return new Clue(UUID.fromString(rs.getString("id")), rs.getString("category"), round,
+        rs.getInt("category_number"), value, rs.getString("question"), rs.getString("answer"),
+        rs.getBoolean("is_daily_double"), rs.getInt("game_id"),
+        airDate == null ? Clue.NO_DATE : Math.toIntExact(airDate.toLocalDate().toEpochDay()));
+  }
+}
@@ -0,0 +1,13 @@
+package org.storer.export;
+
+import org.storer.meta.Clue;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/** Sink for exported rows. Closing it flushes buffered rows and closes the underlying stream. */
+public interface ClueWriter extends Closeable {
+
+  /** @param topic the clue's canonical topic, or {@code null} if unmapped or not exported */
+  void write(Clue clue, String topic) throws IOException;
+}
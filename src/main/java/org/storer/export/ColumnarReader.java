@@ -0,0 +1,105 @@
+package org.storer.export;
+
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.zip.InflaterInputStream;
+
+import static org.storer.export.ColumnarWriter.*;
+
+/**
+ * Reads a file written in {@link ExportFormat#COLUMNAR} one row group at a time, so memory use is
+ * bounded by the group size rather than the file size.
+ */
+public final class ColumnarReader implements Closeable {
+
+  private static final Round[] ROUNDS = Round.values();
+
+  private final DataInputStream in;
+  private final boolean topics;
+
+  private ColumnarReader(DataInputStream in, boolean topics) {
+    this.in = in;
+    this.topics = topics;
+  }
+
+  public static ColumnarReader open(InputStream stream) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+    byte[] magic = new byte[MAGIC.length];
+    in.readFully(magic);
+    if (!Arrays.equals(magic, MAGIC)) {
+      throw new IOException("Not a columnar clue export");
+    }
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported columnar export version " + version);
+    }
+    return new ColumnarReader(in, (in.readInt() & TOPICS) != 0);
+  }
+
+  /** Whether the file carries canonical topics; if not, every topic passed to a sink is null. */
+  public boolean topics() {
+    return topics;
+  }
+
+  /** Hands every remaining row to {@code sink} in file order; returns the number of rows. */
+  public long forEach(BiConsumer<Clue, String> sink) throws IOException {
+    long total = 0;
+    DataInputStream[] columns = new DataInputStream[COLUMNS];
+    for (int rows = in.readInt(); rows > 0; rows = in.readInt()) {
+      for (int c = 0; c < COLUMNS; c++) {
+        byte[] deflated = new byte[in.readInt()];
+        in.readFully(deflated);
+        try (InflaterInputStream inflating = new InflaterInputStream(new ByteArrayInputStream(deflated))) {
+          columns[c] = new DataInputStream(new ByteArrayInputStream(inflating.readAllBytes()));
+        }
+      }
+      for (int row = 0; row < rows; row++) {
+        UUID id = new UUID(columns[ID].readLong(), columns[ID].readLong());
+        int gameId = columns[GAME_ID].readInt();
+        int airDay = columns[AIR_DAY].readInt();
+        int value = columns[VALUE].readInt();
+        int categoryNumber = columns[CATEGORY_NUMBER].readShort();
+        int flags = columns[FLAGS].readByte();
+        String category = string(columns[CATEGORY]);
+        String topic = string(columns[TOPIC]);
+        sink.accept(new Clue(id, category, ROUNDS[flags & 0x3], categoryNumber, value, string(columns[QUESTION]),
+            string(columns[ANSWER]), (flags & DAILY_DOUBLE) != 0, gameId, airDay), topic);
+      }
+      total += rows;
+    }
+    return total;
+  }
+
+  private static String string(DataInputStream column) throws IOException {
+    long length = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = column.readUnsignedByte();
+      length |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    if (length == 0) {
+      return null;
+    }
+    byte[] bytes = new byte[(int) length - 1];
+    column.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
@@ -0,0 +1,140 @@
+package org.storer.export;
+
+import org.storer.meta.Clue;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compressed columnar export. Rows are buffered in groups and each column of a group is deflated
+ * on its own, so similar values compress together and memory is bounded by one group. All
+ * integers are big-endian:
+ *
+ * <pre>
+ * file   := "CLXC" version:int flags:int group* 0:int
+ * group  := rows:int (length:int deflated-column){10}
+ * </pre>
+ *
+ * Columns, in order: id (two longs), game_id, air_day (epoch day, {@link Clue#NO_DATE} if
+ * unknown) and value ({@link Clue#NO_VALUE} if unknown) as ints, category_number as a short,
+ * flags as a byte (round ordinal, plus {@link #DAILY_DOUBLE}), then category, canonical_topic,
+ * question and answer as strings. A string is a varint of its UTF-8 length plus one, followed by
+ * the bytes; 0 encodes null. {@link #TOPICS} in the file flags says whether topics were exported.
+ */
+final class ColumnarWriter implements ClueWriter {
+
+  static final byte[] MAGIC = {'C', 'L', 'X', 'C'};
+  static final int VERSION = 1;
+  static final int TOPICS = 1;
+  static final int DAILY_DOUBLE = 0x4;
+  static final int COLUMNS = 10;
+  static final int ID = 0;
+  static final int GAME_ID = 1;
+  static final int AIR_DAY = 2;
+  static final int VALUE = 3;
+  static final int CATEGORY_NUMBER = 4;
+  static final int FLAGS = 5;
+  static final int CATEGORY = 6;
+  static final int TOPIC = 7;
+  static final int QUESTION = 8;
+  static final int ANSWER = 9;
+
+  static final int DEFAULT_GROUP_ROWS = 16_384;
+
+  private final DataOutputStream out;
+  private final int groupRows;
+  private final ByteArrayOutputStream[] buffers = new ByteArrayOutputStream[COLUMNS];
+  private final DataOutputStream[] columns = new DataOutputStream[COLUMNS];
+  private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(1 << 16);
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+  private int rows;
+
+  ColumnarWriter(OutputStream out, boolean topics) {
+    this(out, topics, DEFAULT_GROUP_ROWS);
+  }
+
+  ColumnarWriter(OutputStream out, boolean topics, int groupRows) {
+    this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    this.groupRows = groupRows;
+    for (int c = 0; c < COLUMNS; c++) {
+      buffers[c] = new ByteArrayOutputStream(1 << 12);
+      columns[c] = new DataOutputStream(buffers[c]);
+    }
+    try {
+      this.out.write(MAGIC);
+      this.out.writeInt(VERSION);
+      this.out.writeInt(topics ? TOPICS : 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void write(Clue clue, String topic) throws IOException {
+    columns[ID].writeLong(clue.id().getMostSignificantBits());
+    columns[ID].writeLong(clue.id().getLeastSignificantBits());
+    columns[GAME_ID].writeInt(clue.gameId());
+    columns[AIR_DAY].writeInt(clue.airDay());
+    columns[VALUE].writeInt(clue.value());
+    columns[CATEGORY_NUMBER].writeShort(clue.categoryNumber());
+    columns[FLAGS].writeByte(clue.round().ordinal() | (clue.isDailyDouble() ? DAILY_DOUBLE : 0));
+    string(columns[CATEGORY], clue.category());
+    string(columns[TOPIC], topic);
+    string(columns[QUESTION], clue.question());
+    string(columns[ANSWER], clue.answer());
+    if (++rows == groupRows) {
+      flushGroup();
+    }
+  }
+
+  private static void string(DataOutputStream column, String value) throws IOException {
+    if (value == null) {
+      column.writeByte(0);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    long length = bytes.length + 1L;
+    while (length >= 0x80) {
+      column.writeByte((int) (length & 0x7F) | 0x80);
+      length >>>= 7;
+    }
+    column.writeByte((int) length);
+    column.write(bytes);
+  }
+
+  private void flushGroup() throws IOException {
+    if (rows == 0) {
+      return;
+    }
+    out.writeInt(rows);
+    for (ByteArrayOutputStream buffer : buffers) {
+      compressed.reset();
+      deflater.reset();
+      try (DeflaterOutputStream deflating = new DeflaterOutputStream(compressed, deflater, 1 << 14)) {
+        buffer.writeTo(deflating);
+      }
+      out.writeInt(compressed.size());
+      compressed.writeTo(out);
+      buffer.reset();
+    }
+    rows = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flushGroup();
+      out.writeInt(0);
+    } finally {
+      deflater.end();
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package org.storer.export;
+
+import org.storer.meta.Round;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Which clues to export: an inclusive air-date range and a set of rounds. A null bound or an empty
+ * round set does not filter; clues without an air date only match when neither bound is set.
+ */
+public record ExportFilter(LocalDate from, LocalDate to, Set<Round> rounds) {
+
+  public static final ExportFilter ALL = new ExportFilter(null, null, Set.of());
+
+  public ExportFilter {
+    rounds = Set.copyOf(rounds);
+  }
+
+  /** {@code WHERE} clause over {@code clues_java c}, or an empty string. */
+  String where() {
+    List<String> conditions = new ArrayList<>(3);
+    if (from != null) {
+      conditions.add("c.air_date >= ?");
+    }
+    if (to != null) {
+      conditions.add("c.air_date <= ?");
+    }
+    if (!rounds.isEmpty()) {
+      conditions.add("c.round = ANY(?)");
+    }
+    return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+  }
+
+  /** Binds the parameters of {@link #where()}, starting at the first one. */
+  void bind(Connection connection, PreparedStatement ps) throws SQLException {
+    int index = 1;
+    if (from != null) {
+      ps.setObject(index++, from);
+    }
+    if (to != null) {
+      ps.setObject(index++, to);
+    }
+    if (!rounds.isEmpty()) {
+      Object[] codes = rounds.stream().map(Round::name).sorted().toArray();
+      ps.setArray(index, connection.createArrayOf("varchar", codes));
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package org.storer.export;
+
+import java.io.OutputStream;
+import java.util.Locale;
+
+/** Output formats of {@link ClueExporter}. */
+public enum ExportFormat {
+
+  /** One JSON object per line. */
+  NDJSON,
+  /** Tab-separated with a header row; fields containing tabs, quotes or newlines are quoted. */
+  TSV,
+  /** Deflate-compressed row groups, read back with {@link ColumnarReader}. */
+  COLUMNAR;
+
+  public static ExportFormat of(String name) {
+    return valueOf(name.toUpperCase(Locale.ROOT));
+  }
+
+  /** @param topics whether rows carry a {@code canonical_topic} field */
+  public ClueWriter open(OutputStream out, boolean topics) {
+    return switch (this) {
+      case NDJSON -> new NdjsonWriter(out, topics);
+      case TSV -> new TsvWriter(out, topics);
+      case COLUMNAR -> new ColumnarWriter(out, topics);
+    };
+  }
+}
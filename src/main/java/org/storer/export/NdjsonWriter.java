@@ -0,0 +1,89 @@
+package org.storer.export;
+
+import org.storer.meta.Clue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/** Writes each clue as a JSON object on its own line. */
+final class NdjsonWriter implements ClueWriter {
+
+  private final Writer out;
+  private final boolean topics;
+
+  NdjsonWriter(OutputStream out, boolean topics) {
+    this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+    this.topics = topics;
+  }
+
+  @Override
+  public void write(Clue clue, String topic) throws IOException {
+    out.write("{\"id\":\"");
+    out.write(clue.id().toString());
+    out.write("\",\"category\":");
+    string(clue.category());
+    if (topics) {
+      out.write(",\"canonical_topic\":");
+      string(topic);
+    }
+    out.write(",\"round\":\"");
+    out.write(clue.round().name());
+    out.write("\",\"category_number\":");
+    out.write(Integer.toString(clue.categoryNumber()));
+    out.write(",\"clue_value\":");
+    out.write(clue.value() == Clue.NO_VALUE ? "null" : Integer.toString(clue.value()));
+    out.write(",\"question\":");
+    string(clue.question());
+    out.write(",\"answer\":");
+    string(clue.answer());
+    out.write(",\"is_daily_double\":");
+    out.write(clue.isDailyDouble() ? "true" : "false");
+    out.write(",\"game_id\":");
+    out.write(Integer.toString(clue.gameId()));
+    out.write(",\"air_date\":");
+    if (clue.airDay() == Clue.NO_DATE) {
+      out.write("null");
+    } else {
+      out.write('"');
+      out.write(clue.gameDate());
+      out.write('"');
+    }
+    out.write("}\n");
+  }
+
+  private void string(String value) throws IOException {
+    if (value == null) {
+      out.write("null");
+      return;
+    }
+    out.write('"');
+    int run = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c >= 0x20 && c != '"' && c != '\\') {
+        continue;
+      }
+      out.write(value, run, i - run);
+      run = i + 1;
+      switch (c) {
+        case '"' -> out.write("\\\"");
+        case '\\' -> out.write("\\\\");
+        case '\n' -> out.write("\\n");
+        case '\r' -> out.write("\\r");
+        case '\t' -> out.write("\\t");
+        default -> out.write(String.format("\\u%04x", (int) c));
+      }
+    }
+    out.write(value, run, value.length() - run);
+    out.write('"');
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
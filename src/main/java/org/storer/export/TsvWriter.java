@@ -0,0 +1,61 @@
+package org.storer.export;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.storer.meta.Clue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/** Writes a header row and one tab-separated row per clue; nulls become empty fields. */
+final class TsvWriter implements ClueWriter {
+
+  private static final String[] COLUMNS = {"id", "category", "round", "category_number", "clue_value",
+      "question", "answer", "is_daily_double", "game_id", "air_date"};
+  private static final String[] COLUMNS_WITH_TOPIC = {"id", "category", "canonical_topic", "round",
+      "category_number", "clue_value", "question", "answer", "is_daily_double", "game_id", "air_date"};
+
+  private final CSVPrinter printer;
+  private final boolean topics;
+
+  TsvWriter(OutputStream out, boolean topics) {
+    this.topics = topics;
+    CSVFormat format = CSVFormat.TDF.builder()
+        .setHeader(topics ? COLUMNS_WITH_TOPIC : COLUMNS)
+        .setRecordSeparator('\n')
+        .build();
+    try {
+      printer = new CSVPrinter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16),
+          format);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void write(Clue clue, String topic) throws IOException {
+    printer.print(clue.id());
+    printer.print(clue.category());
+    if (topics) {
+      printer.print(topic);
+    }
+    printer.print(clue.round().name());
+    printer.print(clue.categoryNumber());
+    printer.print(clue.value() == Clue.NO_VALUE ? null : clue.value());
+    printer.print(clue.question());
+    printer.print(clue.answer());
+    printer.print(clue.isDailyDouble());
+    printer.print(clue.gameId());
+    printer.print(clue.gameDate());
+    printer.println();
+  }
+
+  @Override
+  public void close() throws IOException {
+    printer.close(true);
+  }
+}
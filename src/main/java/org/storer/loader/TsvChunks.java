@@ -0,0 +1,296 @@
+package org.storer.loader;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.storer.meta.Clue;
+import org.storer.metrics.Histogram;
+import org.storer.metrics.Metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A TSV file split into byte ranges that each start on a record boundary, so that the ranges can
+ * be memory-mapped, decoded and parsed on separate cores.
+ *
+ * <p>Whether a newline ends a record depends on whether it sits inside a quoted field, which in
+ * turn depends on everything before it. The file is therefore cut into equal pieces that are
+ * scanned in parallel from every state of the {@link TsvLoader#tsvFormat()} lexer (field start,
+ * unquoted field, quoted field, quote seen inside a quoted field). Chaining the end states from
+ * the start of the file then picks the true entry state, and with it the first record boundary,
+ * of each piece.
+ */
+final class TsvChunks implements Closeable {
+
+  private static final Histogram PARSE_TIME = Metrics.timer("tsv.parseChunk");
+
+  private static final int FIELD_START = 0;
+  private static final int UNQUOTED = 1;
+  private static final int QUOTED = 2;
+  private static final int QUOTE_IN_QUOTED = 3;
+  private static final int STATES = 4;
+
+  private static final long MIN_CHUNK_BYTES = 1 << 20;
+
+  /** Lexer state after each byte, indexed by {@code state * 256 + byte}. */
+  private static final byte[] NEXT = new byte[STATES * 256];
+
+  static {
+    for (int b = 0; b < 256; b++) {
+      boolean endOfField = b == '\t' || b == '\n' || b == '\r';
+      boolean space = b == ' ' || b == 0x0B || b == '\f' || (b >= 0x1C && b <= 0x1F);
+
+      // Leading spaces are skipped (ignoreSurroundingSpaces), so a quote after them still opens
+      NEXT[FIELD_START * 256 + b] =
+          (byte) (b == '"' ? QUOTED : endOfField || space ? FIELD_START : UNQUOTED);
+      NEXT[UNQUOTED * 256 + b] = (byte) (endOfField ? FIELD_START : UNQUOTED);
+      NEXT[QUOTED * 256 + b] = (byte) (b == '"' ? QUOTE_IN_QUOTED : QUOTED);
+      // "" is an escaped quote; anything else closes the quoted field
+      NEXT[QUOTE_IN_QUOTED * 256 + b] =
+          (byte) (b == '"' ? QUOTED : endOfField ? FIELD_START : UNQUOTED);
+    }
+  }
+
+  /** Bytes {@code [start, end)} of the file, starting on 1-based line {@code firstLine}. */
+  record Chunk(int index, long start, long end, long firstLine) {}
+
+  /** Scan result for one piece: per entry state, the end state and the first record boundary. */
+  private record Piece(long newlines, int[] endStates, long[] firstBoundaries,
+             long[] newlinesThroughBoundary) {}
+
+  private final FileChannel channel;
+  private final String[] header;
+  private final List<Chunk> chunks;
+
+  private TsvChunks(FileChannel channel, String[] header, List<Chunk> chunks) {
+    this.channel = channel;
+    this.header = header;
+    this.chunks = chunks;
+  }
+
+  /**
+   * Maps {@code file} and splits it into about four ranges per thread, none smaller than
+   * {@link #MIN_CHUNK_BYTES}, scanning for boundaries on {@code parallelism} threads.
+   */
+  static TsvChunks open(Path file, int parallelism) throws IOException {
+    long size = Files.size(file);
+    return open(file, Math.max(MIN_CHUNK_BYTES, size / (parallelism * 4L) + 1), parallelism);
+  }
+
+  /** Splits {@code file} at the first record boundary in each {@code pieceSize}-byte piece. */
+  static TsvChunks open(Path file, long pieceSize, int parallelism) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      List<Piece> pieces = scan(channel, size, pieceSize, parallelism);
+
+      // Record boundaries that start a range, each with the 1-based line number it starts on
+      List<long[]> boundaries = new ArrayList<>();
+      int state = FIELD_START;
+      long newlinesBefore = 0;
+      for (Piece piece : pieces) {
+        long boundary = piece.firstBoundaries()[state];
+        if (boundary >= 0) {
+          long line = 1 + newlinesBefore + piece.newlinesThroughBoundary()[state];
+          boundaries.add(new long[] {boundary, line});
+        }
+        state = piece.endStates()[state];
+        newlinesBefore += piece.newlines();
+      }
+
+      if (boundaries.isEmpty()) {
+        // Header only, without a trailing newline
+        return new TsvChunks(channel, readHeader(channel, 0, size), List.of());
+      }
+      long headerEnd = boundaries.getFirst()[0];
+      String[] header = readHeader(channel, 0, headerEnd);
+
+      List<Chunk> chunks = new ArrayList<>(boundaries.size());
+      for (int i = 0; i < boundaries.size(); i++) {
+        long start = boundaries.get(i)[0];
+        long end = i + 1 < boundaries.size() ? boundaries.get(i + 1)[0] : size;
+        if (end > start) {
+          chunks.add(new Chunk(chunks.size(), start, end, boundaries.get(i)[1]));
+        }
+      }
+      return new TsvChunks(channel, header, chunks);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static List<Piece> scan(FileChannel channel, long size, long pieceSize, int parallelism)
+      throws IOException {
+    int count = (int) Math.max(1, (size + pieceSize - 1) / pieceSize);
+    ExecutorService executor = Executors.newFixedThreadPool(Math.clamp(parallelism, 1, count));
+    try {
+      List<Future<Piece>> futures = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        long start = i * pieceSize;
+        long end = Math.min(size, start + pieceSize);
+        futures.add(executor.submit(
+            () -> scanPiece(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), start)));
+      }
+      List<Piece> pieces = new ArrayList<>(count);
+      for (Future<Piece> future : futures) {
+        pieces.add(future.get());
+      }
+      return pieces;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      throw new IllegalStateException("Failed to scan TSV file", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while scanning TSV file", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Runs the lexer over one piece from all entry states at once. */
+  private static Piece scanPiece(MappedByteBuffer bytes, long start) {
+    int[] states = {FIELD_START, UNQUOTED, QUOTED, QUOTE_IN_QUOTED};
+    long[] firstBoundaries = {-1, -1, -1, -1};
+    long[] newlinesThroughBoundary = new long[STATES];
+    int pending = STATES;
+    long newlines = 0;
+    int length = bytes.limit();
+
+    int i = 0;
+    // Until every entry state has found its first boundary, and the four runs have converged,
+    // step all four; afterwards a single run stands for all of them
+    for (; i < length && (pending > 0 || !converged(states)); i++) {
+      int b = bytes.get(i) & 0xFF;
+      if (b == '\n') {
+        newlines++;
+      }
+      for (int s = 0; s < STATES; s++) {
+        int current = states[s];
+        if (b == '\n' && current != QUOTED && firstBoundaries[s] < 0) {
+          firstBoundaries[s] = start + i + 1;
+          newlinesThroughBoundary[s] = newlines;
+          pending--;
+        }
+        states[s] = NEXT[current * 256 + b];
+      }
+    }
+    int state = states[0];
+    for (; i < length; i++) {
+      int b = bytes.get(i) & 0xFF;
+      if (b == '\n') {
+        newlines++;
+      }
+      state = NEXT[state * 256 + b];
+    }
+    if (converged(states)) {
+      Arrays.fill(states, state);
+    }
+    return new Piece(newlines, states, firstBoundaries, newlinesThroughBoundary);
+  }
+
+  private static boolean converged(int[] states) {
+    return states[0] == states[1] && states[1] == states[2] && states[2] == states[3];
+  }
+
+  private static String[] readHeader(FileChannel channel, long start, long end) throws IOException {
+    String text = decode(channel, start, end);
+    try (CSVParser parser = CSVParser.parse(text, CSVFormat.TDF)) {
+      Iterator<CSVRecord> records = parser.iterator();
+      return records.hasNext() ? records.next().values() : new String[0];
+    }
+  }
+
+  private static String decode(FileChannel channel, long start, long end) throws IOException {
+    if (end <= start) {
+      return "";
+    }
+    // Ranges start and end right after a '\n' byte, so they never split a UTF-8 sequence
+    return StandardCharsets.UTF_8.decode(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start))
+        .toString();
+  }
+
+  List<Chunk> chunks() {
+    return chunks;
+  }
+
+  String[] header() {
+    return header.clone();
+  }
+
+  /** Receives each record that could not be read or parsed, with the file line it starts on. */
+  interface ErrorHandler {
+    void malformed(long line, IllegalArgumentException e);
+  }
+
+  /**
+   * Parses every record of {@code chunk} with {@link TsvLoader#parseRecord}. The first malformed
+   * record fails the parse with the file line it starts on.
+   */
+  void parse(Chunk chunk, Consumer<Clue> sink) throws IOException {
+    parse(chunk, (clue, line) -> sink.accept(clue), (line, e) -> {
+      throw new IllegalArgumentException("Malformed record at line " + line, e);
+    });
+  }
+
+  /**
+   * Parses every record of {@code chunk}, handing each clue to {@code sink} with its line. Records
+   * that fail {@link TsvLoader#parseRecord} are passed to {@code errors} and skipped; a lexer
+   * error loses the record boundaries, so it also ends the chunk.
+   */
+  void parse(Chunk chunk, ObjLongConsumer<Clue> sink, ErrorHandler errors) throws IOException {
+    long start = Metrics.startTimer();
+    CSVFormat format = CSVFormat.TDF.builder().setHeader(header).setSkipHeaderRecord(false).build();
+    String text = decode(channel, chunk.start(), chunk.end());
+    try (CSVParser parser = new CSVParser(new StringReader(text), format)) {
+      Iterator<CSVRecord> records = parser.iterator();
+      while (true) {
+        long line = chunk.firstLine() + parser.getCurrentLineNumber();
+        CSVRecord record;
+        try {
+          if (!records.hasNext()) {
+            break;
+          }
+          record = records.next();
+        } catch (RuntimeException e) {
+          errors.malformed(line, new IllegalArgumentException("Unreadable record: " + e.getMessage(), e));
+          break;
+        }
+        Clue clue;
+        try {
+          clue = TsvLoader.parseRecord(record);
+        } catch (IllegalArgumentException e) {
+          errors.malformed(line, e);
+          continue;
+        }
+        sink.accept(clue, line);
+      }
+    }
+    PARSE_TIME.recordSince(start);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,161 @@
+package org.storer.loader;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.storer.meta.Clue;
+import org.storer.topics.CategoryTopics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Bulk-load path for PostgreSQL: rows are streamed with {@code COPY} into the unlogged
+ * {@code clues_java_staging} table and then merged into {@code clues_java} with a single
+ * {@code INSERT ... ON CONFLICT (id) DO NOTHING} that also updates {@code topic_stats} and queues
+ * unmapped categories, all inside one transaction.
+ */
+class TsvCopier {
+
+  private static final Logger log = LoggerFactory.getLogger(TsvCopier.class);
+  private static final String STAGING_TABLE = "clues_java_staging";
+  private static final String COLUMNS =
+      "id, category, round, category_number, clue_value, question, answer," +
+      " is_daily_double, game_id, game_date, date_added, clue_value_int, air_date, canonical_topic";
+  private static final int FLUSH_BYTES = 1 << 16;
+
+  static final String COPY_QUERY = "COPY " + STAGING_TABLE + " (" + COLUMNS + ") FROM STDIN";
+  // Merges the staged rows, folds the ones actually inserted into topic_stats and queues their
+  // unmapped categories; yields the number of inserted rows
+  static final String MERGE_QUERY =
+      "WITH inserted AS (" +
+      "INSERT INTO clues_java (" + COLUMNS + ")" +
+      " SELECT " + COLUMNS + " FROM " + STAGING_TABLE +
+      " ON CONFLICT (id) DO NOTHING" +
+      " RETURNING category, round, clue_value_int, canonical_topic)," +
+      " stats AS (" +
+      "INSERT INTO topic_stats (canonical_topic, round, clue_count, value_sum, value_count)" +
+      " SELECT i.canonical_topic, i.round, COUNT(*), COALESCE(SUM(i.clue_value_int), 0)," +
+      " COUNT(i.clue_value_int)" +
+      " FROM inserted i WHERE i.canonical_topic IS NOT NULL" +
+      " GROUP BY i.canonical_topic, i.round" +
+      " ON CONFLICT (canonical_topic, round) DO UPDATE SET" +
+      " clue_count = topic_stats.clue_count + EXCLUDED.clue_count," +
+      " value_sum = topic_stats.value_sum + EXCLUDED.value_sum," +
+      " value_count = topic_stats.value_count + EXCLUDED.value_count)," +
+      " unmapped AS (" +
+      "INSERT INTO unmapped_categories (jeopardy_category)" +
+      " SELECT DISTINCT i.category FROM inserted i" +
+      " WHERE i.canonical_topic IS NULL AND i.category IS NOT NULL" +
+      " ON CONFLICT DO NOTHING)" +
+      " SELECT COUNT(*) FROM inserted";
+
+  private final HikariDataSource dataSource;
+  private final CategoryTopics topics;
+
+  TsvCopier(HikariDataSource dataSource, CategoryTopics topics) {
+    this.dataSource = dataSource;
+    this.topics = topics;
+  }
+
+  long run(CSVParser parser, String dateAdded) throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (Statement stmt = connection.createStatement()) {
+        stmt.execute("TRUNCATE " + STAGING_TABLE);
+
+        long copied = copy(connection.unwrap(PGConnection.class), parser, dateAdded);
+        log.info("Copied {} rows into {}", copied, STAGING_TABLE);
+
+        long inserted;
+        try (ResultSet rs = stmt.executeQuery(MERGE_QUERY)) {
+          rs.next();
+          inserted = rs.getLong(1);
+        }
+        stmt.execute("TRUNCATE " + STAGING_TABLE);
+        connection.commit();
+
+        log.info("Load complete. Total rows processed: {} ({} new, {} already present)",
+            copied, inserted, copied - inserted);
+        return copied;
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      }
+    }
+  }
+
+  private long copy(PGConnection connection, CSVParser parser, String dateAdded) throws SQLException {
+    CopyIn copyIn = connection.getCopyAPI().copyIn(COPY_QUERY);
+    try {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream(FLUSH_BYTES * 2);
+      StringBuilder line = new StringBuilder(256);
+      long count = 0;
+
+      for (CSVRecord record : parser) {
+        Clue clue = TsvLoader.parseRecord(record);
+        line.setLength(0);
+        appendRow(line, clue, dateAdded, topics.topic(clue.category()));
+        buffer.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+
+        count++;
+        if (buffer.size() >= FLUSH_BYTES) {
+          copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+          buffer.reset();
+        }
+      }
+      if (buffer.size() > 0) {
+        copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+      }
+      copyIn.endCopy();
+      return count;
+    } finally {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    }
+  }
+
+  /** Appends one row in COPY text format, in {@link #COLUMNS} order. */
+  static void appendRow(StringBuilder out, Clue clue, String dateAdded, String topic) {
+    out.append(clue.id()).append('\t');
+    appendField(out, clue.category()).append('\t');
+    out.append(clue.round().name()).append('\t');
+    out.append(clue.categoryNumber()).append('\t');
+    appendField(out, clue.clueValue()).append('\t');
+    appendField(out, clue.question()).append('\t');
+    appendField(out, clue.answer()).append('\t');
+    out.append(clue.isDailyDouble() ? 't' : 'f').append('\t');
+    out.append(clue.gameId()).append('\t');
+    appendField(out, clue.gameDate()).append('\t');
+    appendField(out, dateAdded).append('\t');
+    out.append(clue.value()).append('\t');
+    appendField(out, clue.airDay() == Clue.NO_DATE ? null : clue.gameDate()).append('\t');
+    appendField(out, topic).append('\n');
+  }
+
+  private static StringBuilder appendField(StringBuilder out, String value) {
+    if (value == null) {
+      return out.append("\\N");
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\' -> out.append("\\\\");
+        case '\t' -> out.append("\\t");
+        case '\n' -> out.append("\\n");
+        case '\r' -> out.append("\\r");
+        default   -> out.append(c);
+      }
+    }
+    return out;
+  }
+}
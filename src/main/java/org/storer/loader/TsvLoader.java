@@ -8,37 +8,101 @@ import org.apache.commons.csv.CSVRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.storer.meta.Clue;
+import org.storer.meta.Round;
+import org.storer.metrics.HikariMetrics;
+import org.storer.metrics.Histogram;
+import org.storer.metrics.Metrics;
+import org.storer.topics.CategoryTopics;
+import org.storer.topics.TopicStats;
+import org.storer.util.AdaptiveBatchSize;
 
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public class TsvLoader {
 
   private static final Logger log = LoggerFactory.getLogger(TsvLoader.class);
   private static final String TABLE = "clues_java";
-  private static final int BATCH_SIZE = 500;
+  // Initial rows per executeBatch, and the granularity parsers hand rows to writers in
+  static final int BATCH_SIZE = 500;
+  private static final int MIN_BATCH_SIZE = 50;
+  private static final int MAX_BATCH_SIZE = 10_000;
+  private static final Duration TARGET_BATCH_LATENCY = Duration.ofMillis(100);
   private static final DateTimeFormatter DATE_ADDED_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+  static final String INSERT_QUERY =
+      "INSERT INTO " + TABLE +
+      " (id, category, round, category_number, clue_value, question, answer," +
+      " is_daily_double, game_id, game_date, date_added, clue_value_int, air_date, canonical_topic)" +
+      " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)" +
+      " ON CONFLICT DO NOTHING";
+
+  private static final String USAGE =
+      "Usage: TsvLoader [--dry-run] [--copy | --parallel <threads> [--queue-depth <batches>]]"
+          + " [--metrics <json-file>] <path-to-tsv-file>";
+  private static final Histogram BATCH_TIME = Metrics.timer("db.executeBatch");
+  private static final Histogram BATCH_ROWS = Metrics.distribution("db.rowsPerBatch");
+
   public static void main(String[] args) {
-    boolean dryRun = args.length > 0 && args[0].equals("--dry-run");
-    int fileArgIndex = dryRun ? 1 : 0;
+    boolean dryRun = false;
+    boolean copy = false;
+    int parallelism = 0;
+    int queueDepth = TsvPipeline.DEFAULT_QUEUE_DEPTH;
+    String filePath = null;
+    String metricsArg = null;
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--dry-run" -> dryRun = true;
+          case "--copy" -> copy = true;
+          case "--parallel" -> parallelism = Integer.parseInt(args[++i]);
+          case "--queue-depth" -> queueDepth = Integer.parseInt(args[++i]);
+          case "--metrics" -> metricsArg = args[++i];
+          default -> filePath = args[i];
+        }
+      }
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      filePath = null;
+    }
 
-    if (fileArgIndex >= args.length) {
-      System.err.println("Usage: TsvLoader [--dry-run] <path-to-tsv-file>");
+    if (filePath == null || parallelism < 0 || queueDepth < 1 || (copy && parallelism > 0)) {
+      System.err.println(USAGE);
       System.exit(1);
     }
 
-    String filePath = args[fileArgIndex];
+    Metrics.Reporter reporter = metricsArg == null ? null
+        : Metrics.start(Path.of(metricsArg), Metrics.REPORT_INTERVAL);
+    try (reporter) {
+      run(filePath, dryRun, copy, parallelism, queueDepth);
+    }
+  }
 
+  private static void run(String filePath, boolean dryRun, boolean copy, int parallelism, int queueDepth) {
     if (dryRun) {
-      new TsvLoader().load(filePath);
+      try {
+        if (!validate(filePath, parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors())
+            .clean()) {
+          System.exit(1);
+        }
+      } catch (RuntimeException e) {
+        log.error(e.getMessage(), e.getCause());
+        System.exit(1);
+      }
       return;
     }
 
@@ -55,9 +119,23 @@ public class TsvLoader {
     config.setJdbcUrl(url);
     config.setUsername(user);
     config.setPassword(password);
+    // Lets PgJDBC send each JDBC batch as multi-row INSERTs
+    config.addDataSourceProperty("reWriteBatchedInserts", "true");
+    HikariMetrics.install(config);
+    if (parallelism > 0) {
+      // One connection per writer thread
+      config.setMaximumPoolSize(parallelism);
+    }
 
     try (HikariDataSource dataSource = new HikariDataSource(config)) {
-      new TsvLoader(dataSource).load(filePath);
+      TsvLoader loader = new TsvLoader(dataSource);
+      if (copy) {
+        loader.loadCopy(filePath);
+      } else if (parallelism > 0) {
+        loader.loadParallel(filePath, parallelism, queueDepth);
+      } else {
+        loader.load(filePath);
+      }
     } catch (RuntimeException e) {
       log.error(e.getMessage(), e.getCause());
       System.exit(1);
@@ -79,94 +157,275 @@ public class TsvLoader {
   }
 
   void load(String filePath) {
-    CSVFormat format = CSVFormat.TDF.builder()
-        .setHeader()
-        .setSkipHeaderRecord(true)
-        .build();
-
     try (Reader reader = new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8);
-      CSVParser parser = new CSVParser(reader, format)) {
+      CSVParser parser = new CSVParser(reader, tsvFormat())) {
 
       if (dryRun) {
-        long count = parser.stream().count();
-        log.info("[DRY RUN] {} rows would be inserted.", count);
+        validate(filePath, Runtime.getRuntime().availableProcessors());
         return;
       }
 
-      String insertQuery =
-          "INSERT INTO " + TABLE +
-          " (id, category, round, category_number, clue_value, question, answer," +
-          " is_daily_double, game_id, game_date, date_added)" +
-          " SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?" +
-          " WHERE NOT EXISTS (SELECT 1 FROM " + TABLE + " WHERE id = ?)";
-
       String dateAdded = LocalDate.now().format(DATE_ADDED_FORMATTER);
 
       try (Connection connection = dataSource.getConnection();
-        PreparedStatement ps = connection.prepareStatement(insertQuery)) {
+        PreparedStatement ps = connection.prepareStatement(INSERT_QUERY, TopicStats.INSERTED_ID)) {
+        CategoryTopics topics = loadTopics(connection);
+        connection.setAutoCommit(false);
 
+        AdaptiveBatchSize batching = batching();
+        Transaction transaction = new Transaction();
+        List<Clue> batch = new ArrayList<>(BATCH_SIZE);
         int count = 0;
 
         for (CSVRecord record : parser) {
-          Clue clue = parseRecord(record);
-
-          String id = UUID.nameUUIDFromBytes(
-              (clue.round() + "|" + clue.category() + "|" + clue.question() + "|" + clue.gameDate())
-                  .getBytes(StandardCharsets.UTF_8)).toString();
-
-          ps.setString(1, id);
-          ps.setString(2, clue.category());
-          ps.setString(3, clue.round());
-          ps.setInt(4, clue.categoryNumber());
-          ps.setString(5, clue.clueValue());
-          ps.setString(6, clue.question());
-          ps.setString(7, clue.answer());
-          ps.setBoolean(8, clue.isDailyDouble());
-          ps.setInt(9, clue.gameId());
-          ps.setString(10, clue.gameDate());
-          ps.setString(11, dateAdded);
-          ps.setString(12, id);   // id for the NOT EXISTS check
-          ps.addBatch();
+          batch.add(parseRecord(record));
 
           count++;
-          if (count % BATCH_SIZE == 0) {
-            ps.executeBatch();
+          if (batch.size() >= batching.size()) {
+            writeBatch(connection, ps, batch, dateAdded, topics, this, batching, transaction);
+            batch.clear();
             log.info("Inserted {} rows...", count);
           }
         }
 
-        ps.executeBatch();
+        writeBatch(connection, ps, batch, dateAdded, topics, this, batching, transaction);
+        commit(connection, topics, this, transaction);
         log.info("Load complete. Total rows processed: {}", count);
+        log.info("Batch sizing: {}", batching.summary());
+      }
+
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to load TSV file: " + filePath, e);
+    }
+  }
+
+  /**
+   * Loads the file through a chunked parser pool → writer pool pipeline. The file is memory-mapped
+   * and split at record boundaries so that decoding and parsing run on {@code parallelism} cores.
+   * Each writer holds its own pooled connection, so the data source must allow at least
+   * {@code parallelism} connections. In dry-run mode the file is only validated.
+   */
+  void loadParallel(String filePath, int parallelism, int queueDepth) {
+    try (TsvChunks chunks = TsvChunks.open(Path.of(filePath), parallelism)) {
+      if (dryRun) {
+        log.info("[DRY RUN] {}", TsvValidator.validate(chunks, parallelism).format());
+        return;
       }
 
+      String dateAdded = LocalDate.now().format(DATE_ADDED_FORMATTER);
+      new TsvPipeline(dataSource, parallelism, queueDepth, loadTopics()).run(chunks, dateAdded);
+
     } catch (Exception e) {
       throw new RuntimeException("Failed to load TSV file: " + filePath, e);
     }
   }
 
-  private Clue parseRecord(CSVRecord record) {
-    String airDate    = record.get("air_date").trim();
-    String category   = record.get("category").trim();
-    String question   = record.get("question").trim();
-    String answer     = record.get("answer").trim();
-    String rawRound   = record.get("round").trim();
-    String rawValue   = record.get("clue_value").trim();
-    String rawDdValue = record.get("daily_double_value").trim();
+  /**
+   * Parses and checks every record on {@code parallelism} threads without a database: malformed
+   * records by kind and line, duplicate ids, and per-round and per-year counts. The report is
+   * logged and returned.
+   */
+  static TsvValidator.Report validate(String filePath, int parallelism) {
+    long start = System.nanoTime();
+    try (TsvChunks chunks = TsvChunks.open(Path.of(filePath), parallelism)) {
+      TsvValidator.Report report = TsvValidator.validate(chunks, parallelism);
+      log.info("[DRY RUN] Validated {} in {} ms on {} threads: {}", filePath,
+          (System.nanoTime() - start) / 1_000_000, parallelism, report.format());
+      return report;
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to validate TSV file: " + filePath, e);
+    }
+  }
 
-    String  round         = mapRound(rawRound);
-    boolean isDailyDouble = !rawDdValue.isEmpty() && Integer.parseInt(rawDdValue) > 0;
-    String  clueValue     = (rawValue.isEmpty() || rawValue.equals("0")) ? "$0" : "$" + rawValue;
-    int     gameId        = airDate.isEmpty() ? 0 : Integer.parseInt(airDate.replace("-", ""));
+  /**
+   * PostgreSQL-only bulk load: streams rows through {@code COPY} into a staging table and merges
+   * them into {@code clues_java} in one set-based statement.
+   */
+  void loadCopy(String filePath) {
+    if (dryRun) {
+      load(filePath);
+      return;
+    }
+
+    try (Reader reader = new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8);
+      CSVParser parser = new CSVParser(reader, tsvFormat())) {
+
+      String dateAdded = LocalDate.now().format(DATE_ADDED_FORMATTER);
+      new TsvCopier(dataSource, loadTopics()).run(parser, dateAdded);
+
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to load TSV file: " + filePath, e);
+    }
+  }
 
-    return new Clue(category, round, -1, clueValue, question, answer, isDailyDouble, gameId, airDate);
+  private CategoryTopics loadTopics() throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      return loadTopics(connection);
+    }
+  }
+
+  private static CategoryTopics loadTopics(Connection connection) throws SQLException {
+    CategoryTopics topics = CategoryTopics.load(connection);
+    log.info("Loaded {} category mappings", topics.size());
+    return topics;
+  }
+
+  static CSVFormat tsvFormat() {
+    return CSVFormat.TDF.builder()
+        .setHeader()
+        .setSkipHeaderRecord(true)
+        .build();
+  }
+
+  /** Id of a TSV clue; the formula must not change or reloads would stop deduplicating. */
+  static UUID clueId(Round round, String category, String question, String gameDate) {
+    return UUID.nameUUIDFromBytes(
+        (round + "|" + category + "|" + question + "|" + gameDate).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Batch sizer for TSV loads; parallel writers share one so they converge on the same size. */
+  static AdaptiveBatchSize batching() {
+    return new AdaptiveBatchSize("tsv", BATCH_SIZE, MIN_BATCH_SIZE, MAX_BATCH_SIZE, TARGET_BATCH_LATENCY);
+  }
+
+  /** Rows executed on a connection since its last commit. */
+  static final class Transaction {
+    private final List<Clue> rows = new ArrayList<>();
+    private final List<String> newIds = new ArrayList<>();
+    private int batches;
+
+    private void clear() {
+      rows.clear();
+      newIds.clear();
+      batches = 0;
+    }
+  }
+
+  /**
+   * Inserts one batch with its canonical topics and times it for {@code batching}. Once
+   * {@link AdaptiveBatchSize#batchesPerCommit} batches have run, the transaction is committed.
+   */
+  static void writeBatch(Connection connection, PreparedStatement ps, List<Clue> batch, String dateAdded,
+              CategoryTopics topics, Object statsLock, AdaptiveBatchSize batching,
+              Transaction transaction) throws SQLException {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      for (Clue clue : batch) {
+        bind(ps, clue, dateAdded, topics.topic(clue.category()));
+        ps.addBatch();
+      }
+      long start = System.nanoTime();
+      ps.executeBatch();
+      long elapsed = System.nanoTime() - start;
+      BATCH_TIME.record(elapsed);
+      BATCH_ROWS.record(batch.size());
+      batching.record(batch.size(), elapsed);
+      transaction.rows.addAll(batch);
+      transaction.newIds.addAll(TopicStats.insertedIds(ps));
+    } catch (SQLException e) {
+      connection.rollback();
+      transaction.clear();
+      throw e;
+    }
+    if (++transaction.batches >= batching.batchesPerCommit()) {
+      commit(connection, topics, statsLock, transaction);
+    }
+  }
+
+  /**
+   * Queues the transaction's unmapped categories, adds its new rows to {@code topic_stats} and
+   * commits. Concurrent writers pass a shared {@code statsLock} so that their {@code topic_stats}
+   * updates cannot deadlock.
+   */
+  static void commit(Connection connection, CategoryTopics topics, Object statsLock, Transaction transaction)
+      throws SQLException {
+    if (transaction.batches == 0) {
+      return;
+    }
+    try {
+      synchronized (statsLock) {
+        List<String> queued = topics.queueUnmapped(connection, transaction.rows);
+        TopicStats.add(connection, transaction.newIds);
+        connection.commit();
+        topics.markQueued(queued);
+      }
+    } catch (SQLException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      transaction.clear();
+    }
+  }
+
+  static void bind(PreparedStatement ps, Clue clue, String dateAdded, String topic) throws SQLException {
+    ps.setString(1, clue.id().toString());
+    ps.setString(2, clue.category());
+    ps.setString(3, clue.round().name());
+    ps.setInt(4, clue.categoryNumber());
+    ps.setString(5, clue.clueValue());
+    ps.setString(6, clue.question());
+    ps.setString(7, clue.answer());
+    ps.setBoolean(8, clue.isDailyDouble());
+    ps.setInt(9, clue.gameId());
+    ps.setString(10, clue.gameDate());
+    ps.setString(11, dateAdded);
+    ps.setInt(12, clue.value());
+    ps.setObject(13, clue.airDate(), Types.DATE);
+    ps.setString(14, topic);
+  }
+
+  /**
+   * Maps one TSV row to a clue. Invalid fields fail with an {@link IllegalArgumentException} whose
+   * message starts with the problem and the column, e.g. {@code Invalid clue_value: "abc"}.
+   */
+  static Clue parseRecord(CSVRecord record) {
+    String airDate    = field(record, "air_date");
+    String category   = field(record, "category");
+    String question   = field(record, "question");
+    String answer     = field(record, "answer");
+    String rawRound   = field(record, "round");
+    String rawValue   = field(record, "clue_value");
+    String rawDdValue = field(record, "daily_double_value");
+
+    Round   round         = mapRound(rawRound);
+    boolean isDailyDouble = !rawDdValue.isEmpty() && parseInt("daily_double_value", rawDdValue) > 0;
+    int     value         = rawValue.isEmpty() ? 0 : parseInt("clue_value", rawValue);
+    int     airDay;
+    int     gameId;
+    try {
+      airDay = Clue.parseDate(airDate);
+      gameId = airDate.isEmpty() ? 0 : Integer.parseInt(airDate.replace("-", ""));
+    } catch (DateTimeException | NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid air_date: \"" + airDate + "\"", e);
+    }
+
+    return new Clue(clueId(round, category, question, airDate), category, round, -1, value,
+        question, answer, isDailyDouble, gameId, airDay);
+  }
+
+  private static String field(CSVRecord record, String column) {
+    if (!record.isSet(column)) {
+      throw new IllegalArgumentException("Missing " + column + ": record has " + record.size() + " fields");
+    }
+    return record.get(column).trim();
+  }
+
+  private static int parseInt(String column, String raw) {
+    try {
+      return Integer.parseInt(raw);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid " + column + ": \"" + raw + "\"", e);
+    }
   }
 
-  private String mapRound(String raw) {
+  private static Round mapRound(String raw) {
     return switch (raw) {
-      case "1" -> "J";
-      case "2" -> "DJ";
-      case "3" -> "FJ";
-      default  -> raw;
+      case "1" -> Round.J;
+      case "2" -> Round.DJ;
+      case "3" -> Round.FJ;
+      default  -> Round.of(raw);
     };
   }
 }
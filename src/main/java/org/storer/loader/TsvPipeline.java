@@ -0,0 +1,201 @@
+package org.storer.loader;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.storer.meta.Clue;
+import org.storer.topics.CategoryTopics;
+import org.storer.topics.TopicStats;
+import org.storer.util.AdaptiveBatchSize;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Staged load pipeline: a pool of parser threads each claims {@link TsvChunks} byte ranges of the
+ * memory-mapped file and turns them into rows, and a pool of writer threads — each on its own
+ * connection — batches the rows into the database. Rows are routed to writers by id so that duplicate rows
+ * in the file always meet the same writer instead of waiting on each other's uncommitted keys.
+ */
+class TsvPipeline {
+
+  static final int DEFAULT_QUEUE_DEPTH = 16;
+
+  private static final Logger log = LoggerFactory.getLogger(TsvPipeline.class);
+  private static final List<Clue> END_OF_ROWS = new ArrayList<>();
+
+  private final HikariDataSource dataSource;
+  private final int parallelism;
+  private final int queueDepth;
+  private final CategoryTopics topics;
+
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private final AtomicLong written = new AtomicLong();
+  private final Object statsLock = new Object();
+  private final AdaptiveBatchSize batching = TsvLoader.batching();
+
+  TsvPipeline(HikariDataSource dataSource, int parallelism, int queueDepth, CategoryTopics topics) {
+    if (parallelism < 1 || queueDepth < 1) {
+      throw new IllegalArgumentException("parallelism and queueDepth must be positive");
+    }
+    this.dataSource = dataSource;
+    this.parallelism = parallelism;
+    this.queueDepth = queueDepth;
+    this.topics = topics;
+  }
+
+  long run(TsvChunks chunks, String dateAdded) throws Exception {
+    List<BlockingQueue<List<Clue>>> writerQueues = new ArrayList<>();
+    for (int i = 0; i < parallelism; i++) {
+      writerQueues.add(new ArrayBlockingQueue<>(queueDepth));
+    }
+
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism * 2);
+    List<Future<?>> tasks = new ArrayList<>();
+    try {
+      AtomicInteger nextChunk = new AtomicInteger();
+      AtomicInteger runningParsers = new AtomicInteger(parallelism);
+      for (int i = 0; i < parallelism; i++) {
+        tasks.add(executor.submit(() -> guard(() -> parse(chunks, nextChunk, writerQueues, runningParsers))));
+      }
+      for (BlockingQueue<List<Clue>> queue : writerQueues) {
+        tasks.add(executor.submit(() -> guard(() -> write(queue, dateAdded))));
+      }
+
+      for (Future<?> task : tasks) {
+        try {
+          task.get();
+        } catch (ExecutionException e) {
+          failure.compareAndSet(null, e.getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Throwable error = failure.get();
+    if (error instanceof Exception e) {
+      throw e;
+    } else if (error != null) {
+      throw new RuntimeException(error);
+    }
+
+    long rows = written.get();
+    double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+    log.info("Load complete. Total rows processed: {} ({} rows/sec across {} writers)",
+        rows, Math.round(rows / seconds), parallelism);
+    log.info("Batch sizing: {}", batching.summary());
+    return rows;
+  }
+
+  /** Claims chunks until none are left, handing the parsed rows to writers in batches. */
+  private void parse(TsvChunks chunks, AtomicInteger nextChunk, List<BlockingQueue<List<Clue>>> writerQueues,
+            AtomicInteger runningParsers) throws Exception {
+    try {
+      List<List<Clue>> partitions = new ArrayList<>(parallelism);
+      for (int i = 0; i < parallelism; i++) {
+        partitions.add(new ArrayList<>(TsvLoader.BATCH_SIZE));
+      }
+      int index;
+      while ((index = nextChunk.getAndIncrement()) < chunks.chunks().size() && failure.get() == null) {
+        chunks.parse(chunks.chunks().get(index),
+            clue -> partitions.get(Math.floorMod(clue.id().hashCode(), parallelism)).add(clue));
+        for (int i = 0; i < parallelism; i++) {
+          if (partitions.get(i).size() >= TsvLoader.BATCH_SIZE) {
+            put(writerQueues.get(i), partitions.get(i));
+            partitions.set(i, new ArrayList<>(TsvLoader.BATCH_SIZE));
+          }
+        }
+      }
+      for (int i = 0; i < parallelism; i++) {
+        if (!partitions.get(i).isEmpty()) {
+          put(writerQueues.get(i), partitions.get(i));
+        }
+      }
+    } finally {
+      if (runningParsers.decrementAndGet() == 0) {
+        for (BlockingQueue<List<Clue>> queue : writerQueues) {
+          put(queue, END_OF_ROWS);
+        }
+      }
+    }
+  }
+
+  private void write(BlockingQueue<List<Clue>> queue, String dateAdded) throws Exception {
+    try (Connection connection = dataSource.getConnection();
+      PreparedStatement ps = connection.prepareStatement(TsvLoader.INSERT_QUERY, TopicStats.INSERTED_ID)) {
+      connection.setAutoCommit(false);
+
+      TsvLoader.Transaction transaction = new TsvLoader.Transaction();
+      List<Clue> pending = new ArrayList<>(TsvLoader.BATCH_SIZE * 2);
+      List<Clue> rows;
+      while ((rows = take(queue)) != END_OF_ROWS && rows != null) {
+        pending.addAll(rows);
+        if (pending.size() >= batching.size()) {
+          flush(connection, ps, pending, dateAdded, transaction);
+        }
+      }
+      if (!pending.isEmpty()) {
+        flush(connection, ps, pending, dateAdded, transaction);
+      }
+      if (rows == END_OF_ROWS) {
+        TsvLoader.commit(connection, topics, statsLock, transaction);
+      }
+    }
+  }
+
+  private void flush(Connection connection, PreparedStatement ps, List<Clue> pending, String dateAdded,
+            TsvLoader.Transaction transaction) throws Exception {
+    TsvLoader.writeBatch(connection, ps, pending, dateAdded, topics, statsLock, batching, transaction);
+    log.info("Inserted {} rows...", written.addAndGet(pending.size()));
+    pending.clear();
+  }
+
+  /** Blocks until the item is queued, giving up once another stage has failed. */
+  private <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+    while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+      if (failure.get() != null) {
+        return;
+      }
+    }
+  }
+
+  /** Waits for the next item, returning {@code null} once another stage has failed. */
+  private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+    T item;
+    while ((item = queue.poll(100, TimeUnit.MILLISECONDS)) == null) {
+      if (failure.get() != null) {
+        return null;
+      }
+    }
+    return item;
+  }
+
+  private interface Stage {
+    void run() throws Exception;
+  }
+
+  /** Records the first failure so that the other stages stop feeding their queues. */
+  private Void guard(Stage stage) throws Exception {
+    try {
+      stage.run();
+      return null;
+    } catch (Exception e) {
+      failure.compareAndSet(null, e);
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,294 @@
+package org.storer.loader;
+
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Dry-run validation of a TSV file. Every chunk is parsed with {@link TsvLoader#parseRecord} on
+ * its own thread, and malformed records are counted by kind instead of aborting the run. Generated
+ * ids are then checked for duplicates across the whole file. Each thread owns one hash partition of
+ * the ids and keeps them in a primitive open-addressing table, so no locks and no {@link UUID}
+ * objects are needed.
+ */
+final class TsvValidator {
+
+  /** Line numbers kept per error kind, and duplicates kept in the report. */
+  static final int SAMPLES = 10;
+
+  record ErrorKind(long count, List<Long> sampleLines) {
+  }
+
+  record Duplicate(UUID id, long firstLine, long line) {
+  }
+
+  record Report(long rows, Map<String, ErrorKind> errors, long duplicateCount, List<Duplicate> duplicates,
+         Map<Round, Long> rounds, SortedMap<Integer, Long> years, long undated, int categories) {
+
+    long errorCount() {
+      return errors.values().stream().mapToLong(ErrorKind::count).sum();
+    }
+
+    /** No malformed records and no duplicate ids. */
+    boolean clean() {
+      return errors.isEmpty() && duplicateCount == 0;
+    }
+
+    String format() {
+      StringBuilder out = new StringBuilder();
+      out.append(rows).append(" valid rows, ").append(errorCount()).append(" malformed, ")
+          .append(duplicateCount).append(" duplicate ids");
+      errors.forEach((kind, error) -> out.append("\n  ").append(kind).append(": ").append(error.count())
+          .append(" (lines ").append(join(error.sampleLines()))
+          .append(error.count() > error.sampleLines().size() ? ", ..." : "").append(')'));
+      for (Duplicate duplicate : duplicates) {
+        out.append("\n  Duplicate id ").append(duplicate.id()).append(" at line ").append(duplicate.line())
+            .append(", first seen at line ").append(duplicate.firstLine());
+      }
+      out.append("\n  Rounds: ").append(join(rounds.entrySet()));
+      out.append("\n  Years: ").append(join(years.entrySet()));
+      if (undated > 0) {
+        out.append("\n  Undated rows: ").append(undated);
+      }
+      return out.append("\n  Distinct categories: ").append(categories).toString();
+    }
+
+    private static String join(Iterable<?> values) {
+      StringBuilder out = new StringBuilder();
+      for (Object value : values) {
+        out.append(out.isEmpty() ? "" : ", ").append(value);
+      }
+      return out.toString();
+    }
+  }
+
+  private TsvValidator() {
+  }
+
+  static Report validate(TsvChunks chunks, int parallelism) throws Exception {
+    List<TsvChunks.Chunk> list = chunks.chunks();
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      List<Callable<ChunkStats>> parses = new ArrayList<>(list.size());
+      for (TsvChunks.Chunk chunk : list) {
+        parses.add(() -> {
+          ChunkStats stats = new ChunkStats();
+          chunks.parse(chunk, stats::add, stats::error);
+          return stats;
+        });
+      }
+      List<ChunkStats> stats = invokeAll(executor, parses);
+
+      List<Callable<List<Duplicate>>> partitions = new ArrayList<>(parallelism);
+      long ids = stats.stream().mapToLong(s -> s.rows).sum();
+      for (int p = 0; p < parallelism; p++) {
+        int partition = p;
+        partitions.add(() -> duplicates(stats, partition, parallelism, ids / parallelism));
+      }
+      List<Duplicate> duplicates = new ArrayList<>();
+      invokeAll(executor, partitions).forEach(duplicates::addAll);
+      return merge(stats, duplicates);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks) throws Exception {
+    List<T> results = new ArrayList<>(tasks.size());
+    for (Future<T> task : executor.invokeAll(tasks)) {
+      try {
+        results.add(task.get());
+      } catch (ExecutionException e) {
+        throw e.getCause() instanceof Exception cause ? cause : e;
+      }
+    }
+    return results;
+  }
+
+  /** Duplicates among the ids in {@code partition}, scanning chunks in file order. */
+  private static List<Duplicate> duplicates(List<ChunkStats> stats, int partition, int partitions,
+                       long expected) {
+    IdTable table = new IdTable(expected);
+    List<Duplicate> duplicates = new ArrayList<>();
+    for (ChunkStats chunk : stats) {
+      long[] ids = chunk.ids;
+      for (int i = 0; i < chunk.rows * 3; i += 3) {
+        long hash = IdTable.mix(ids[i], ids[i + 1]);
+        if ((hash >>> 32) % partitions != partition) {
+          continue;
+        }
+        long firstLine = table.putIfAbsent(ids[i], ids[i + 1], ids[i + 2], hash);
+        if (firstLine != 0) {
+          duplicates.add(new Duplicate(new UUID(ids[i], ids[i + 1]), firstLine, ids[i + 2]));
+        }
+      }
+    }
+    return duplicates;
+  }
+
+  private static Report merge(List<ChunkStats> stats, List<Duplicate> duplicates) {
+    long rows = 0;
+    long undated = 0;
+    long[] rounds = new long[Round.values().length];
+    SortedMap<Integer, Long> years = new TreeMap<>();
+    Set<String> categories = new HashSet<>();
+    Map<String, long[]> errorCounts = new TreeMap<>();
+    Map<String, List<Long>> errorLines = new HashMap<>();
+    for (ChunkStats chunk : stats) {
+      rows += chunk.rows;
+      undated += chunk.undated;
+      for (int r = 0; r < rounds.length; r++) {
+        rounds[r] += chunk.rounds[r];
+      }
+      chunk.years.forEach((year, count) -> years.merge(year, count[0], Long::sum));
+      categories.addAll(chunk.categories);
+      chunk.errorCounts.forEach((kind, count) -> {
+        errorCounts.computeIfAbsent(kind, k -> new long[1])[0] += count[0];
+        List<Long> lines = errorLines.computeIfAbsent(kind, k -> new ArrayList<>());
+        for (long line : chunk.errorLines.get(kind)) {
+          if (lines.size() < SAMPLES) {
+            lines.add(line);
+          }
+        }
+      });
+    }
+
+    Map<String, ErrorKind> errors = new LinkedHashMap<>();
+    errorCounts.forEach((kind, count) -> errors.put(kind, new ErrorKind(count[0], errorLines.get(kind))));
+    Map<Round, Long> roundCounts = new EnumMap<>(Round.class);
+    for (Round round : Round.values()) {
+      roundCounts.put(round, rounds[round.ordinal()]);
+    }
+    duplicates.sort((a, b) -> Long.compare(a.line(), b.line()));
+    return new Report(rows, errors, duplicates.size(), List.copyOf(duplicates.subList(0,
+        Math.min(SAMPLES, duplicates.size()))), roundCounts, years, undated, categories.size());
+  }
+
+  /** The part of a message before its first colon, e.g. {@code Invalid clue_value}. */
+  static String kind(IllegalArgumentException e) {
+    String message = e.getMessage();
+    int colon = message == null ? -1 : message.indexOf(':');
+    return colon > 0 ? message.substring(0, colon) : e.getClass().getSimpleName();
+  }
+
+  /** Everything one chunk contributes to the report. Confined to the thread that parses it. */
+  private static final class ChunkStats {
+
+    long rows;
+    // (most significant bits, least significant bits, line) of each parsed clue's id
+    long[] ids = new long[3 * 1024];
+    final long[] rounds = new long[Round.values().length];
+    final Map<Integer, long[]> years = new HashMap<>();
+    long undated;
+    final Set<String> categories = new HashSet<>();
+    final Map<String, long[]> errorCounts = new HashMap<>();
+    final Map<String, List<Long>> errorLines = new HashMap<>();
+
+    void add(Clue clue, long line) {
+      int i = (int) rows * 3;
+      if (i == ids.length) {
+        ids = Arrays.copyOf(ids, ids.length * 2);
+      }
+      ids[i] = clue.id().getMostSignificantBits();
+      ids[i + 1] = clue.id().getLeastSignificantBits();
+      ids[i + 2] = line;
+      rows++;
+
+      rounds[clue.round().ordinal()]++;
+      if (clue.airDay() == Clue.NO_DATE) {
+        undated++;
+      } else {
+        years.computeIfAbsent(LocalDate.ofEpochDay(clue.airDay()).getYear(), y -> new long[1])[0]++;
+      }
+      categories.add(clue.category());
+    }
+
+    void error(long line, IllegalArgumentException e) {
+      String kind = kind(e);
+      errorCounts.computeIfAbsent(kind, k -> new long[1])[0]++;
+      List<Long> lines = errorLines.computeIfAbsent(kind, k -> new ArrayList<>());
+      if (lines.size() < SAMPLES) {
+        lines.add(line);
+      }
+    }
+  }
+
+  /** Open-addressing map from a 128-bit id to the line it was first seen on; line 0 marks empty. */
+  private static final class IdTable {
+
+    private long[] high;
+    private long[] low;
+    private long[] lines;
+    private int size;
+
+    IdTable(long expected) {
+      int capacity = Integer.highestOneBit((int) Math.min(1 << 29, Math.max(16, expected * 2)) - 1) << 1;
+      high = new long[capacity];
+      low = new long[capacity];
+      lines = new long[capacity];
+    }
+
+    /** Stores the id and returns 0, or returns the line it was stored with before. */
+    long putIfAbsent(long msb, long lsb, long line, long hash) {
+      int mask = lines.length - 1;
+      int i = (int) hash & mask;
+      while (lines[i] != 0) {
+        if (high[i] == msb && low[i] == lsb) {
+          return lines[i];
+        }
+        i = (i + 1) & mask;
+      }
+      high[i] = msb;
+      low[i] = lsb;
+      lines[i] = line;
+      if (++size > lines.length / 2) {
+        grow();
+      }
+      return 0;
+    }
+
+    private void grow() {
+      long[] oldHigh = high;
+      long[] oldLow = low;
+      long[] oldLines = lines;
+      high = new long[oldLines.length * 2];
+      low = new long[oldLines.length * 2];
+      lines = new long[oldLines.length * 2];
+      int mask = lines.length - 1;
+      for (int j = 0; j < oldLines.length; j++) {
+        if (oldLines[j] != 0) {
+          int i = (int) mix(oldHigh[j], oldLow[j]) & mask;
+          while (lines[i] != 0) {
+            i = (i + 1) & mask;
+          }
+          high[i] = oldHigh[j];
+          low[i] = oldLow[j];
+          lines[i] = oldLines[j];
+        }
+      }
+    }
+
+    static long mix(long msb, long lsb) {
+      long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+      return h ^ (h >>> 29);
+    }
+  }
+}
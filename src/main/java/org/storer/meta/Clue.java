@@ -1,13 +1,63 @@
 package org.storer.meta;
 
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One clue. Value and air date are kept as primitives ({@code value} in dollars, {@code airDay}
+ * as an epoch day) and category names are interned, since bulk loads hold many clues at once.
+ */
 public record Clue(
+    UUID id,
     String category,
-    String round,
+    Round round,
     int categoryNumber,
-    String clueValue,
+    int value,
     String question,
     String answer,
     boolean isDailyDouble,
     int gameId,
-    String gameDate
-) {}
+    int airDay
+) {
+
+  /** {@link #airDay()} of a clue whose air date is unknown. */
+  public static final int NO_DATE = Integer.MIN_VALUE;
+
+  /** {@link #value()} of a clue whose value is unknown, e.g. an unparsed legacy row. */
+  public static final int NO_VALUE = Integer.MIN_VALUE;
+
+  public Clue {
+    if (category != null) {
+      category = category.intern();
+    }
+  }
+
+  /** The value as stored in {@code clue_value}, e.g. {@code $800}, or an empty string if unknown. */
+  public String clueValue() {
+    return value == NO_VALUE ? "" : "$" + value;
+  }
+
+  /** The ISO air date as stored in {@code game_date}, or an empty string if unknown. */
+  public String gameDate() {
+    return airDay == NO_DATE ? "" : LocalDate.ofEpochDay(airDay).toString();
+  }
+
+  /** Air date for the {@code air_date} column, or {@code null} if unknown. */
+  public LocalDate airDate() {
+    return airDay == NO_DATE ? null : LocalDate.ofEpochDay(airDay);
+  }
+
+  /** Parses a board value such as {@code $1,000} or {@code 1000}. */
+  public static int parseValue(String text) {
+    String digits = text.trim();
+    if (digits.startsWith("$")) {
+      digits = digits.substring(1);
+    }
+    return Integer.parseInt(digits.replace(",", ""));
+  }
+
+  /** Parses an ISO date into an epoch day, mapping an empty string to {@link #NO_DATE}. */
+  public static int parseDate(String isoDate) {
+    return isoDate.isEmpty() ? NO_DATE : Math.toIntExact(LocalDate.parse(isoDate).toEpochDay());
+  }
+}
@@ -0,0 +1,19 @@
+package org.storer.meta;
+
+/** Board rounds, named after the codes stored in {@code clues_java.round}. */
+public enum Round {
+  J,
+  DJ,
+  FJ;
+
+  private static final Round[] VALUES = values();
+
+  public static Round of(String code) {
+    for (Round round : VALUES) {
+      if (round.name().equals(code)) {
+        return round;
+      }
+    }
+    throw new IllegalArgumentException("Unknown round: " + code);
+  }
+}
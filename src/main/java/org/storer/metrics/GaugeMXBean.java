@@ -0,0 +1,7 @@
+package org.storer.metrics;
+
+/** JMX view of a gauge, registered as {@code org.storer:type=Gauge,name=...}. */
+public interface GaugeMXBean {
+
+  long getValue();
+}
@@ -0,0 +1,57 @@
+package org.storer.metrics;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HikariCP metrics hook: records connection wait and usage times as {@code db.pool.wait} and
+ * {@code db.pool.usage} timers, timeouts as {@code db.pool.timeouts}, and publishes the pool's
+ * active, idle, pending and total connection counts as gauges.
+ */
+public final class HikariMetrics implements MetricsTrackerFactory {
+
+  private static final HikariMetrics INSTANCE = new HikariMetrics();
+
+  private HikariMetrics() {
+  }
+
+  /** Installs the tracker; it records nothing unless {@link Metrics} is started. */
+  public static void install(HikariConfig config) {
+    config.setMetricsTrackerFactory(INSTANCE);
+  }
+
+  @Override
+  public IMetricsTracker create(String poolName, PoolStats poolStats) {
+    Metrics.gauge("db.pool.active", poolStats::getActiveConnections);
+    Metrics.gauge("db.pool.idle", poolStats::getIdleConnections);
+    Metrics.gauge("db.pool.pending", poolStats::getPendingThreads);
+    Metrics.gauge("db.pool.total", poolStats::getTotalConnections);
+    return new Tracker();
+  }
+
+  private static final class Tracker implements IMetricsTracker {
+
+    private final Histogram wait = Metrics.timer("db.pool.wait");
+    private final Histogram usage = Metrics.timer("db.pool.usage");
+    private final Histogram timeouts = Metrics.distribution("db.pool.timeouts");
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+      wait.record(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+      usage.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+      timeouts.record(1);
+    }
+  }
+}
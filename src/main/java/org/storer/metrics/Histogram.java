@@ -0,0 +1,150 @@
+package org.storer.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values in log-linear buckets: exact below 16, then eight
+ * buckets per power of two, so percentiles are within about 6% of the true value. Recording does
+ * nothing while {@link Metrics} is disabled.
+ */
+public final class Histogram implements HistogramMXBean {
+
+  /** How values are reported: durations in nanoseconds, or plain counts. */
+  public enum Unit { NANOS, COUNT }
+
+  private static final int SUB_BUCKETS = 8;
+  private static final int LINEAR = 16;
+  private static final int BUCKETS = LINEAR + (63 - 4) * SUB_BUCKETS;
+
+  private final String name;
+  private final Unit unit;
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  Histogram(String name, Unit unit) {
+    this.name = name;
+    this.unit = unit;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public Unit unit() {
+    return unit;
+  }
+
+  public void record(long value) {
+    if (!Metrics.enabled()) {
+      return;
+    }
+    value = Math.max(value, 0);
+    buckets.incrementAndGet(bucket(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  /** Records the time since {@code startNanos}, as returned by {@link Metrics#startTimer()}. */
+  public void recordSince(long startNanos) {
+    if (startNanos != 0) {
+      record(System.nanoTime() - startNanos);
+    }
+  }
+
+  static int bucket(long value) {
+    if (value < LINEAR) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+    return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+  }
+
+  /** Midpoint of the values that fall into {@code bucket}. */
+  static long bucketValue(int bucket) {
+    if (bucket < LINEAR) {
+      return bucket;
+    }
+    int exponent = (bucket - LINEAR) / SUB_BUCKETS + 4;
+    int sub = (bucket - LINEAR) % SUB_BUCKETS;
+    long width = 1L << (exponent - 3);
+    return (SUB_BUCKETS + sub) * width + width / 2;
+  }
+
+  /** Approximate value at quantile {@code q} (0 to 1), or 0 if nothing was recorded. */
+  public long percentile(double q) {
+    long total = 0;
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(q * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(bucketValue(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.reset();
+  }
+
+  @Override
+  public String getUnit() {
+    return unit.name();
+  }
+
+  @Override
+  public long getCount() {
+    return count.sum();
+  }
+
+  @Override
+  public long getSum() {
+    return sum.sum();
+  }
+
+  @Override
+  public double getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : (double) sum.sum() / n;
+  }
+
+  @Override
+  public long getMax() {
+    return max.get();
+  }
+
+  @Override
+  public long getP50() {
+    return percentile(0.50);
+  }
+
+  @Override
+  public long getP90() {
+    return percentile(0.90);
+  }
+
+  @Override
+  public long getP99() {
+    return percentile(0.99);
+  }
+}
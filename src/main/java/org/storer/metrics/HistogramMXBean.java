@@ -0,0 +1,21 @@
+package org.storer.metrics;
+
+/** JMX view of a {@link Histogram}, registered as {@code org.storer:type=Histogram,name=...}. */
+public interface HistogramMXBean {
+
+  String getUnit();
+
+  long getCount();
+
+  long getSum();
+
+  double getMean();
+
+  long getMax();
+
+  long getP50();
+
+  long getP90();
+
+  long getP99();
+}
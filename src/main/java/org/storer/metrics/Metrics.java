@@ -0,0 +1,215 @@
+package org.storer.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of {@link Histogram}s and gauges. Metrics are off by default: until
+ * {@link #start} is called, timers return 0 and {@link Histogram#record} returns after one
+ * volatile read. Once started, every metric is also published over JMX under {@code org.storer}.
+ */
+public final class Metrics {
+
+  private static final Logger log = LoggerFactory.getLogger(Metrics.class);
+
+  /** How often the command-line tools log a summary while {@code --metrics} is on. */
+  public static final Duration REPORT_INTERVAL = Duration.ofSeconds(30);
+
+  private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+  private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+  private static volatile boolean enabled;
+
+  private Metrics() {
+  }
+
+  public static boolean enabled() {
+    return enabled;
+  }
+
+  /** Histogram of durations in nanoseconds. */
+  public static Histogram timer(String name) {
+    return histogram(name, Histogram.Unit.NANOS);
+  }
+
+  /** Histogram of plain values such as rows per batch. */
+  public static Histogram distribution(String name) {
+    return histogram(name, Histogram.Unit.COUNT);
+  }
+
+  private static Histogram histogram(String name, Histogram.Unit unit) {
+    Histogram histogram = histograms.get(name);
+    if (histogram != null) {
+      return histogram;
+    }
+    return histograms.computeIfAbsent(name, n -> {
+      Histogram created = new Histogram(n, unit);
+      if (enabled) {
+        register("Histogram", n, created);
+      }
+      return created;
+    });
+  }
+
+  /** Publishes a value that is read on demand, replacing any gauge with the same name. */
+  public static void gauge(String name, LongSupplier value) {
+    if (gauges.put(name, value) == null && enabled) {
+      registerGauge(name);
+    }
+  }
+
+  /** {@link System#nanoTime()}, or 0 while disabled so that {@link Histogram#recordSince} skips. */
+  public static long startTimer() {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Turns metrics on, registers them with JMX and logs a summary every {@code reportEvery}. Closing
+   * the returned reporter logs a final summary and, if {@code jsonFile} is not null, writes every
+   * metric to it.
+   */
+  public static Reporter start(Path jsonFile, Duration reportEvery) {
+    enabled = true;
+    histograms.forEach((name, histogram) -> register("Histogram", name, histogram));
+    gauges.keySet().forEach(Metrics::registerGauge);
+    return new Reporter(jsonFile, reportEvery);
+  }
+
+  /** Periodic summary logger returned by {@link #start}. */
+  public static final class Reporter implements AutoCloseable {
+
+    private final Path jsonFile;
+    private final ScheduledExecutorService scheduler;
+
+    private Reporter(Path jsonFile, Duration reportEvery) {
+      this.jsonFile = jsonFile;
+      this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "metrics-reporter");
+        thread.setDaemon(true);
+        return thread;
+      });
+      long millis = reportEvery.toMillis();
+      scheduler.scheduleAtFixedRate(() -> log.info("Metrics: {}", summary()), millis, millis,
+          TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+      scheduler.shutdownNow();
+      log.info("Metrics: {}", summary());
+      if (jsonFile != null) {
+        try {
+          Files.writeString(jsonFile, toJson());
+          log.info("Wrote metrics to {}", jsonFile);
+        } catch (IOException e) {
+          log.error("Failed to write metrics to {}", jsonFile, e);
+        }
+      }
+    }
+  }
+
+  /** One line with count, mean, p50, p99 and max of each recorded histogram, then each gauge. */
+  public static String summary() {
+    StringBuilder out = new StringBuilder();
+    for (Histogram h : new TreeMap<>(histograms).values()) {
+      if (h.getCount() == 0) {
+        continue;
+      }
+      if (!out.isEmpty()) {
+        out.append("; ");
+      }
+      out.append(h.name()).append(" n=").append(h.getCount())
+          .append(" mean=").append(format(h, Math.round(h.getMean())))
+          .append(" p50=").append(format(h, h.getP50()))
+          .append(" p99=").append(format(h, h.getP99()))
+          .append(" max=").append(format(h, h.getMax()));
+    }
+    for (Map.Entry<String, LongSupplier> gauge : new TreeMap<>(gauges).entrySet()) {
+      if (!out.isEmpty()) {
+        out.append("; ");
+      }
+      out.append(gauge.getKey()).append('=').append(gauge.getValue().getAsLong());
+    }
+    return out.isEmpty() ? "(none recorded)" : out.toString();
+  }
+
+  private static String format(Histogram histogram, long value) {
+    if (histogram.unit() == Histogram.Unit.COUNT) {
+      return Long.toString(value);
+    }
+    return String.format(Locale.ROOT, "%.2fms", value / 1e6);
+  }
+
+  /** Every metric as a JSON object; histogram values are in the histogram's unit. */
+  public static String toJson() {
+    StringBuilder out = new StringBuilder(1024);
+    out.append("{\n  \"generatedAt\": \"").append(Instant.now()).append("\",\n  \"histograms\": {");
+    String separator = "\n";
+    for (Histogram h : new TreeMap<>(histograms).values()) {
+      out.append(separator).append("    ").append(quote(h.name())).append(": {")
+          .append("\"unit\": \"").append(h.getUnit().toLowerCase(Locale.ROOT)).append('"')
+          .append(", \"count\": ").append(h.getCount())
+          .append(", \"sum\": ").append(h.getSum())
+          .append(", \"mean\": ").append(h.getMean())
+          .append(", \"p50\": ").append(h.getP50())
+          .append(", \"p90\": ").append(h.getP90())
+          .append(", \"p99\": ").append(h.getP99())
+          .append(", \"max\": ").append(h.getMax()).append('}');
+      separator = ",\n";
+    }
+    out.append("\n  },\n  \"gauges\": {");
+    separator = "\n";
+    for (Map.Entry<String, LongSupplier> gauge : new TreeMap<>(gauges).entrySet()) {
+      out.append(separator).append("    ").append(quote(gauge.getKey())).append(": ")
+          .append(gauge.getValue().getAsLong());
+      separator = ",\n";
+    }
+    return out.append("\n  }\n}\n").toString();
+  }
+
+  private static String quote(String value) {
+    return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+  }
+
+  private static void registerGauge(String name) {
+    GaugeMXBean gauge = () -> gauges.get(name).getAsLong();
+    register("Gauge", name, new StandardMBean(gauge, GaugeMXBean.class, true));
+  }
+
+  private static void register(String type, String name, Object bean) {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.registerMBean(bean,
+          new ObjectName("org.storer:type=" + type + ",name=" + ObjectName.quote(name)));
+    } catch (InstanceAlreadyExistsException e) {
+      log.debug("{} {} is already registered", type, name);
+    } catch (JMException e) {
+      log.warn("Failed to register {} {} with JMX", type, name, e);
+    }
+  }
+
+  /** Disables metrics and clears recorded values; for tests. */
+  static void reset() {
+    enabled = false;
+    histograms.values().forEach(Histogram::reset);
+  }
+}
@@ -0,0 +1,326 @@
+package org.storer.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable inverted index over clue questions and answers, built by {@link IndexBuilder}.
+ * Postings are delta- and varint-encoded in one blob and decoded per query term; queries follow
+ * {@link Query} syntax and hits are ranked with BM25.
+ */
+public final class ClueIndex {
+
+  private static final int MAGIC = 0x434C4958; // "CLIX"
+  private static final int VERSION = 1;
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+
+  public record Hit(int doc, UUID id, double score) {}
+
+  private static final Comparator<Hit> BEST_FIRST =
+      Comparator.comparingDouble(Hit::score).reversed().thenComparingInt(Hit::doc);
+
+  private final String[] terms;
+  private final int[] docFreqs;
+  private final int[] offsets;
+  private final byte[] postings;
+  private final long[] idMsb;
+  private final long[] idLsb;
+  private final int[] docLengths;
+  private final Map<String, Integer> termIds;
+  private final double averageLength;
+
+  ClueIndex(String[] terms, int[] docFreqs, int[] offsets, byte[] postings,
+      long[] idMsb, long[] idLsb, int[] docLengths) {
+    this.terms = terms;
+    this.docFreqs = docFreqs;
+    this.offsets = offsets;
+    this.postings = postings;
+    this.idMsb = idMsb;
+    this.idLsb = idLsb;
+    this.docLengths = docLengths;
+    this.termIds = new HashMap<>(terms.length * 2);
+    for (int i = 0; i < terms.length; i++) {
+      termIds.put(terms[i], i);
+    }
+    long totalLength = 0;
+    for (int length : docLengths) {
+      totalLength += length;
+    }
+    this.averageLength = docLengths.length == 0 ? 0 : (double) totalLength / docLengths.length;
+  }
+
+  public int docCount() {
+    return docLengths.length;
+  }
+
+  public int termCount() {
+    return terms.length;
+  }
+
+  public int docFreq(String term) {
+    Integer id = termIds.get(term);
+    return id == null ? 0 : docFreqs[id];
+  }
+
+  public UUID id(int doc) {
+    return new UUID(idMsb[doc], idLsb[doc]);
+  }
+
+  /** Decoded postings of one term: parallel doc and frequency arrays plus flattened positions. */
+  private record Postings(int[] docs, int[] freqs, int[] positionStarts, int[] positions) {
+
+    static final Postings EMPTY = new Postings(new int[0], new int[0], new int[1], new int[0]);
+
+    int find(int doc) {
+      return Arrays.binarySearch(docs, doc);
+    }
+  }
+
+  private Postings postings(String term) {
+    Integer id = termIds.get(term);
+    if (id == null) {
+      return Postings.EMPTY;
+    }
+    int count = docFreqs[id];
+    int[] docs = new int[count];
+    int[] freqs = new int[count];
+    int[] positionStarts = new int[count + 1];
+    int[] positions = new int[Math.max(count * 2, 8)];
+    int positionCount = 0;
+
+    int[] cursor = {offsets[id]};
+    int doc = 0;
+    for (int i = 0; i < count; i++) {
+      doc += readVarInt(cursor);
+      int freq = readVarInt(cursor);
+      docs[i] = doc;
+      freqs[i] = freq;
+      positionStarts[i] = positionCount;
+      if (positionCount + freq > positions.length) {
+        positions = Arrays.copyOf(positions, Math.max(positions.length * 2, positionCount + freq));
+      }
+      int position = 0;
+      for (int j = 0; j < freq; j++) {
+        position += readVarInt(cursor);
+        positions[positionCount++] = position;
+      }
+    }
+    positionStarts[count] = positionCount;
+    return new Postings(docs, freqs, positionStarts, positions);
+  }
+
+  private int readVarInt(int[] cursor) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = postings[cursor[0]++];
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return value;
+  }
+
+  /** Top {@code limit} hits for {@code query}, best first. */
+  public List<Hit> search(String query, int limit) {
+    Query parsed = Query.parse(query);
+    Map<String, Postings> cache = new HashMap<>();
+    Map<Integer, Double> scores = new HashMap<>();
+
+    for (Query.Conjunction conjunction : parsed.alternatives()) {
+      int[] candidates = null;
+      for (List<String> clause : conjunction.required()) {
+        int[] matches = matches(clause, cache);
+        candidates = candidates == null ? matches : intersect(candidates, matches);
+        if (candidates.length == 0) {
+          break;
+        }
+      }
+      if (candidates == null || candidates.length == 0) {
+        continue;
+      }
+      for (List<String> clause : conjunction.excluded()) {
+        candidates = subtract(candidates, matches(clause, cache));
+      }
+
+      Set<String> scoredTerms = new LinkedHashSet<>();
+      conjunction.required().forEach(scoredTerms::addAll);
+      for (int doc : candidates) {
+        double score = 0;
+        for (String term : scoredTerms) {
+          score += bm25(cache.get(term), doc);
+        }
+        scores.merge(doc, score, Math::max);
+      }
+    }
+
+    PriorityQueue<Hit> top = new PriorityQueue<>(BEST_FIRST.reversed());
+    for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+      top.add(new Hit(entry.getKey(), id(entry.getKey()), entry.getValue()));
+      if (top.size() > limit) {
+        top.poll();
+      }
+    }
+    List<Hit> hits = new ArrayList<>(top);
+    hits.sort(BEST_FIRST);
+    return hits;
+  }
+
+  /** Sorted docs containing the clause; for phrases, with the terms at consecutive positions. */
+  private int[] matches(List<String> clause, Map<String, Postings> cache) {
+    List<Postings> lists = new ArrayList<>(clause.size());
+    for (String term : clause) {
+      lists.add(cache.computeIfAbsent(term, this::postings));
+    }
+    int[] docs = lists.getFirst().docs();
+    for (int i = 1; i < lists.size(); i++) {
+      docs = intersect(docs, lists.get(i).docs());
+    }
+    if (clause.size() == 1) {
+      return docs;
+    }
+
+    int[] phraseDocs = new int[docs.length];
+    int count = 0;
+    for (int doc : docs) {
+      if (hasPhrase(lists, doc)) {
+        phraseDocs[count++] = doc;
+      }
+    }
+    return Arrays.copyOf(phraseDocs, count);
+  }
+
+  private static boolean hasPhrase(List<Postings> lists, int doc) {
+    Postings first = lists.getFirst();
+    int index = first.find(doc);
+    for (int p = first.positionStarts()[index]; p < first.positionStarts()[index + 1]; p++) {
+      int start = first.positions()[p];
+      boolean match = true;
+      for (int i = 1; i < lists.size() && match; i++) {
+        Postings next = lists.get(i);
+        int at = next.find(doc);
+        match = Arrays.binarySearch(next.positions(), next.positionStarts()[at],
+            next.positionStarts()[at + 1], start + i) >= 0;
+      }
+      if (match) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private double bm25(Postings postings, int doc) {
+    int index = postings.find(doc);
+    if (index < 0) {
+      return 0;
+    }
+    double df = postings.docs().length;
+    double idf = Math.log(1 + (docCount() - df + 0.5) / (df + 0.5));
+    double tf = postings.freqs()[index];
+    double norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+    return idf * tf * (K1 + 1) / (tf + norm);
+  }
+
+  private static int[] intersect(int[] a, int[] b) {
+    int[] out = new int[Math.min(a.length, b.length)];
+    int i = 0;
+    int j = 0;
+    int count = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        i++;
+      } else if (a[i] > b[j]) {
+        j++;
+      } else {
+        out[count++] = a[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(out, count);
+  }
+
+  private static int[] subtract(int[] a, int[] b) {
+    int[] out = new int[a.length];
+    int j = 0;
+    int count = 0;
+    for (int doc : a) {
+      while (j < b.length && b[j] < doc) {
+        j++;
+      }
+      if (j == b.length || b[j] != doc) {
+        out[count++] = doc;
+      }
+    }
+    return Arrays.copyOf(out, count);
+  }
+
+  public void save(Path file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(docLengths.length);
+      for (int doc = 0; doc < docLengths.length; doc++) {
+        out.writeLong(idMsb[doc]);
+        out.writeLong(idLsb[doc]);
+        out.writeInt(docLengths[doc]);
+      }
+      out.writeInt(terms.length);
+      for (int i = 0; i < terms.length; i++) {
+        out.writeUTF(terms[i]);
+        out.writeInt(docFreqs[i]);
+        out.writeInt(offsets[i]);
+      }
+      out.writeInt(offsets[terms.length]);
+      out.write(postings, 0, offsets[terms.length]);
+    }
+  }
+
+  public static ClueIndex load(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a version " + VERSION + " clue index: " + file);
+      }
+      int docs = in.readInt();
+      long[] idMsb = new long[docs];
+      long[] idLsb = new long[docs];
+      int[] docLengths = new int[docs];
+      for (int doc = 0; doc < docs; doc++) {
+        idMsb[doc] = in.readLong();
+        idLsb[doc] = in.readLong();
+        docLengths[doc] = in.readInt();
+      }
+      int termCount = in.readInt();
+      String[] terms = new String[termCount];
+      int[] docFreqs = new int[termCount];
+      int[] offsets = new int[termCount + 1];
+      for (int i = 0; i < termCount; i++) {
+        terms[i] = in.readUTF();
+        docFreqs[i] = in.readInt();
+        offsets[i] = in.readInt();
+      }
+      offsets[termCount] = in.readInt();
+      byte[] blob = new byte[offsets[termCount]];
+      in.readFully(blob);
+      return new ClueIndex(terms, docFreqs, offsets, blob, idMsb, idLsb, docLengths);
+    }
+  }
+}
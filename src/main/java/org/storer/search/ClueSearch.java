@@ -0,0 +1,76 @@
+package org.storer.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.storer.snapshot.ClueView;
+import org.storer.snapshot.Snapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Command-line entry point for the full-text index. {@code build} indexes every clue in a
+ * {@link Snapshot}; {@code query} loads an index and prints the best matches.
+ */
+public class ClueSearch {
+
+  private static final Logger log = LoggerFactory.getLogger(ClueSearch.class);
+  private static final int DEFAULT_LIMIT = 20;
+
+  private static final String USAGE = """
+      Usage:
+        ClueSearch build <snapshot-file> <index-file>
+        ClueSearch query <index-file> <query> [limit]""";
+
+  public static void main(String[] args) {
+    if (args.length >= 3 && args[0].equals("build")) {
+      buildMain(Path.of(args[1]), Path.of(args[2]));
+    } else if (args.length >= 3 && args[0].equals("query")) {
+      int limit = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_LIMIT;
+      queryMain(Path.of(args[1]), args[2], limit);
+    } else {
+      System.err.println(USAGE);
+      System.exit(1);
+    }
+  }
+
+  private static void buildMain(Path snapshotFile, Path indexFile) {
+    try (Snapshot snapshot = Snapshot.open(snapshotFile)) {
+      long start = System.nanoTime();
+      ClueIndex index = build(snapshot);
+      index.save(indexFile);
+      log.info("Indexed {} clues ({} terms) into {} in {} ms", index.docCount(), index.termCount(),
+          indexFile, (System.nanoTime() - start) / 1_000_000);
+    } catch (IOException e) {
+      log.error("Failed to build index from {}", snapshotFile, e);
+      System.exit(1);
+    }
+  }
+
+  private static void queryMain(Path indexFile, String query, int limit) {
+    try {
+      ClueIndex index = ClueIndex.load(indexFile);
+      long start = System.nanoTime();
+      List<ClueIndex.Hit> hits = index.search(query, limit);
+      long micros = (System.nanoTime() - start) / 1_000;
+      for (ClueIndex.Hit hit : hits) {
+        System.out.printf("%.3f\t%s%n", hit.score(), hit.id());
+      }
+      log.info("{} hits for '{}' in {} µs", hits.size(), query, micros);
+    } catch (IOException e) {
+      log.error("Failed to load index {}", indexFile, e);
+      System.exit(1);
+    }
+  }
+
+  /** Indexes every row of {@code snapshot}; doc ids match snapshot row numbers. */
+  public static ClueIndex build(Snapshot snapshot) {
+    IndexBuilder builder = new IndexBuilder();
+    for (int row = 0; row < snapshot.size(); row++) {
+      ClueView view = snapshot.get(row);
+      builder.add(view.id(), view.question(), view.answer());
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,133 @@
+package org.storer.search;
+
+import org.storer.meta.Clue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Accumulates postings for {@link ClueIndex}. Documents get dense ids in the order they are
+ * added. Each term's postings are appended to its own varint buffer as
+ * {@code docDelta, freq, positionDelta...}; answer positions start {@link #ANSWER_GAP} past the
+ * question so that phrases never span the two fields.
+ */
+public final class IndexBuilder {
+
+  static final int ANSWER_GAP = 16;
+
+  private final Map<String, TermPostings> terms = new HashMap<>();
+  private long[] idMsb = new long[1024];
+  private long[] idLsb = new long[1024];
+  private int[] docLengths = new int[1024];
+  private int docs;
+
+  /** Per-term postings buffer. */
+  private static final class TermPostings {
+    byte[] bytes = new byte[16];
+    int length;
+    int lastDoc;
+    int docFreq;
+
+    void writeVarInt(int value) {
+      if (length + 5 > bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+      while ((value & ~0x7F) != 0) {
+        bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[length++] = (byte) value;
+    }
+  }
+
+  public int add(Clue clue) {
+    return add(clue.id(), clue.question(), clue.answer());
+  }
+
+  public int add(UUID id, String question, String answer) {
+    if (docs == idMsb.length) {
+      int size = docs * 2;
+      idMsb = Arrays.copyOf(idMsb, size);
+      idLsb = Arrays.copyOf(idLsb, size);
+      docLengths = Arrays.copyOf(docLengths, size);
+    }
+    int doc = docs++;
+    idMsb[doc] = id.getMostSignificantBits();
+    idLsb[doc] = id.getLeastSignificantBits();
+
+    List<String> questionTokens = Tokenizer.tokens(question);
+    List<String> answerTokens = Tokenizer.tokens(answer);
+    docLengths[doc] = questionTokens.size() + answerTokens.size();
+
+    // Positions per term within this document, in increasing order
+    Map<String, int[]> positions = new HashMap<>();
+    addPositions(positions, questionTokens, 0);
+    addPositions(positions, answerTokens, questionTokens.size() + ANSWER_GAP);
+
+    for (Map.Entry<String, int[]> entry : positions.entrySet()) {
+      TermPostings postings = terms.computeIfAbsent(entry.getKey(), k -> new TermPostings());
+      int[] termPositions = entry.getValue();
+      int freq = termPositions[0];
+      postings.writeVarInt(doc - postings.lastDoc);
+      postings.writeVarInt(freq);
+      int last = 0;
+      for (int i = 1; i <= freq; i++) {
+        postings.writeVarInt(termPositions[i] - last);
+        last = termPositions[i];
+      }
+      postings.lastDoc = doc;
+      postings.docFreq++;
+    }
+    return doc;
+  }
+
+  /** Appends positions as {@code [count, p1, p2, ...]} arrays keyed by term. */
+  private static void addPositions(Map<String, int[]> positions, List<String> tokens, int base) {
+    for (int i = 0; i < tokens.size(); i++) {
+      int[] list = positions.get(tokens.get(i));
+      if (list == null) {
+        list = new int[4];
+      } else if (list[0] + 1 == list.length) {
+        list = Arrays.copyOf(list, list.length * 2);
+      }
+      list[++list[0]] = base + i;
+      positions.put(tokens.get(i), list);
+    }
+  }
+
+  public int size() {
+    return docs;
+  }
+
+  public ClueIndex build() {
+    String[] sortedTerms = terms.keySet().toArray(new String[0]);
+    Arrays.sort(sortedTerms);
+
+    long total = 0;
+    for (TermPostings postings : terms.values()) {
+      total += postings.length;
+    }
+    if (total > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Postings exceed 2 GB");
+    }
+
+    byte[] blob = new byte[(int) total];
+    int[] docFreqs = new int[sortedTerms.length];
+    int[] offsets = new int[sortedTerms.length + 1];
+    int offset = 0;
+    for (int i = 0; i < sortedTerms.length; i++) {
+      TermPostings postings = terms.get(sortedTerms[i]);
+      System.arraycopy(postings.bytes, 0, blob, offset, postings.length);
+      docFreqs[i] = postings.docFreq;
+      offsets[i] = offset;
+      offset += postings.length;
+    }
+    offsets[sortedTerms.length] = offset;
+
+    return new ClueIndex(sortedTerms, docFreqs, offsets, blob,
+        Arrays.copyOf(idMsb, docs), Arrays.copyOf(idLsb, docs), Arrays.copyOf(docLengths, docs));
+  }
+}
@@ -0,0 +1,69 @@
+package org.storer.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed search query. Terms and {@code "quoted phrases"} are combined with AND, {@code OR}
+ * separates alternatives and a leading {@code -} excludes a term or phrase, so
+ * {@code truman "new deal" -roosevelt OR eisenhower} is
+ * {@code (truman AND "new deal" AND NOT roosevelt) OR eisenhower}.
+ */
+record Query(List<Conjunction> alternatives) {
+
+  /** Clauses that must all match; each clause is a phrase, a single term being a phrase of one. */
+  record Conjunction(List<List<String>> required, List<List<String>> excluded) {}
+
+  static Query parse(String text) {
+    List<Conjunction> alternatives = new ArrayList<>();
+    List<List<String>> required = new ArrayList<>();
+    List<List<String>> excluded = new ArrayList<>();
+
+    int i = 0;
+    while (i < text.length()) {
+      char c = text.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+        continue;
+      }
+      boolean negate = c == '-';
+      if (negate) {
+        i++;
+      }
+      int end;
+      String clause;
+      if (i < text.length() && text.charAt(i) == '"') {
+        end = text.indexOf('"', i + 1);
+        if (end < 0) {
+          end = text.length();
+        }
+        clause = text.substring(i + 1, end);
+        end = Math.min(end + 1, text.length());
+      } else {
+        end = i;
+        while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+          end++;
+        }
+        clause = text.substring(i, end);
+      }
+      i = end;
+
+      if (!negate && clause.equals("OR")) {
+        if (!required.isEmpty()) {
+          alternatives.add(new Conjunction(required, excluded));
+        }
+        required = new ArrayList<>();
+        excluded = new ArrayList<>();
+        continue;
+      }
+      List<String> terms = Tokenizer.tokens(clause);
+      if (!terms.isEmpty()) {
+        (negate ? excluded : required).add(terms);
+      }
+    }
+    if (!required.isEmpty()) {
+      alternatives.add(new Conjunction(required, excluded));
+    }
+    return new Query(alternatives);
+  }
+}
@@ -0,0 +1,50 @@
+package org.storer.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into lowercase terms on anything that is not a letter or digit, folding accents
+ * so that {@code Café} and {@code cafe} index to the same term. Shared with the clustering
+ * vectorizer so that both see the same terms.
+ */
+public final class Tokenizer {
+
+  private Tokenizer() {
+  }
+
+  public static List<String> tokens(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null || text.isEmpty()) {
+      return tokens;
+    }
+    String folded = fold(text);
+    int start = -1;
+    for (int i = 0; i < folded.length(); i++) {
+      if (Character.isLetterOrDigit(folded.charAt(i))) {
+        if (start < 0) {
+          start = i;
+        }
+      } else if (start >= 0) {
+        tokens.add(folded.substring(start, i));
+        start = -1;
+      }
+    }
+    if (start >= 0) {
+      tokens.add(folded.substring(start));
+    }
+    return tokens;
+  }
+
+  private static String fold(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) > 0x7F) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}+", "").toLowerCase(Locale.ROOT);
+      }
+    }
+    return text.toLowerCase(Locale.ROOT);
+  }
+}
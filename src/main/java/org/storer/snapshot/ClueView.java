@@ -0,0 +1,81 @@
+package org.storer.snapshot;
+
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+
+import java.util.UUID;
+
+/** One row of a {@link Snapshot}; every accessor reads straight from the mapped file. */
+public final class ClueView {
+
+  private final Snapshot snapshot;
+  private final int row;
+
+  ClueView(Snapshot snapshot, int row) {
+    this.snapshot = snapshot;
+    this.row = row;
+  }
+
+  public int row() {
+    return row;
+  }
+
+  public UUID id() {
+    return snapshot.id(row);
+  }
+
+  public String category() {
+    return snapshot.category(snapshot.categoryIndex(row));
+  }
+
+  public int categoryIndex() {
+    return snapshot.categoryIndex(row);
+  }
+
+  /** The canonical topic, or {@code null} if the category is not mapped. */
+  public String topic() {
+    int index = snapshot.topicIndex(row);
+    return index < 0 ? null : snapshot.topic(index);
+  }
+
+  /** Index into the snapshot's topic dictionary, or -1 if the category is not mapped. */
+  public int topicIndex() {
+    return snapshot.topicIndex(row);
+  }
+
+  public Round round() {
+    return snapshot.round(row);
+  }
+
+  public int categoryNumber() {
+    return snapshot.categoryNumber(row);
+  }
+
+  public int value() {
+    return snapshot.value(row);
+  }
+
+  public String question() {
+    return snapshot.question(row);
+  }
+
+  public String answer() {
+    return snapshot.answer(row);
+  }
+
+  public boolean isDailyDouble() {
+    return snapshot.isDailyDouble(row);
+  }
+
+  public int gameId() {
+    return snapshot.gameId(row);
+  }
+
+  public int airDay() {
+    return snapshot.airDay(row);
+  }
+
+  public Clue toClue() {
+    return snapshot.clue(row);
+  }
+}
@@ -0,0 +1,203 @@
+package org.storer.snapshot;
+
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+import static org.storer.snapshot.SnapshotFormat.*;
+
+/**
+ * Read-only, memory-mapped view of a file written by {@link SnapshotWriter}. Opening only maps
+ * the file and slices its sections; row data is decoded on access, and category and topic
+ * names are decoded once each and cached.
+ */
+public final class Snapshot implements Closeable {
+
+  private static final Round[] ROUNDS = Round.values();
+
+  private final FileChannel channel;
+  private final int rows;
+  private final LongBuffer idMsb;
+  private final LongBuffer idLsb;
+  private final IntBuffer gameIds;
+  private final IntBuffer airDays;
+  private final IntBuffer values;
+  private final IntBuffer categoryIndexes;
+  private final IntBuffer topicIndexes;
+  private final ShortBuffer categoryNumbers;
+  private final ByteBuffer flags;
+  private final IntBuffer questionOffsets;
+  private final ByteBuffer questionText;
+  private final IntBuffer answerOffsets;
+  private final ByteBuffer answerText;
+  private final IntBuffer categoryOffsets;
+  private final ByteBuffer categoryText;
+  private final IntBuffer topicOffsets;
+  private final ByteBuffer topicText;
+  private final String[] categoryCache;
+  private final String[] topicCache;
+
+  private Snapshot(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+    this.channel = channel;
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new IOException("Not a version " + VERSION + " clue snapshot");
+    }
+    rows = buffer.getInt(8);
+    int categories = buffer.getInt(12);
+    int topics = buffer.getInt(16);
+
+    ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+    for (int i = 0; i < SECTIONS; i++) {
+      int start = Math.toIntExact(buffer.getLong(20 + i * Long.BYTES));
+      int end = i + 1 < SECTIONS ? Math.toIntExact(buffer.getLong(20 + (i + 1) * Long.BYTES)) : buffer.capacity();
+      sections[i] = buffer.slice(start, end - start).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    idMsb = sections[ID_MSB].asLongBuffer();
+    idLsb = sections[ID_LSB].asLongBuffer();
+    gameIds = sections[GAME_ID].asIntBuffer();
+    airDays = sections[AIR_DAY].asIntBuffer();
+    values = sections[VALUE].asIntBuffer();
+    categoryIndexes = sections[CATEGORY].asIntBuffer();
+    topicIndexes = sections[TOPIC].asIntBuffer();
+    categoryNumbers = sections[CATEGORY_NUMBER].asShortBuffer();
+    flags = sections[FLAGS];
+    questionOffsets = sections[QUESTION_OFFSETS].asIntBuffer();
+    questionText = sections[QUESTION_TEXT];
+    answerOffsets = sections[ANSWER_OFFSETS].asIntBuffer();
+    answerText = sections[ANSWER_TEXT];
+    categoryOffsets = sections[CATEGORY_OFFSETS].asIntBuffer();
+    categoryText = sections[CATEGORY_TEXT];
+    topicOffsets = sections[TOPIC_OFFSETS].asIntBuffer();
+    topicText = sections[TOPIC_TEXT];
+    categoryCache = new String[categories];
+    topicCache = new String[topics];
+  }
+
+  public static Snapshot open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Snapshot larger than 2 GB: " + file);
+      }
+      return new Snapshot(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public int size() {
+    return rows;
+  }
+
+  /** A view of one row; it reads from the mapped file and holds no clue data itself. */
+  public ClueView get(int row) {
+    return new ClueView(this, row);
+  }
+
+  public int categoryCount() {
+    return categoryCache.length;
+  }
+
+  public int topicCount() {
+    return topicCache.length;
+  }
+
+  /** The category name for a dictionary index, as returned by {@link ClueView#categoryIndex()}. */
+  public String category(int index) {
+    String name = categoryCache[index];
+    if (name == null) {
+      name = text(categoryOffsets, categoryText, index);
+      categoryCache[index] = name;
+    }
+    return name;
+  }
+
+  /** The topic name for a dictionary index, as returned by {@link ClueView#topicIndex()}. */
+  public String topic(int index) {
+    String name = topicCache[index];
+    if (name == null) {
+      name = text(topicOffsets, topicText, index);
+      topicCache[index] = name;
+    }
+    return name;
+  }
+
+  UUID id(int row) {
+    return new UUID(idMsb.get(row), idLsb.get(row));
+  }
+
+  int gameId(int row) {
+    return gameIds.get(row);
+  }
+
+  int airDay(int row) {
+    return airDays.get(row);
+  }
+
+  int value(int row) {
+    return values.get(row);
+  }
+
+  int categoryIndex(int row) {
+    return categoryIndexes.get(row);
+  }
+
+  int topicIndex(int row) {
+    return topicIndexes.get(row);
+  }
+
+  int categoryNumber(int row) {
+    return categoryNumbers.get(row);
+  }
+
+  Round round(int row) {
+    int code = flags.get(row) & ROUND_MASK;
+    return code == 0 ? null : ROUNDS[code - 1];
+  }
+
+  boolean isDailyDouble(int row) {
+    return (flags.get(row) & DAILY_DOUBLE) != 0;
+  }
+
+  String question(int row) {
+    return text(questionOffsets, questionText, row);
+  }
+
+  String answer(int row) {
+    return (flags.get(row) & NULL_ANSWER) != 0 ? null : text(answerOffsets, answerText, row);
+  }
+
+  private static String text(IntBuffer offsets, ByteBuffer blob, int index) {
+    int start = offsets.get(index);
+    byte[] bytes = new byte[offsets.get(index + 1) - start];
+    blob.get(start, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Materializes a row as a {@link Clue}. */
+  Clue clue(int row) {
+    return new Clue(id(row), category(categoryIndex(row)), round(row), categoryNumber(row), value(row),
+        question(row), answer(row), isDailyDouble(row), gameId(row), airDay(row));
+  }
+
+  /** Closes the channel; the mapping itself is released once the buffers are unreachable. */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
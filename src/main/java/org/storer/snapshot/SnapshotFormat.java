@@ -0,0 +1,54 @@
+package org.storer.snapshot;
+
+/**
+ * Layout of a clue snapshot file. All numbers are little-endian.
+ *
+ * <pre>
+ * header    int magic 'CLSN', int version, int rows, int categories, int topics,
+ *           long[SECTIONS] section offsets (each section starts 8-byte aligned)
+ * sections  one per constant below, in order; per-row columns hold {@code rows} entries,
+ *           offset columns hold one more entry than the strings they index
+ * </pre>
+ *
+ * Text columns are UTF-8 blobs addressed by int offsets. Flags hold the round in bits 0-1
+ * (0 unknown, then {@code Round} ordinal + 1), daily double in bit 2 and a null answer in bit 3.
+ * A topic index of -1 means the row has no {@code canonical_topic}, and rows without
+ * a {@code clue_value_int} have value 0.
+ */
+final class SnapshotFormat {
+
+  static final int MAGIC = 0x4E534C43; // "CLSN" read little-endian
+  static final int VERSION = 1;
+
+  static final int ID_MSB = 0;            // long
+  static final int ID_LSB = 1;            // long
+  static final int GAME_ID = 2;           // int
+  static final int AIR_DAY = 3;           // int, Clue.NO_DATE if unknown
+  static final int VALUE = 4;             // int
+  static final int CATEGORY = 5;          // int, index into the category dictionary
+  static final int TOPIC = 6;             // int, index into the topic dictionary
+  static final int CATEGORY_NUMBER = 7;   // short
+  static final int FLAGS = 8;             // byte
+  static final int QUESTION_OFFSETS = 9;  // int, rows + 1
+  static final int QUESTION_TEXT = 10;
+  static final int ANSWER_OFFSETS = 11;   // int, rows + 1
+  static final int ANSWER_TEXT = 12;
+  static final int CATEGORY_OFFSETS = 13; // int, categories + 1
+  static final int CATEGORY_TEXT = 14;
+  static final int TOPIC_OFFSETS = 15;    // int, topics + 1
+  static final int TOPIC_TEXT = 16;
+  static final int SECTIONS = 17;
+
+  static final int HEADER_BYTES = 5 * Integer.BYTES + SECTIONS * Long.BYTES;
+
+  static final int ROUND_MASK = 0b11;
+  static final int DAILY_DOUBLE = 1 << 2;
+  static final int NULL_ANSWER = 1 << 3;
+
+  private SnapshotFormat() {
+  }
+
+  static long align(long position) {
+    return (position + 7) & ~7L;
+  }
+}
@@ -0,0 +1,354 @@
+package org.storer.snapshot;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.storer.snapshot.SnapshotFormat.*;
+
+/**
+ * Exports {@code clues_java}, with each row's {@code canonical_topic}, into a {@link Snapshot} file.
+ * Columns are collected in primitive arrays while the rows stream in, then written section by
+ * section to a temporary file that replaces the target once complete.
+ */
+public class SnapshotWriter {
+
+  private static final Logger log = LoggerFactory.getLogger(SnapshotWriter.class);
+  private static final int FETCH_SIZE = 10_000;
+
+  static final String QUERY =
+      "SELECT c.id, c.category, c.canonical_topic, c.round, c.category_number, c.clue_value_int," +
+      " c.question, c.answer, c.is_daily_double, c.game_id, c.air_date" +
+      " FROM clues_java c" +
+      " ORDER BY c.game_id, c.category_number, c.id";
+
+  public static void main(String[] args) {
+    if (args.length != 1) {
+      System.err.println("Usage: SnapshotWriter <output-file>");
+      System.exit(1);
+    }
+
+    String url      = System.getenv("DB_URL");
+    String user     = System.getenv("DB_USER");
+    String password = System.getenv("DB_PASSWORD");
+
+    if (url == null || user == null || password == null) {
+      System.err.println("Missing required environment variables: DB_URL, DB_USER, DB_PASSWORD");
+      System.exit(1);
+    }
+
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(url);
+    config.setUsername(user);
+    config.setPassword(password);
+
+    try (HikariDataSource dataSource = new HikariDataSource(config);
+      Connection connection = dataSource.getConnection()) {
+      write(connection, Path.of(args[0]));
+    } catch (SQLException | IOException e) {
+      log.error("Failed to write snapshot {}", args[0], e);
+      System.exit(1);
+    }
+  }
+
+  /** Writes every stored clue to {@code file}; returns the number of rows. */
+  public static int write(Connection connection, Path file) throws SQLException, IOException {
+    long start = System.nanoTime();
+    Columns columns = new Columns();
+
+    boolean autoCommit = connection.getAutoCommit();
+    // PgJDBC only streams with a fetch size inside a transaction
+    connection.setAutoCommit(false);
+    try (PreparedStatement ps = connection.prepareStatement(QUERY)) {
+      ps.setFetchSize(FETCH_SIZE);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          columns.add(rs);
+        }
+      }
+      connection.commit();
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      columns.writeTo(channel);
+    }
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    log.info("Wrote {} clues ({} categories, {} topics, {} bytes) to {} in {} ms", columns.rows,
+        columns.categories.size(), columns.topics.size(), Files.size(file), file,
+        (System.nanoTime() - start) / 1_000_000);
+    return columns.rows;
+  }
+
+  /** Column data collected while streaming the query. */
+  private static final class Columns {
+    int rows;
+    long[] idMsb = new long[1024];
+    long[] idLsb = new long[1024];
+    int[] gameIds = new int[1024];
+    int[] airDays = new int[1024];
+    int[] values = new int[1024];
+    int[] categoryIndexes = new int[1024];
+    int[] topicIndexes = new int[1024];
+    short[] categoryNumbers = new short[1024];
+    byte[] flags = new byte[1024];
+    final Text questions = new Text();
+    final Text answers = new Text();
+    final Dictionary categories = new Dictionary();
+    final Dictionary topics = new Dictionary();
+
+    void add(ResultSet rs) throws SQLException {
+      if (rows == idMsb.length) {
+        grow();
+      }
+      UUID id = UUID.fromString(rs.getString("id"));
+      idMsb[rows] = id.getMostSignificantBits();
+      idLsb[rows] = id.getLeastSignificantBits();
+      gameIds[rows] = rs.getInt("game_id");
+      Date airDate = rs.getDate("air_date");
+      airDays[rows] = airDate == null ? Clue.NO_DATE : Math.toIntExact(airDate.toLocalDate().toEpochDay());
+      values[rows] = rs.getInt("clue_value_int");
+      categoryIndexes[rows] = categories.indexOf(rs.getString("category"));
+      String topic = rs.getString("canonical_topic");
+      topicIndexes[rows] = topic == null ? -1 : topics.indexOf(topic);
+      categoryNumbers[rows] = (short) rs.getInt("category_number");
+
+      int flag = roundCode(rs.getString("round"));
+      if (rs.getBoolean("is_daily_double")) {
+        flag |= DAILY_DOUBLE;
+      }
+      String answer = rs.getString("answer");
+      if (answer == null) {
+        flag |= NULL_ANSWER;
+      }
+      flags[rows] = (byte) flag;
+
+      questions.add(rs.getString("question"));
+      answers.add(answer);
+      rows++;
+    }
+
+    private static int roundCode(String round) {
+      for (Round r : Round.values()) {
+        if (r.name().equals(round)) {
+          return r.ordinal() + 1;
+        }
+      }
+      return 0;
+    }
+
+    private void grow() {
+      int size = rows * 2;
+      idMsb = Arrays.copyOf(idMsb, size);
+      idLsb = Arrays.copyOf(idLsb, size);
+      gameIds = Arrays.copyOf(gameIds, size);
+      airDays = Arrays.copyOf(airDays, size);
+      values = Arrays.copyOf(values, size);
+      categoryIndexes = Arrays.copyOf(categoryIndexes, size);
+      topicIndexes = Arrays.copyOf(topicIndexes, size);
+      categoryNumbers = Arrays.copyOf(categoryNumbers, size);
+      flags = Arrays.copyOf(flags, size);
+    }
+
+    void writeTo(FileChannel channel) throws IOException {
+      Text categoryText = categories.text();
+      Text topicText = topics.text();
+      long[] sizes = new long[SECTIONS];
+      sizes[ID_MSB] = (long) rows * Long.BYTES;
+      sizes[ID_LSB] = (long) rows * Long.BYTES;
+      sizes[GAME_ID] = (long) rows * Integer.BYTES;
+      sizes[AIR_DAY] = (long) rows * Integer.BYTES;
+      sizes[VALUE] = (long) rows * Integer.BYTES;
+      sizes[CATEGORY] = (long) rows * Integer.BYTES;
+      sizes[TOPIC] = (long) rows * Integer.BYTES;
+      sizes[CATEGORY_NUMBER] = (long) rows * Short.BYTES;
+      sizes[FLAGS] = rows;
+      sizes[QUESTION_OFFSETS] = (long) (rows + 1) * Integer.BYTES;
+      sizes[QUESTION_TEXT] = questions.length;
+      sizes[ANSWER_OFFSETS] = (long) (rows + 1) * Integer.BYTES;
+      sizes[ANSWER_TEXT] = answers.length;
+      sizes[CATEGORY_OFFSETS] = (long) (categoryText.count + 1) * Integer.BYTES;
+      sizes[CATEGORY_TEXT] = categoryText.length;
+      sizes[TOPIC_OFFSETS] = (long) (topicText.count + 1) * Integer.BYTES;
+      sizes[TOPIC_TEXT] = topicText.length;
+
+      Output out = new Output(channel);
+      out.putInt(MAGIC);
+      out.putInt(VERSION);
+      out.putInt(rows);
+      out.putInt(categoryText.count);
+      out.putInt(topicText.count);
+      long offset = align(HEADER_BYTES);
+      for (long size : sizes) {
+        out.putLong(offset);
+        offset = align(offset + size);
+      }
+
+      out.pad();
+      for (int i = 0; i < rows; i++) out.putLong(idMsb[i]);
+      out.pad();
+      for (int i = 0; i < rows; i++) out.putLong(idLsb[i]);
+      out.pad();
+      for (int i = 0; i < rows; i++) out.putInt(gameIds[i]);
+      out.pad();
+      for (int i = 0; i < rows; i++) out.putInt(airDays[i]);
+      out.pad();
+      for (int i = 0; i < rows; i++) out.putInt(values[i]);
+      out.pad();
+      for (int i = 0; i < rows; i++) out.putInt(categoryIndexes[i]);
+      out.pad();
+      for (int i = 0; i < rows; i++) out.putInt(topicIndexes[i]);
+      out.pad();
+      for (int i = 0; i < rows; i++) out.putShort(categoryNumbers[i]);
+      out.pad();
+      out.put(flags, rows);
+      for (Text text : List.of(questions, answers, categoryText, topicText)) {
+        out.pad();
+        for (int i = 0; i <= text.count; i++) out.putInt(text.offsets[i]);
+        out.pad();
+        out.put(text.bytes, text.length);
+      }
+      out.pad();
+      out.flush();
+    }
+  }
+
+  /** Concatenated UTF-8 strings with their start offsets; null is stored as empty. */
+  private static final class Text {
+    int count;
+    int[] offsets = new int[1025];
+    byte[] bytes = new byte[1 << 16];
+    int length;
+
+    void add(String value) {
+      byte[] encoded = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+      if ((long) length + encoded.length > Integer.MAX_VALUE - 8) {
+        throw new IllegalStateException("Text column exceeds 2 GB");
+      }
+      if (length + encoded.length > bytes.length) {
+        bytes = Arrays.copyOf(bytes, (int) Math.min(Integer.MAX_VALUE - 8,
+            Math.max((long) bytes.length * 2, length + encoded.length)));
+      }
+      System.arraycopy(encoded, 0, bytes, length, encoded.length);
+      length += encoded.length;
+      if (count + 1 == offsets.length) {
+        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+      }
+      offsets[++count] = length;
+    }
+  }
+
+  /** Assigns dense indexes to distinct strings in first-seen order. */
+  private static final class Dictionary {
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final Text text = new Text();
+
+    int indexOf(String value) {
+      String key = value == null ? "" : value;
+      Integer index = indexes.get(key);
+      if (index == null) {
+        index = indexes.size();
+        indexes.put(key, index);
+        text.add(key);
+      }
+      return index;
+    }
+
+    int size() {
+      return indexes.size();
+    }
+
+    Text text() {
+      return text;
+    }
+  }
+
+  /** Little-endian output through a reusable buffer, tracking the file position for padding. */
+  private static final class Output {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private long position;
+
+    Output(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    void putLong(long value) throws IOException {
+      ensure(Long.BYTES);
+      buffer.putLong(value);
+      position += Long.BYTES;
+    }
+
+    void putInt(int value) throws IOException {
+      ensure(Integer.BYTES);
+      buffer.putInt(value);
+      position += Integer.BYTES;
+    }
+
+    void putShort(short value) throws IOException {
+      ensure(Short.BYTES);
+      buffer.putShort(value);
+      position += Short.BYTES;
+    }
+
+    void put(byte[] bytes, int length) throws IOException {
+      int written = 0;
+      while (written < length) {
+        ensure(1);
+        int chunk = Math.min(buffer.remaining(), length - written);
+        buffer.put(bytes, written, chunk);
+        written += chunk;
+      }
+      position += length;
+    }
+
+    void pad() throws IOException {
+      while (position % 8 != 0) {
+        ensure(1);
+        buffer.put((byte) 0);
+        position++;
+      }
+    }
+
+    private void ensure(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package org.storer.study;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Vose's alias method: after O(n) setup, draws index {@code i} with probability proportional to
+ * {@code weights[i]} in O(1), using one uniform int and one uniform double. Immutable.
+ */
+final class AliasTable {
+
+  private final double[] probability;
+  private final int[] alias;
+
+  AliasTable(double[] weights) {
+    int n = weights.length;
+    if (n == 0) {
+      throw new IllegalArgumentException("No weights");
+    }
+    double total = 0;
+    for (double weight : weights) {
+      if (!(weight >= 0) || Double.isInfinite(weight)) {
+        throw new IllegalArgumentException("Invalid weight " + weight);
+      }
+      total += weight;
+    }
+    if (total == 0) {
+      throw new IllegalArgumentException("All weights are zero");
+    }
+
+    probability = new double[n];
+    alias = new int[n];
+    double[] scaled = new double[n];
+    // Work lists of indexes below and above the average, kept as stacks in one array
+    int[] small = new int[n];
+    int[] large = new int[n];
+    int smallCount = 0;
+    int largeCount = 0;
+    for (int i = 0; i < n; i++) {
+      scaled[i] = weights[i] * n / total;
+      if (scaled[i] < 1) {
+        small[smallCount++] = i;
+      } else {
+        large[largeCount++] = i;
+      }
+    }
+    while (smallCount > 0 && largeCount > 0) {
+      int less = small[--smallCount];
+      int more = large[--largeCount];
+      probability[less] = scaled[less];
+      alias[less] = more;
+      scaled[more] = scaled[more] + scaled[less] - 1;
+      if (scaled[more] < 1) {
+        small[smallCount++] = more;
+      } else {
+        large[largeCount++] = more;
+      }
+    }
+    // Whatever is left is 1 up to rounding error
+    while (largeCount > 0) {
+      probability[large[--largeCount]] = 1;
+    }
+    while (smallCount > 0) {
+      probability[small[--smallCount]] = 1;
+    }
+  }
+
+  int size() {
+    return probability.length;
+  }
+
+  int sample(RandomGenerator random) {
+    int i = random.nextInt(probability.length);
+    return random.nextDouble() < probability[i] ? i : alias[i];
+  }
+}
@@ -0,0 +1,287 @@
+package org.storer.study;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind recorder for Study Mode answers. {@link #record} updates in-memory per-topic
+ * counters and queues the answer without blocking. A background thread writes queued answers to
+ * {@code user_stats} in batches of up to {@code maxRows}, or after {@code lingerMillis}, whichever
+ * comes first. A failed batch is kept and retried with backoff, together with the answers that
+ * arrived meanwhile, up to {@link #MAX_RETAINED_BATCHES} batches; answers past that are dropped
+ * and counted in {@link #dropped}. Counters are striped
+ * {@link LongAdder}s plus an exponentially decayed recent accuracy updated by CAS, so readers
+ * never wait on writers or on the database.
+ */
+public class StatsRecorder implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(StatsRecorder.class);
+
+  static final int DEFAULT_MAX_ROWS = 500;
+  static final long DEFAULT_LINGER_MILLIS = 1_000;
+  static final int DEFAULT_QUEUE_CAPACITY = 65_536;
+  static final int MAX_RETAINED_BATCHES = 20;
+  static final long RETRY_BACKOFF_MILLIS = 1_000;
+  static final long MAX_RETRY_BACKOFF_MILLIS = 60_000;
+  // Weight of the newest answer in the recent accuracy: its influence halves every 20 answers
+  static final double DECAY = 1 - Math.pow(0.5, 1 / 20.0);
+
+  static final String INSERT_QUERY =
+      "INSERT INTO user_stats (canonical_topic, passed, recorded_at) VALUES (?, ?, ?)";
+
+  /** Lifetime totals and decayed recent accuracy of one topic. */
+  public record TopicAccuracy(long attempts, long passes, double recent) {
+  }
+
+  /** A queued answer, or a flush/stop marker when {@code topic} is null. */
+  private record Pending(String topic, boolean passed, Instant recordedAt, CountDownLatch done, boolean stop) {}
+
+  private static final class Counter {
+    final LongAdder attempts = new LongAdder();
+    final LongAdder passes = new LongAdder();
+    final AtomicLong recentBits;
+
+    Counter(double recent) {
+      recentBits = new AtomicLong(Double.doubleToRawLongBits(recent));
+    }
+
+    void add(boolean passed) {
+      attempts.increment();
+      if (passed) {
+        passes.increment();
+      }
+      double outcome = passed ? 1 : 0;
+      recentBits.getAndUpdate(bits -> {
+        double recent = Double.longBitsToDouble(bits);
+        return Double.doubleToRawLongBits(recent + DECAY * (outcome - recent));
+      });
+    }
+
+    double recent() {
+      return Double.longBitsToDouble(recentBits.get());
+    }
+  }
+
+  private final DataSource dataSource;
+  private final int maxRows;
+  private final long lingerNanos;
+  private final BlockingQueue<Pending> queue;
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final LongAdder dropped = new LongAdder();
+  private final Thread writer;
+  private volatile boolean closed;
+
+  StatsRecorder(DataSource dataSource, Map<String, StudySampler.Accuracy> restored, int maxRows,
+         long lingerMillis, int queueCapacity) {
+    this.dataSource = dataSource;
+    this.maxRows = maxRows;
+    this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+    this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    restored.forEach((topic, accuracy) -> {
+      Counter counter = new Counter(accuracy.smoothed());
+      counter.attempts.add(accuracy.attempts());
+      counter.passes.add(accuracy.passes());
+      counters.put(topic, counter);
+    });
+    this.writer = Thread.ofPlatform().name("stats-writer").daemon().start(this::run);
+  }
+
+  /** Restores the counters from {@code user_stats} with one aggregate query, then starts writing. */
+  public static StatsRecorder start(DataSource dataSource) throws SQLException {
+    Map<String, StudySampler.Accuracy> restored;
+    try (Connection connection = dataSource.getConnection()) {
+      restored = StudySampler.loadAccuracy(connection);
+    }
+    log.info("Restored stats for {} topics", restored.size());
+    return new StatsRecorder(dataSource, restored, DEFAULT_MAX_ROWS, DEFAULT_LINGER_MILLIS,
+        DEFAULT_QUEUE_CAPACITY);
+  }
+
+  /**
+   * Counts one answer and queues it for {@code user_stats}. Never blocks: if the writer has fallen
+   * {@code queueCapacity} answers behind, the row is dropped and only the counters keep it.
+   */
+  public void record(String topic, boolean passed) {
+    if (closed) {
+      throw new IllegalStateException("Recorder is closed");
+    }
+    counters.computeIfAbsent(topic, t -> new Counter(StudySampler.Accuracy.NONE.smoothed())).add(passed);
+    if (!queue.offer(new Pending(topic, passed, Instant.now(), null, false))) {
+      dropped.increment();
+      log.warn("Stats queue full; dropped an answer for {}", topic);
+    }
+  }
+
+  /** Current counters for {@code topic}; zero attempts if it was never studied. */
+  public TopicAccuracy accuracy(String topic) {
+    Counter counter = counters.get(topic);
+    if (counter == null) {
+      return new TopicAccuracy(0, 0, StudySampler.Accuracy.NONE.smoothed());
+    }
+    return new TopicAccuracy(counter.attempts.sum(), counter.passes.sum(), counter.recent());
+  }
+
+  /** Lifetime totals of every topic, in the form {@link StudySampler#updateStats} takes. */
+  public Map<String, StudySampler.Accuracy> totals() {
+    Map<String, StudySampler.Accuracy> totals = new HashMap<>();
+    counters.forEach((topic, counter) ->
+        totals.put(topic, new StudySampler.Accuracy(counter.attempts.sum(), counter.passes.sum())));
+    return totals;
+  }
+
+  /** Answers dropped because the queue was full, or because too many were kept for a retry. */
+  public long dropped() {
+    return dropped.sum();
+  }
+
+  /**
+   * Waits until every answer recorded so far has been written, or has failed and been kept. While
+   * a failed batch waits for its retry, nothing is written.
+   */
+  public void flush() {
+    CountDownLatch done = new CountDownLatch(1);
+    put(new Pending(null, false, null, done, false));
+    await(done);
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    CountDownLatch done = new CountDownLatch(1);
+    put(new Pending(null, false, null, done, true));
+    await(done);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    List<Pending> batch = new ArrayList<>();
+    int maxRetained = maxRows * MAX_RETAINED_BATCHES;
+    long backoffNanos = 0;
+    long retryAt = 0;
+    while (true) {
+      // Only a failed batch is kept between rounds; it waits for its retry time
+      boolean retrying = !batch.isEmpty();
+      Pending next;
+      try {
+        next = retrying
+            ? queue.poll(Math.max(0, retryAt - System.nanoTime()), TimeUnit.NANOSECONDS)
+            : queue.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+
+      long deadline = retrying ? retryAt : System.nanoTime() + lingerNanos;
+      while (next != null && next.topic() != null) {
+        if (batch.size() < maxRetained) {
+          batch.add(next);
+        } else {
+          dropped.increment();
+        }
+        // A retry waits for its time even when full, so arrivals cannot trigger extra attempts
+        if (!retrying && batch.size() >= maxRows) {
+          next = null;
+          break;
+        }
+        try {
+          next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+          next = null;
+        }
+      }
+
+      boolean stop = next != null && next.stop();
+      if (!batch.isEmpty() && (stop || !retrying || System.nanoTime() - retryAt >= 0)) {
+        if (write(batch)) {
+          batch.clear();
+          backoffNanos = 0;
+        } else {
+          backoffNanos = backoffNanos == 0
+              ? TimeUnit.MILLISECONDS.toNanos(RETRY_BACKOFF_MILLIS)
+              : Math.min(backoffNanos * 2, TimeUnit.MILLISECONDS.toNanos(MAX_RETRY_BACKOFF_MILLIS));
+          retryAt = System.nanoTime() + backoffNanos;
+          if (batch.size() >= maxRetained) {
+            log.warn("Keeping {} answers for user_stats; newer answers are dropped until a write succeeds",
+                batch.size());
+          }
+        }
+      }
+      if (next != null) {
+        if (stop && !batch.isEmpty()) {
+          log.error("Closing with {} answers not written to user_stats", batch.size());
+        }
+        next.done().countDown();
+        if (stop) {
+          return;
+        }
+      }
+    }
+  }
+
+  /** Inserts the batch in one transaction; false if it failed and should be retried. */
+  private boolean write(List<Pending> batch) {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement ps = connection.prepareStatement(INSERT_QUERY)) {
+        for (Pending answer : batch) {
+          ps.setString(1, answer.topic());
+          ps.setBoolean(2, answer.passed());
+          ps.setTimestamp(3, Timestamp.from(answer.recordedAt()));
+          ps.addBatch();
+        }
+        ps.executeBatch();
+        connection.commit();
+        log.debug("Wrote {} answers to user_stats", batch.size());
+        return true;
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      }
+    } catch (SQLException e) {
+      log.error("Failed to write {} answers to user_stats; will retry", batch.size(), e);
+      return false;
+    }
+  }
+
+  private void put(Pending pending) {
+    try {
+      queue.put(pending);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while queueing stats", e);
+    }
+  }
+
+  private static void await(CountDownLatch done) {
+    try {
+      done.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for writes", e);
+    }
+  }
+}
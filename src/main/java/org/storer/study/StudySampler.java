@@ -0,0 +1,267 @@
+package org.storer.study;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * In-memory clue sampler for Study Mode, following the Moneyball plan in {@code docs/PLAN.md}. A
+ * topic is drawn with weight {@code mean clue value × (1 − accuracy)}, so weak, high-value topics
+ * come up most. A clue is then drawn uniformly within that topic. Clue ids are held as primitive
+ * UUID halves grouped by topic, and topics are drawn from an alias table, so a draw never touches
+ * the database. Accuracy is smoothed as {@code (passes + 1) / (attempts + 2)}, which gives topics
+ * never studied a prior of one half. New stats swap in a rebuilt table; draws are thread-safe and
+ * lock-free.
+ */
+public final class StudySampler {
+
+  private static final Logger log = LoggerFactory.getLogger(StudySampler.class);
+  private static final int FETCH_SIZE = 10_000;
+  private static final int DEFAULT_COUNT = 20;
+  // Keeps Final Jeopardy!-only topics, whose clues have no value, in the rotation
+  private static final double MIN_VALUE = 100;
+
+  static final String CLUES_QUERY =
+      "SELECT c.canonical_topic, c.id, c.clue_value_int FROM clues_java c" +
+      " WHERE c.canonical_topic IS NOT NULL" +
+      " AND NOT EXISTS (SELECT 1 FROM clue_duplicates d WHERE d.clue_id = c.id)" +
+      " ORDER BY c.canonical_topic";
+
+  static final String ACCURACY_QUERY =
+      "SELECT canonical_topic, COUNT(*), SUM(CASE WHEN passed THEN 1 ELSE 0 END)" +
+      " FROM user_stats GROUP BY canonical_topic";
+
+  /** Study results for one topic. */
+  public record Accuracy(long attempts, long passes) {
+
+    public static final Accuracy NONE = new Accuracy(0, 0);
+
+    public double smoothed() {
+      return (passes + 1.0) / (attempts + 2.0);
+    }
+  }
+
+  /** Alias table over topics, swapped whole when stats change. */
+  private record Weights(AliasTable table, double[] weights) {
+  }
+
+  private final String[] topics;
+  // Clues of topic t are at [topicStart[t], topicStart[t + 1]) in both arrays
+  private final int[] topicStart;
+  private final long[] mostSignificant;
+  private final long[] leastSignificant;
+  private final double[] meanValue;
+  private volatile Weights weights;
+
+  StudySampler(String[] topics, int[] topicStart, long[] mostSignificant, long[] leastSignificant,
+         double[] meanValue, Map<String, Accuracy> accuracy) {
+    if (topics.length == 0) {
+      throw new IllegalStateException("No clues with a canonical topic to sample from");
+    }
+    this.topics = topics;
+    this.topicStart = topicStart;
+    this.mostSignificant = mostSignificant;
+    this.leastSignificant = leastSignificant;
+    this.meanValue = meanValue;
+    updateStats(accuracy);
+  }
+
+  public static void main(String[] args) {
+    int count = DEFAULT_COUNT;
+    try {
+      if (args.length == 2 && args[0].equals("--count")) {
+        count = Integer.parseInt(args[1]);
+      } else if (args.length != 0) {
+        count = -1;
+      }
+    } catch (NumberFormatException e) {
+      count = -1;
+    }
+    if (count < 1) {
+      System.err.println("Usage: StudySampler [--count <clues>]");
+      System.exit(1);
+    }
+
+    String url      = System.getenv("DB_URL");
+    String user     = System.getenv("DB_USER");
+    String password = System.getenv("DB_PASSWORD");
+
+    if (url == null || user == null || password == null) {
+      System.err.println("Missing required environment variables: DB_URL, DB_USER, DB_PASSWORD");
+      System.exit(1);
+    }
+
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(url);
+    config.setUsername(user);
+    config.setPassword(password);
+
+    StudySampler sampler;
+    try (HikariDataSource dataSource = new HikariDataSource(config);
+      Connection connection = dataSource.getConnection()) {
+      sampler = load(connection);
+    } catch (SQLException e) {
+      log.error("Failed to load the sampler", e);
+      System.exit(1);
+      return;
+    }
+    long start = System.nanoTime();
+    List<UUID> session = sampler.draw(count);
+    log.info("Drew {} clues in {} µs", session.size(), (System.nanoTime() - start) / 1_000);
+    session.forEach(System.out::println);
+  }
+
+  /**
+   * Loads every clue with a canonical topic, leaving out rows listed in {@code clue_duplicates},
+   * then the per-topic accuracy from {@code user_stats}.
+   */
+  public static StudySampler load(Connection connection) throws SQLException {
+    long start = System.nanoTime();
+    List<String> topics = new ArrayList<>();
+    int[] topicStart = new int[16];
+    long[] mostSignificant = new long[1 << 16];
+    long[] leastSignificant = new long[1 << 16];
+    List<Double> meanValues = new ArrayList<>();
+    int count = 0;
+    long valueSum = 0;
+    int valueCount = 0;
+
+    boolean autoCommit = connection.getAutoCommit();
+    // PgJDBC only streams with a fetch size inside a transaction
+    connection.setAutoCommit(false);
+    try (PreparedStatement ps = connection.prepareStatement(CLUES_QUERY)) {
+      ps.setFetchSize(FETCH_SIZE);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          String topic = rs.getString(1);
+          if (topics.isEmpty() || !topics.getLast().equals(topic)) {
+            if (!topics.isEmpty()) {
+              meanValues.add(valueCount == 0 ? 0.0 : (double) valueSum / valueCount);
+            }
+            if (topics.size() + 1 >= topicStart.length) {
+              topicStart = Arrays.copyOf(topicStart, topicStart.length * 2);
+            }
+            topicStart[topics.size()] = count;
+            topics.add(topic);
+            valueSum = 0;
+            valueCount = 0;
+          }
+          if (count == mostSignificant.length) {
+            mostSignificant = Arrays.copyOf(mostSignificant, count * 2);
+            leastSignificant = Arrays.copyOf(leastSignificant, count * 2);
+          }
+          UUID id = UUID.fromString(rs.getString(2));
+          mostSignificant[count] = id.getMostSignificantBits();
+          leastSignificant[count++] = id.getLeastSignificantBits();
+          int value = rs.getInt(3);
+          if (!rs.wasNull() && value > 0) {
+            valueSum += value;
+            valueCount++;
+          }
+        }
+      }
+      connection.commit();
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+    if (!topics.isEmpty()) {
+      meanValues.add(valueCount == 0 ? 0.0 : (double) valueSum / valueCount);
+    }
+    topicStart[topics.size()] = count;
+
+    StudySampler sampler = new StudySampler(topics.toArray(String[]::new),
+        Arrays.copyOf(topicStart, topics.size() + 1), Arrays.copyOf(mostSignificant, count),
+        Arrays.copyOf(leastSignificant, count), meanValues.stream().mapToDouble(Double::doubleValue).toArray(),
+        loadAccuracy(connection));
+    log.info("Loaded {} clues in {} topics in {} ms", count, topics.size(), (System.nanoTime() - start) / 1_000_000);
+    return sampler;
+  }
+
+  /** Per-topic totals from {@code user_stats}, in one aggregate query. */
+  public static Map<String, Accuracy> loadAccuracy(Connection connection) throws SQLException {
+    Map<String, Accuracy> accuracy = new HashMap<>();
+    try (Statement stmt = connection.createStatement();
+      ResultSet rs = stmt.executeQuery(ACCURACY_QUERY)) {
+      while (rs.next()) {
+        accuracy.put(rs.getString(1), new Accuracy(rs.getLong(2), rs.getLong(3)));
+      }
+    }
+    return accuracy;
+  }
+
+  /** Re-reads {@code user_stats} and rebuilds the topic weights. */
+  public void reloadStats(Connection connection) throws SQLException {
+    updateStats(loadAccuracy(connection));
+  }
+
+  /** Rebuilds the topic weights; topics missing from {@code accuracy} count as never studied. */
+  public void updateStats(Map<String, Accuracy> accuracy) {
+    double[] topicWeights = new double[topics.length];
+    for (int t = 0; t < topics.length; t++) {
+      Accuracy stats = accuracy.getOrDefault(topics[t], Accuracy.NONE);
+      topicWeights[t] = Math.max(meanValue[t], MIN_VALUE) * (1 - stats.smoothed());
+    }
+    weights = new Weights(new AliasTable(topicWeights), topicWeights);
+  }
+
+  /** Draws up to {@code count} distinct clues for a session. */
+  public List<UUID> draw(int count) {
+    return draw(count, ThreadLocalRandom.current());
+  }
+
+  public List<UUID> draw(int count, RandomGenerator random) {
+    Weights current = weights;
+    int wanted = Math.min(count, mostSignificant.length);
+    List<UUID> session = new ArrayList<>(wanted);
+    Set<UUID> drawn = new HashSet<>();
+    // Duplicates are rare with hundreds of thousands of clues; the bound only matters for tiny pools
+    for (int attempt = 0; session.size() < wanted && attempt < wanted * 16; attempt++) {
+      int t = current.table().sample(random);
+      int i = topicStart[t] + random.nextInt(topicStart[t + 1] - topicStart[t]);
+      UUID id = new UUID(mostSignificant[i], leastSignificant[i]);
+      if (drawn.add(id)) {
+        session.add(id);
+      }
+    }
+    return session;
+  }
+
+  /** Share of draws that land in {@code topic}; 0 for unknown topics. */
+  public double probability(String topic) {
+    double[] current = weights.weights();
+    double total = 0;
+    double match = 0;
+    for (int t = 0; t < topics.length; t++) {
+      total += current[t];
+      if (topics[t].equals(topic)) {
+        match = current[t];
+      }
+    }
+    return match / total;
+  }
+
+  public int topicCount() {
+    return topics.length;
+  }
+
+  public int clueCount() {
+    return mostSignificant.length;
+  }
+}
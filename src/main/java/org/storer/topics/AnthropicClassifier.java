@@ -0,0 +1,129 @@
+package org.storer.topics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * {@link CategoryClassifier} backed by the Anthropic Messages API, using the batch prompt of
+ * {@code pipeline/normalize_categories.py} against a fixed taxonomy. Rate-limit, server and
+ * malformed-reply failures surface as {@link IOException}, so the caller retries them.
+ */
+public final class AnthropicClassifier implements CategoryClassifier {
+
+  public static final String DEFAULT_MODEL = "claude-haiku-4-5-20251001";
+  static final URI MESSAGES_URI = URI.create("https://api.anthropic.com/v1/messages");
+  private static final String API_VERSION = "2023-06-01";
+  private static final int MAX_TOKENS = 2048;
+  private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+  private final HttpClient client;
+  private final URI endpoint;
+  private final String apiKey;
+  private final String model;
+  private final String taxonomy;
+
+  AnthropicClassifier(HttpClient client, URI endpoint, String apiKey, String model, List<String> taxonomy) {
+    this.client = client;
+    this.endpoint = endpoint;
+    this.apiKey = apiKey;
+    this.model = model;
+    this.taxonomy = taxonomy.stream().map(Json::quote).collect(Collectors.joining(", ", "[", "]"));
+  }
+
+  public AnthropicClassifier(String apiKey, String model, List<String> taxonomy) {
+    this(HttpClient.newBuilder().connectTimeout(TIMEOUT).build(), MESSAGES_URI, apiKey, model, taxonomy);
+  }
+
+  /** Reads a taxonomy file such as {@code pipeline/taxonomy.json}: a JSON array of topic names. */
+  public static List<String> loadTaxonomy(Path file) throws IOException {
+    try {
+      return strings(Json.parse(Files.readString(file)));
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Invalid taxonomy file " + file + ": " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public List<String> classify(List<String> categories) throws IOException, InterruptedException {
+    StringBuilder numbered = new StringBuilder();
+    for (int i = 0; i < categories.size(); i++) {
+      // A numbered list keeps special characters in category names out of the JSON
+      numbered.append(i + 1).append(". ").append(categories.get(i)).append('\n');
+    }
+    String prompt = "Canonical topics: " + taxonomy + "\n\n"
+        + "For each numbered Jeopardy category below, return the single best canonical topic from the list above.\n"
+        + "Return a JSON array of exactly " + categories.size() + " strings in the same order as the input.\n"
+        + "Use \"Other\" only if truly nothing fits. No explanation, just the JSON array.\n\n"
+        + numbered;
+    String body = "{\"model\":" + Json.quote(model) + ",\"max_tokens\":" + MAX_TOKENS
+        + ",\"messages\":[{\"role\":\"user\",\"content\":" + Json.quote(prompt) + "}]}";
+
+    HttpRequest request = HttpRequest.newBuilder(endpoint)
+        .timeout(TIMEOUT)
+        .header("content-type", "application/json")
+        .header("x-api-key", apiKey)
+        .header("anthropic-version", API_VERSION)
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    int status = response.statusCode();
+    if (status != 200) {
+      String message = "HTTP " + status + " from " + endpoint + ": " + excerpt(response.body());
+      // Other client errors (bad request, key or model) fail the same way on every attempt
+      if (status >= 400 && status < 500 && status != 408 && status != 429) {
+        throw new IllegalStateException(message);
+      }
+      throw new IOException(message);
+    }
+    try {
+      return strings(Json.parse(extractArray(replyText(response.body()))));
+    } catch (IllegalArgumentException | ClassCastException | IndexOutOfBoundsException e) {
+      throw new IOException("Unreadable reply: " + e.getMessage(), e);
+    }
+  }
+
+  /** The text of the reply's first content block. */
+  private static String replyText(String body) {
+    Map<?, ?> message = (Map<?, ?>) Json.parse(body);
+    Map<?, ?> block = (Map<?, ?>) ((List<?>) message.get("content")).getFirst();
+    return (String) block.get("text");
+  }
+
+  /** The outermost {@code [...]} of the text, which skips code fences and chatter around it. */
+  static String extractArray(String text) {
+    int start = text.indexOf('[');
+    int end = text.lastIndexOf(']');
+    if (start < 0 || end < start) {
+      throw new IllegalArgumentException("No JSON array in " + excerpt(text));
+    }
+    return text.substring(start, end + 1);
+  }
+
+  private static List<String> strings(Object value) {
+    if (!(value instanceof List<?> list)) {
+      throw new IllegalArgumentException("Expected a JSON array");
+    }
+    List<String> strings = new ArrayList<>(list.size());
+    for (Object item : list) {
+      if (!(item instanceof String s)) {
+        throw new IllegalArgumentException("Expected only strings, got " + item);
+      }
+      strings.add(s);
+    }
+    return strings;
+  }
+
+  private static String excerpt(String text) {
+    return text.length() <= 200 ? text : text.substring(0, 200) + "...";
+  }
+}
@@ -0,0 +1,15 @@
+package org.storer.topics;
+
+import java.io.IOException;
+import java.util.List;
+
+/** Maps Jeopardy! category names to canonical topics, one batch per call. */
+public interface CategoryClassifier {
+
+  /**
+   * Returns one canonical topic per category, in input order. An {@link IOException} marks the
+   * batch as worth retrying; any other exception fails it outright. Called from several threads
+   * at once.
+   */
+  List<String> classify(List<String> categories) throws IOException, InterruptedException;
+}
@@ -0,0 +1,309 @@
+package org.storer.topics;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Incremental replacement for pass 2 of {@code pipeline/normalize_categories.py}. Only categories
+ * in {@code clues_java} without a row in {@code category_mappings} are classified, so a new season
+ * costs a few hundred classifications rather than a full re-run. Batches are classified on
+ * virtual threads, with at most {@code concurrency} requests in flight. Failed requests are
+ * retried with jittered exponential backoff. Results are committed every {@link #FLUSH_ROWS}
+ * rows, so an interrupted run resumes where it stopped.
+ */
+public class CategoryNormalizer {
+
+  private static final Logger log = LoggerFactory.getLogger(CategoryNormalizer.class);
+
+  static final int DEFAULT_BATCH_SIZE = 30;
+  static final int DEFAULT_CONCURRENCY = 4;
+  static final int MAX_ATTEMPTS = 4;
+  static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+  static final int FLUSH_ROWS = 1_000;
+  private static final String DEFAULT_TAXONOMY = "pipeline/taxonomy.json";
+
+  private static final String USAGE =
+      "Usage: CategoryNormalizer [--concurrency <requests>] [--batch-size <categories>] [--model <name>]"
+          + " [--taxonomy <json-file>] [--dry-run]";
+
+  static final String UNMAPPED_QUERY =
+      "SELECT DISTINCT c.category FROM clues_java c" +
+      " WHERE c.category IS NOT NULL AND NOT EXISTS" +
+      " (SELECT 1 FROM category_mappings cm WHERE cm.jeopardy_category = c.category)" +
+      " ORDER BY c.category";
+
+  // Another run may have mapped the same category in the meantime; its row wins
+  static final String INSERT_QUERY =
+      "INSERT INTO category_mappings (jeopardy_category, canonical_topic) VALUES (?, ?) ON CONFLICT DO NOTHING";
+
+  /** Categories found unmapped, mappings written, and batches given up on after every retry. */
+  public record Result(int categories, int mapped, int failedBatches) {
+  }
+
+  private final CategoryClassifier classifier;
+  private final int batchSize;
+  private final int concurrency;
+  private final int maxAttempts;
+  private final Duration backoff;
+
+  public CategoryNormalizer(CategoryClassifier classifier, int batchSize, int concurrency) {
+    this(classifier, batchSize, concurrency, MAX_ATTEMPTS, INITIAL_BACKOFF);
+  }
+
+  CategoryNormalizer(CategoryClassifier classifier, int batchSize, int concurrency, int maxAttempts,
+            Duration backoff) {
+    if (batchSize < 1 || concurrency < 1 || maxAttempts < 1) {
+      throw new IllegalArgumentException("batchSize, concurrency and maxAttempts must be positive");
+    }
+    this.classifier = classifier;
+    this.batchSize = batchSize;
+    this.concurrency = concurrency;
+    this.maxAttempts = maxAttempts;
+    this.backoff = backoff;
+  }
+
+  public static void main(String[] args) {
+    int batchSize = DEFAULT_BATCH_SIZE;
+    int concurrency = DEFAULT_CONCURRENCY;
+    String model = AnthropicClassifier.DEFAULT_MODEL;
+    String taxonomyArg = DEFAULT_TAXONOMY;
+    boolean dryRun = false;
+    boolean valid = true;
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+          case "--batch-size" -> batchSize = Integer.parseInt(args[++i]);
+          case "--model" -> model = args[++i];
+          case "--taxonomy" -> taxonomyArg = args[++i];
+          case "--dry-run" -> dryRun = true;
+          default -> valid = false;
+        }
+      }
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      valid = false;
+    }
+    if (!valid || batchSize < 1 || concurrency < 1) {
+      System.err.println(USAGE);
+      System.exit(1);
+    }
+
+    String url      = System.getenv("DB_URL");
+    String user     = System.getenv("DB_USER");
+    String password = System.getenv("DB_PASSWORD");
+    String apiKey   = System.getenv("ANTHROPIC_API_KEY");
+
+    if (url == null || user == null || password == null || (apiKey == null && !dryRun)) {
+      System.err.println("Missing required environment variables: DB_URL, DB_USER, DB_PASSWORD, ANTHROPIC_API_KEY");
+      System.exit(1);
+    }
+
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(url);
+    config.setUsername(user);
+    config.setPassword(password);
+    // Lets PgJDBC send each JDBC batch as multi-row INSERTs
+    config.addDataSourceProperty("reWriteBatchedInserts", "true");
+
+    try (HikariDataSource dataSource = new HikariDataSource(config);
+      Connection connection = dataSource.getConnection()) {
+      if (dryRun) {
+        List<String> unmapped = unmapped(connection);
+        log.info("[DRY RUN] {} unmapped categories, {} batches of {}", unmapped.size(),
+            (unmapped.size() + batchSize - 1) / batchSize, batchSize);
+        return;
+      }
+      List<String> taxonomy = AnthropicClassifier.loadTaxonomy(Path.of(taxonomyArg));
+      log.info("Loaded taxonomy of {} topics from {}", taxonomy.size(), taxonomyArg);
+      CategoryNormalizer normalizer =
+          new CategoryNormalizer(new AnthropicClassifier(apiKey, model, taxonomy), batchSize, concurrency);
+      Result result = normalizer.normalize(connection);
+      if (result.mapped() > 0) {
+        applyMappings(connection);
+      }
+      if (result.failedBatches() > 0) {
+        System.exit(1);
+      }
+    } catch (IOException e) {
+      log.error("Failed to read taxonomy {}", taxonomyArg, e);
+      System.exit(1);
+    } catch (SQLException e) {
+      log.error("Normalization failed", e);
+      System.exit(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      System.exit(1);
+    }
+  }
+
+  /** Every category in {@code clues_java} without a mapping, found with one anti-join. */
+  static List<String> unmapped(Connection connection) throws SQLException {
+    List<String> categories = new ArrayList<>();
+    try (Statement stmt = connection.createStatement();
+      ResultSet rs = stmt.executeQuery(UNMAPPED_QUERY)) {
+      while (rs.next()) {
+        categories.add(rs.getString(1));
+      }
+    }
+    return categories;
+  }
+
+  /** Classifies every unmapped category and writes the results to {@code category_mappings}. */
+  public Result normalize(Connection connection) throws SQLException, InterruptedException {
+    long start = System.nanoTime();
+    List<String> categories = unmapped(connection);
+    List<List<String>> batches = new ArrayList<>();
+    for (int i = 0; i < categories.size(); i += batchSize) {
+      batches.add(categories.subList(i, Math.min(i + batchSize, categories.size())));
+    }
+    log.info("{} unmapped categories in {} batches", categories.size(), batches.size());
+
+    Semaphore inFlight = new Semaphore(concurrency);
+    List<String[]> pending = new ArrayList<>();
+    int mapped = 0;
+    int failed = 0;
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      CompletionService<List<String[]>> completion = new ExecutorCompletionService<>(executor);
+      for (List<String> batch : batches) {
+        completion.submit(() -> classifyBatch(batch, inFlight));
+      }
+      for (int n = 0; n < batches.size(); n++) {
+        Future<List<String[]>> done = completion.take();
+        try {
+          pending.addAll(done.get());
+        } catch (ExecutionException e) {
+          failed++;
+          log.warn("Batch failed after {} attempts", maxAttempts, e.getCause());
+        }
+        if (pending.size() >= FLUSH_ROWS) {
+          mapped += write(connection, pending);
+          pending.clear();
+        }
+      }
+      mapped += write(connection, pending);
+    } finally {
+      executor.shutdownNow();
+      executor.close();
+    }
+    log.info("Mapped {} of {} categories in {} ms; {} batches failed", mapped, categories.size(),
+        (System.nanoTime() - start) / 1_000_000, failed);
+    return new Result(categories.size(), mapped, failed);
+  }
+
+  /** Pairs each category with its topic, retrying {@link IOException}s with backoff. */
+  private List<String[]> classifyBatch(List<String> batch, Semaphore inFlight) throws Exception {
+    for (int attempt = 1; ; attempt++) {
+      List<String> topics;
+      inFlight.acquire();
+      try {
+        topics = classifier.classify(batch);
+        if (topics == null || topics.size() != batch.size()) {
+          throw new IOException("Expected " + batch.size() + " topics, got "
+              + (topics == null ? "none" : topics.size()));
+        }
+        for (String topic : topics) {
+          if (topic == null || topic.isBlank()) {
+            throw new IOException("Blank topic in " + topics);
+          }
+        }
+      } catch (IOException e) {
+        if (attempt == maxAttempts) {
+          throw e;
+        }
+        log.debug("Attempt {} failed: {}", attempt, e.getMessage());
+        topics = null;
+      } finally {
+        inFlight.release();
+      }
+
+      if (topics != null) {
+        List<String[]> rows = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+          rows.add(new String[] {batch.get(i), topics.get(i).strip()});
+        }
+        return rows;
+      }
+      // Full jitter keeps concurrent batches from retrying in lockstep
+      long ceiling = backoff.toMillis() << (attempt - 1);
+      Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+    }
+  }
+
+  /**
+   * Inserts the rows in one transaction; returns the number of new mappings. Rewritten batches
+   * report {@code SUCCESS_NO_INFO} even for rows skipped by {@code ON CONFLICT}, so the inserted
+   * rows are counted from the categories the statement returns instead.
+   */
+  static int write(Connection connection, List<String[]> rows) throws SQLException {
+    if (rows.isEmpty()) {
+      return 0;
+    }
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try (PreparedStatement ps = connection.prepareStatement(INSERT_QUERY, new String[] {"jeopardy_category"})) {
+      for (String[] row : rows) {
+        ps.setString(1, row[0]);
+        ps.setString(2, row[1]);
+        ps.addBatch();
+      }
+      ps.executeBatch();
+      int inserted = 0;
+      try (ResultSet rs = ps.getGeneratedKeys()) {
+        while (rs.next()) {
+          inserted++;
+        }
+      }
+      connection.commit();
+      return inserted;
+    } catch (SQLException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+
+  /**
+   * Writes the new mappings through to {@code clues_java.canonical_topic}, drops them from
+   * {@code unmapped_categories} and rebuilds {@code topic_stats}, like
+   * {@code ClueStorage rebuild-topic-stats}.
+   */
+  static void applyMappings(Connection connection) throws SQLException {
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try {
+      int remapped = CategoryTopics.remap(connection);
+      int rows = TopicStats.rebuild(connection);
+      connection.commit();
+      log.info("Remapped {} clues; {} topic rows", remapped, rows);
+    } catch (SQLException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+}
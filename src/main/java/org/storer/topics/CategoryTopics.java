@@ -0,0 +1,152 @@
+package org.storer.topics;
+
+import org.storer.meta.Clue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of {@code category_mappings}, loaded once per writer so that each row's
+ * {@code canonical_topic} is written at insert time instead of joined at query time. Keys are
+ * interned like {@link Clue#category()}, so most lookups succeed on reference equality. Lookups
+ * are thread-safe; the table itself is open-addressing with linear probing and never changes
+ * after {@link #load}.
+ */
+public final class CategoryTopics {
+
+  private static final float LOAD_FACTOR = 0.5f;
+
+  static final String QUEUE_UNMAPPED_QUERY =
+      "INSERT INTO unmapped_categories (jeopardy_category) VALUES (?) ON CONFLICT DO NOTHING";
+
+  // Re-derives clues_java.canonical_topic for rows whose mapping was added, changed or removed
+  static final String REMAP_QUERY =
+      "UPDATE clues_java c SET canonical_topic =" +
+      " (SELECT cm.canonical_topic FROM category_mappings cm WHERE cm.jeopardy_category = c.category)" +
+      " WHERE c.canonical_topic IS DISTINCT FROM" +
+      " (SELECT cm.canonical_topic FROM category_mappings cm WHERE cm.jeopardy_category = c.category)";
+
+  static final String DEQUEUE_MAPPED_QUERY =
+      "DELETE FROM unmapped_categories u WHERE EXISTS" +
+      " (SELECT 1 FROM category_mappings cm WHERE cm.jeopardy_category = u.jeopardy_category)";
+
+  private final String[] keys;
+  private final String[] topics;
+  private final int size;
+  // Unmapped categories queued in committed transactions, so each is written once per run
+  private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+  CategoryTopics(List<String> categories, List<String> canonicalTopics) {
+    int capacity = Integer.highestOneBit(Math.max(4, (int) (categories.size() / LOAD_FACTOR)) - 1) << 1;
+    keys = new String[Math.max(capacity, 8)];
+    topics = new String[keys.length];
+    int mask = keys.length - 1;
+    int count = 0;
+    for (int n = 0; n < categories.size(); n++) {
+      String key = categories.get(n).intern();
+      int i = mix(key.hashCode()) & mask;
+      while (keys[i] != null && !keys[i].equals(key)) {
+        i = (i + 1) & mask;
+      }
+      if (keys[i] == null) {
+        count++;
+      }
+      keys[i] = key;
+      topics[i] = canonicalTopics.get(n).intern();
+    }
+    size = count;
+  }
+
+  /** Reads all of {@code category_mappings}. */
+  public static CategoryTopics load(Connection connection) throws SQLException {
+    List<String> categories = new ArrayList<>();
+    List<String> canonicalTopics = new ArrayList<>();
+    try (Statement stmt = connection.createStatement();
+      ResultSet rs = stmt.executeQuery(
+          "SELECT jeopardy_category, canonical_topic FROM category_mappings")) {
+      while (rs.next()) {
+        categories.add(rs.getString(1));
+        canonicalTopics.add(rs.getString(2));
+      }
+    }
+    return new CategoryTopics(categories, canonicalTopics);
+  }
+
+  /** Canonical topic of {@code category}, or null if it has no mapping. */
+  public String topic(String category) {
+    if (category == null) {
+      return null;
+    }
+    int mask = keys.length - 1;
+    int i = mix(category.hashCode()) & mask;
+    String key;
+    while ((key = keys[i]) != null) {
+      if (key == category || key.equals(category)) {
+        return topics[i];
+      }
+      i = (i + 1) & mask;
+    }
+    return null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Adds the batch's unmapped categories to {@code unmapped_categories} for the normalization
+   * pipeline, skipping ones this instance has already queued. Runs in the caller's transaction;
+   * once it commits, pass the returned categories to {@link #markQueued}, so a rollback leaves
+   * them to be queued again.
+   */
+  public List<String> queueUnmapped(Connection connection, List<Clue> clues) throws SQLException {
+    Set<String> pending = new LinkedHashSet<>();
+    for (Clue clue : clues) {
+      String category = clue.category();
+      if (category != null && topic(category) == null && !queued.contains(category)) {
+        pending.add(category);
+      }
+    }
+    if (pending.isEmpty()) {
+      return List.of();
+    }
+    try (PreparedStatement ps = connection.prepareStatement(QUEUE_UNMAPPED_QUERY)) {
+      for (String category : pending) {
+        ps.setString(1, category);
+        ps.addBatch();
+      }
+      ps.executeBatch();
+    }
+    return new ArrayList<>(pending);
+  }
+
+  /** Records categories returned by {@link #queueUnmapped} whose transaction has committed. */
+  public void markQueued(List<String> categories) {
+    queued.addAll(categories);
+  }
+
+  /**
+   * Brings {@code clues_java.canonical_topic} and {@code unmapped_categories} in line with the
+   * current {@code category_mappings}; returns the number of clue rows updated.
+   */
+  public static int remap(Connection connection) throws SQLException {
+    try (Statement stmt = connection.createStatement()) {
+      int updated = stmt.executeUpdate(REMAP_QUERY);
+      stmt.executeUpdate(DEQUEUE_MAPPED_QUERY);
+      return updated;
+    }
+  }
+
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
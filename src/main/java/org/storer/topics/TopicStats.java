@@ -0,0 +1,105 @@
+package org.storer.topics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps {@code topic_stats} (clue count, value sum and value count per canonical topic and round)
+ * in step with {@code clues_java}. Writers collect {@link #insertedIds} from each batch and pass
+ * them to {@link #add} in the same transaction, so rows skipped by {@code ON CONFLICT} are not
+ * counted twice. Statistics only cover rows with a {@code canonical_topic}; after
+ * {@code category_mappings} changes, run {@link CategoryTopics#remap} and then {@link #rebuild}.
+ */
+public final class TopicStats {
+
+  private static final String AGGREGATE =
+      "SELECT c.canonical_topic, c.round, COUNT(*) AS clue_count," +
+      " COALESCE(SUM(c.clue_value_int), 0) AS value_sum, COUNT(c.clue_value_int) AS value_count" +
+      " FROM clues_java c WHERE c.canonical_topic IS NOT NULL";
+
+  private static final String GROUP_BY = " GROUP BY c.canonical_topic, c.round";
+
+  private static final String MERGE_PREFIX = "MERGE INTO topic_stats t USING (";
+
+  // Parameters after the source query: the sign (+1 or -1), once per counter and once to keep a
+  // subtraction from creating rows for topics that were never counted
+  private static final String MERGE_SUFFIX =
+      ") s ON t.canonical_topic = s.canonical_topic AND t.round = s.round" +
+      " WHEN MATCHED THEN UPDATE SET" +
+      " clue_count = t.clue_count + ? * s.clue_count," +
+      " value_sum = t.value_sum + ? * s.value_sum," +
+      " value_count = t.value_count + ? * s.value_count" +
+      " WHEN NOT MATCHED AND ? > 0 THEN INSERT (canonical_topic, round, clue_count, value_sum, value_count)" +
+      " VALUES (s.canonical_topic, s.round, s.clue_count, s.value_sum, s.value_count)";
+
+  static final String ADD_QUERY =
+      MERGE_PREFIX + AGGREGATE + " AND c.id = ANY(?)" + GROUP_BY + MERGE_SUFFIX;
+
+  static final String SUBTRACT_GAME_QUERY =
+      MERGE_PREFIX + AGGREGATE + " AND c.game_id = ?" + GROUP_BY + MERGE_SUFFIX;
+
+  static final String REBUILD_QUERY =
+      "INSERT INTO topic_stats (canonical_topic, round, clue_count, value_sum, value_count) " +
+      AGGREGATE + GROUP_BY;
+
+  private TopicStats() {
+  }
+
+  /**
+   * Column names to pass to {@link Connection#prepareStatement(String, String[])} for an
+   * {@code ON CONFLICT DO NOTHING} insert into {@code clues_java}, so that it returns the ids of
+   * the rows it actually inserted (on PostgreSQL, via {@code RETURNING id}).
+   */
+  public static final String[] INSERTED_ID = {"id"};
+
+  /** Ids of the rows inserted by the last execution of a statement prepared with {@link #INSERTED_ID}. */
+  public static List<String> insertedIds(PreparedStatement ps) throws SQLException {
+    List<String> ids = new ArrayList<>();
+    try (ResultSet rs = ps.getGeneratedKeys()) {
+      while (rs.next()) {
+        ids.add(rs.getString(1));
+      }
+    }
+    return ids;
+  }
+
+  /** Adds the stored rows with the given ids to their topics. */
+  public static void add(Connection connection, List<String> ids) throws SQLException {
+    if (ids.isEmpty()) {
+      return;
+    }
+    try (PreparedStatement ps = connection.prepareStatement(ADD_QUERY)) {
+      ps.setArray(1, connection.createArrayOf("varchar", ids.toArray()));
+      bindSign(ps, 1);
+      ps.executeUpdate();
+    }
+  }
+
+  /** Removes a game's stored rows from their topics; call before deleting them. */
+  public static void subtractGame(Connection connection, int gameId) throws SQLException {
+    try (PreparedStatement ps = connection.prepareStatement(SUBTRACT_GAME_QUERY)) {
+      ps.setInt(1, gameId);
+      bindSign(ps, -1);
+      ps.executeUpdate();
+    }
+  }
+
+  /** Recomputes the whole table from {@code clues_java}; returns the number of topic rows. */
+  public static int rebuild(Connection connection) throws SQLException {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.executeUpdate("DELETE FROM topic_stats");
+      return stmt.executeUpdate(REBUILD_QUERY);
+    }
+  }
+
+  private static void bindSign(PreparedStatement ps, int sign) throws SQLException {
+    for (int i = 2; i <= 5; i++) {
+      ps.setInt(i, sign);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package org.storer.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.storer.metrics.Metrics;
+
+import java.time.Duration;
+
+/**
+ * Picks rows per {@code executeBatch} and batches per commit from measured batch latency. Each
+ * timed batch updates a smoothed cost per row. The next size is the row count that should take
+ * {@code targetLatency}, moving at most 2× per step and clamped to {@code [min, max]}, where
+ * {@code max} is the memory cap. Commits happen every {@link #batchesPerCommit} batches, enough to
+ * fill {@link #COMMIT_TARGET_MULTIPLE} × the target latency. Under contention, batches and
+ * transactions both shrink, so locks are held for less time. Size changes are logged and
+ * published as gauges. Thread-safe, so concurrent writers can share one instance.
+ */
+public final class AdaptiveBatchSize {
+
+  private static final Logger log = LoggerFactory.getLogger(AdaptiveBatchSize.class);
+
+  static final int COMMIT_TARGET_MULTIPLE = 4;
+  static final int MAX_BATCHES_PER_COMMIT = 16;
+  private static final double SMOOTHING = 0.3;
+  private static final double MAX_STEP = 2.0;
+  // Logs only changes of at least this factor, so small oscillations stay quiet
+  private static final double LOG_CHANGE = 1.25;
+
+  private final String name;
+  private final int min;
+  private final int max;
+  private final long targetNanos;
+
+  private volatile int size;
+  private volatile int batchesPerCommit = 1;
+  // Guarded by this
+  private double nanosPerRow = -1;
+  private int loggedSize;
+  private int loggedBatchesPerCommit = 1;
+  private int smallest;
+  private int largest;
+
+  public AdaptiveBatchSize(String name, int initial, int min, int max, Duration targetLatency) {
+    if (min < 1 || max < min || initial < min || initial > max || targetLatency.isNegative()
+        || targetLatency.isZero()) {
+      throw new IllegalArgumentException("Need 1 <= min <= initial <= max and a positive target latency");
+    }
+    this.name = name;
+    this.min = min;
+    this.max = max;
+    this.targetNanos = targetLatency.toNanos();
+    this.size = initial;
+    this.loggedSize = initial;
+    this.smallest = initial;
+    this.largest = initial;
+    Metrics.gauge("batch." + name + ".size", this::size);
+    Metrics.gauge("batch." + name + ".batchesPerCommit", this::batchesPerCommit);
+  }
+
+  /** Rows to send in the next {@code executeBatch}. */
+  public int size() {
+    return size;
+  }
+
+  /** Batches to execute before committing. */
+  public int batchesPerCommit() {
+    return batchesPerCommit;
+  }
+
+  /** Rows per transaction, {@link #size} × {@link #batchesPerCommit}, capped at {@code limit}. */
+  public int transactionRows(int limit) {
+    return (int) Math.min(limit, (long) size * batchesPerCommit);
+  }
+
+  /** Feeds back one {@code executeBatch} of {@code rows} that took {@code elapsedNanos}. */
+  public synchronized void record(int rows, long elapsedNanos) {
+    if (rows <= 0) {
+      return;
+    }
+    double observed = Math.max(elapsedNanos, 1) / (double) rows;
+    nanosPerRow = nanosPerRow < 0 ? observed : nanosPerRow + SMOOTHING * (observed - nanosPerRow);
+
+    int current = size;
+    double desired = targetNanos / nanosPerRow;
+    desired = Math.clamp(desired, current / MAX_STEP, current * MAX_STEP);
+    int next = Math.clamp(Math.round(desired), min, max);
+    long commitNanos = (long) (COMMIT_TARGET_MULTIPLE * (double) targetNanos);
+    int commitEvery = Math.clamp(Math.round(commitNanos / (next * nanosPerRow)), 1, MAX_BATCHES_PER_COMMIT);
+    size = next;
+    batchesPerCommit = commitEvery;
+    smallest = Math.min(smallest, next);
+    largest = Math.max(largest, next);
+
+    if (next >= loggedSize * LOG_CHANGE || next * LOG_CHANGE <= loggedSize || commitEvery != loggedBatchesPerCommit) {
+      log.info("{}: batch size {} -> {} rows, commit every {} batches ({} µs/row, target {} ms)", name,
+          loggedSize, next, commitEvery, String.format("%.1f", nanosPerRow / 1_000), targetNanos / 1_000_000);
+      loggedSize = next;
+      loggedBatchesPerCommit = commitEvery;
+    }
+  }
+
+  /** One-line summary of the sizes chosen so far, for end-of-run logs. */
+  public synchronized String summary() {
+    return String.format("%s: batch size %d rows (range %d-%d), commit every %d batches", name, size,
+        smallest, largest, batchesPerCommit);
+  }
+}
@@ -0,0 +1,110 @@
+package org.storer.util;
+
+import java.util.Arrays;
+
+/** Open-addressing set of primitive ints with linear probing. Not thread-safe. */
+public class IntHashSet {
+
+  private static final int EMPTY = 0;
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private int[] slots;
+  private int size;
+  private boolean containsEmptyKey;
+
+  public IntHashSet() {
+    this(16);
+  }
+
+  public IntHashSet(int expectedSize) {
+    slots = new int[tableSizeFor(expectedSize)];
+  }
+
+  public boolean add(int value) {
+    if (value == EMPTY) {
+      if (containsEmptyKey) {
+        return false;
+      }
+      containsEmptyKey = true;
+      size++;
+      return true;
+    }
+    int mask = slots.length - 1;
+    int i = mix(value) & mask;
+    while (slots[i] != EMPTY) {
+      if (slots[i] == value) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+    slots[i] = value;
+    size++;
+    if (size > slots.length * LOAD_FACTOR) {
+      rehash(slots.length * 2);
+    }
+    return true;
+  }
+
+  public boolean contains(int value) {
+    if (value == EMPTY) {
+      return containsEmptyKey;
+    }
+    int mask = slots.length - 1;
+    int i = mix(value) & mask;
+    while (slots[i] != EMPTY) {
+      if (slots[i] == value) {
+        return true;
+      }
+      i = (i + 1) & mask;
+    }
+    return false;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int[] toArray() {
+    int[] values = new int[size];
+    int n = 0;
+    if (containsEmptyKey) {
+      values[n++] = EMPTY;
+    }
+    for (int slot : slots) {
+      if (slot != EMPTY) {
+        values[n++] = slot;
+      }
+    }
+    Arrays.sort(values);
+    return values;
+  }
+
+  private void rehash(int capacity) {
+    int[] old = slots;
+    slots = new int[capacity];
+    int mask = capacity - 1;
+    for (int value : old) {
+      if (value != EMPTY) {
+        int i = mix(value) & mask;
+        while (slots[i] != EMPTY) {
+          i = (i + 1) & mask;
+        }
+        slots[i] = value;
+      }
+    }
+  }
+
+  static int mix(int value) {
+    int h = value * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  static int tableSizeFor(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    return Math.max(capacity, 8);
+  }
+}
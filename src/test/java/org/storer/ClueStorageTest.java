@@ -0,0 +1,34 @@
+package org.storer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClueStorageTest {
+
+  private static final List<Integer> ALL = List.of(1, 2, 3);
+
+  @Test
+  void testSingleSeason() {
+    assertEquals(List.of(42), ClueStorage.parseSeasons("42", () -> fail("list should not be fetched")));
+  }
+
+  @Test
+  void testSeasonRange() {
+    assertEquals(List.of(40, 41, 42), ClueStorage.parseSeasons("40-42", () -> ALL));
+  }
+
+  @Test
+  void testAllSeasons() {
+    assertEquals(ALL, ClueStorage.parseSeasons("all", () -> ALL));
+  }
+
+  @Test
+  void testInvalidSpecs() {
+    assertThrows(NumberFormatException.class, () -> ClueStorage.parseSeasons("42-40", () -> ALL));
+    assertThrows(NumberFormatException.class, () -> ClueStorage.parseSeasons("forty", () -> ALL));
+    assertThrows(NumberFormatException.class, () -> ClueStorage.parseSeasons("40-", () -> ALL));
+  }
+}
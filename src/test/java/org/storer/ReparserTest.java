@@ -0,0 +1,47 @@
+package org.storer;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.storer.archive.PageArchive;
+import org.storer.meta.Clue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReparserTest {
+
+  private static final Path FIXTURE = Path.of("src/test/java/testFiles/game9036.html");
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void testReparseMatchesDirectScrape() throws Exception {
+    Scraper scraper = new Scraper(new ScraperHelper());
+    String html = Files.readString(FIXTURE, StandardCharsets.UTF_8);
+    String url = SeasonScraper.GAME_URL + "9036";
+    List<Clue> expected = scraper.scrapeGame(Jsoup.parse(html, url), 9036);
+
+    List<String> gameIds = new ArrayList<>();
+    List<Clue> reparsed = new ArrayList<>();
+    try (PageArchive archive = PageArchive.open(dir)) {
+      archive.append(url, 9036, html);
+      archive.append(SeasonScraper.GAME_URL + "1", 1, "<html><title>not a game</title></html>");
+
+      long count = new Reparser(scraper, archive).reparse((gameId, clues) -> {
+        gameIds.add(gameId);
+        reparsed.addAll(clues);
+      });
+      assertEquals(60, count);
+    }
+
+    assertEquals(List.of("9036", "1"), gameIds);
+    assertEquals(expected, reparsed);
+  }
+}
@@ -5,21 +5,26 @@ import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.storer.meta.Clue;
+import org.storer.meta.Round;
 
 import java.io.File;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class ScraperTest {
 
+  private Scraper scraper;
+  private Document doc;
   private List<Clue> clues;
 
   @BeforeEach
   void setUp() throws Exception {
-    Scraper scraper = new Scraper(new ScraperHelper());
+    scraper = new Scraper(new ScraperHelper());
     File file = new File("src/test/java/testFiles/game9036.html");
-    Document doc = Jsoup.parse(file, "UTF-8");
+    doc = Jsoup.parse(file, "UTF-8");
     clues = scraper.scrapeGame(doc, 9036);
   }
 
@@ -46,16 +51,16 @@ class ScraperTest {
 
   @Test
   void testAllRoundsPresent() {
-    assertTrue(clues.stream().anyMatch(c -> c.round().equals("J")));
-    assertTrue(clues.stream().anyMatch(c -> c.round().equals("DJ")));
-    assertTrue(clues.stream().anyMatch(c -> c.round().equals("FJ")));
+    assertTrue(clues.stream().anyMatch(c -> c.round() == Round.J));
+    assertTrue(clues.stream().anyMatch(c -> c.round() == Round.DJ));
+    assertTrue(clues.stream().anyMatch(c -> c.round() == Round.FJ));
   }
 
   @Test
   void testJeopardyClue() {
     // clue_J_1_1: ALASKAN CITIES $200
     Clue clue = clues.stream()
-        .filter(c -> c.round().equals("J")
+        .filter(c -> c.round() == Round.J
             && c.category().equals("ALASKAN CITIES")
             && c.clueValue().equals("$200"))
         .findFirst()
@@ -71,7 +76,7 @@ class ScraperTest {
   void testDoubleJeopardyClue() {
     // clue_DJ_1_1: HISTORIC WOMEN $400
     Clue clue = clues.stream()
-        .filter(c -> c.round().equals("DJ")
+        .filter(c -> c.round() == Round.DJ
             && c.category().equals("HISTORIC WOMEN")
             && c.clueValue().equals("$400"))
         .findFirst()
@@ -92,7 +97,7 @@ class ScraperTest {
   void testDailyDoubleNominalValue() {
     // clue_J_2_4: row 4 in J! round -> nominal value $800
     Clue dd = clues.stream()
-        .filter(c -> c.isDailyDouble() && c.round().equals("J"))
+        .filter(c -> c.isDailyDouble() && c.round() == Round.J)
         .findFirst()
         .orElseThrow(() -> new AssertionError("Expected J! Daily Double not found"));
 
@@ -102,7 +107,7 @@ class ScraperTest {
   @Test
   void testFinalJeopardyClue() {
     Clue fj = clues.stream()
-        .filter(c -> c.round().equals("FJ"))
+        .filter(c -> c.round() == Round.FJ)
         .findFirst()
         .orElseThrow(() -> new AssertionError("Expected FJ clue not found"));
 
@@ -110,4 +115,51 @@ class ScraperTest {
     assertEquals("Antarctica", fj.answer());
     assertFalse(fj.isDailyDouble());
   }
+
+  @Test
+  void testSinglePassMatchesSelectorPath() {
+    List<Clue> expected = SelectorScraper.scrapeGame(scraper, doc, 9036);
+    assertEquals(expected, clues);
+    assertEquals(expected.toString(), clues.toString());
+  }
+
+  @Test
+  void testIdsAreDeterministicAndUnique() throws Exception {
+    Set<Object> ids = clues.stream().map(Clue::id).collect(Collectors.toSet());
+    assertEquals(clues.size(), ids.size());
+    assertEquals(clues, scraper.scrapeGame(doc, 9036));
+    Clue first = clues.getFirst();
+    assertEquals(Scraper.clueId(9036, Round.J, 0, 1), first.id());
+  }
+
+  @Test
+  void testSinglePassSkipsUnrevealedClue() {
+    Document board = Jsoup.parse("""
+        <title>Show #1, aired 2024-01-01</title>
+        <table><tr><td class="category_name">ONLY</td></tr></table>
+        <table><tr>
+          <td class="clue"></td>
+          <td class="clue"><table><tr>
+            <td class="clue_value">$200</td>
+            <td id="clue_J_1_1" class="clue_text">Shown</td>
+            <td id="clue_J_1_1_r" class="clue_text"><em class="correct_response">answer</em></td>
+          </tr></table></td>
+        </tr></table>
+        """);
+    List<Clue> parsed = SelectorScraper.scrapeGame(scraper, board, 1);
+    assertEquals(1, parsed.size());
+    assertEquals(parsed, assertDoesNotThrow(() -> scraper.scrapeGame(board, 1)));
+  }
+
+  @Test
+  void testSeasonListKeepsNumericSeasonsInOrder() {
+    Document list = Jsoup.parse("""
+        <a href="showseason.php?season=42">Season 42</a>
+        <a href="showseason.php?season=goattournament">GOAT</a>
+        <a href="showseason.php?season=1">Season 1</a>
+        <a href="showseason.php?season=42">Season 42 again</a>
+        <a href="showplayer.php?player_id=1">Player</a>
+        """);
+    assertEquals(List.of(1, 42), scraper.scrapeSeasonList(list));
+  }
 }
@@ -0,0 +1,202 @@
+package org.storer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+import org.storer.util.IntHashSet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeasonFollowerTest {
+
+  private static final String LAST_MODIFIED = "Mon, 01 Sep 2025 00:00:00 GMT";
+
+  /** Serves the season list with Last-Modified and each season page with an ETag. */
+  private HttpServer server;
+  private final List<Integer> seasons = new CopyOnWriteArrayList<>(List.of(1, 2));
+  private final List<String> seasonTwoGames = new CopyOnWriteArrayList<>(List.of("10", "11"));
+  private final AtomicInteger fullResponses = new AtomicInteger();
+  private final AtomicInteger notModified = new AtomicInteger();
+  private String baseUrl;
+
+  /** Returns one clue per game, except for games listed in {@code failOnce} the first time. */
+  private static class StubScraper extends Scraper {
+    final List<Integer> scraped = new CopyOnWriteArrayList<>();
+    final Set<Integer> failOnce = ConcurrentHashMap.newKeySet();
+
+    StubScraper(PageFetcher fetcher) {
+      super(new ScraperHelper(), fetcher);
+    }
+
+    @Override
+    protected List<Clue> scrapeGame(String url, int gameNumber) {
+      scraped.add(gameNumber);
+      if (failOnce.remove(gameNumber)) {
+        return new ArrayList<>();
+      }
+      return List.of(new Clue(Scraper.clueId(gameNumber, Round.J, 0, 1), "CAT", Round.J, 0, 200, "q",
+          "answer", false, gameNumber, Clue.parseDate("2025-09-01")));
+    }
+  }
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/listseasons.php", exchange -> {
+      if (LAST_MODIFIED.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"))
+          && seasons.size() == 2) {
+        notModified(exchange);
+        return;
+      }
+      StringBuilder html = new StringBuilder("<html><body>");
+      for (int season : seasons) {
+        html.append("<a href=\"showseason.php?season=").append(season).append("\">Season</a>");
+      }
+      exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+      respond(exchange, html.append("</body></html>").toString());
+    });
+    server.createContext("/showseason.php", exchange -> {
+      String season = exchange.getRequestURI().getQuery().substring("season=".length());
+      List<String> games = season.equals("2") ? seasonTwoGames : List.of("20");
+      String etag = "\"" + season + "-" + games.size() + "\"";
+      if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        notModified(exchange);
+        return;
+      }
+      StringBuilder html = new StringBuilder("<html><body>");
+      for (String game : games) {
+        html.append("<a href=\"showgame.php?game_id=").append(game).append("\">Game</a>");
+      }
+      exchange.getResponseHeaders().add("ETag", etag);
+      respond(exchange, html.append("</body></html>").toString());
+    });
+    server.start();
+    baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  private void respond(HttpExchange exchange, String html) throws IOException {
+    fullResponses.incrementAndGet();
+    byte[] body = html.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private void notModified(HttpExchange exchange) throws IOException {
+    notModified.incrementAndGet();
+    exchange.sendResponseHeaders(304, -1);
+    exchange.close();
+  }
+
+  private SeasonFollower follower(StubScraper scraper) {
+    return new SeasonFollower(scraper, new SeasonScraper(scraper, 2, false), baseUrl + "listseasons.php",
+        baseUrl + "showseason.php?season=", 0);
+  }
+
+  @Test
+  void testOnlyNewGamesAreScraped() throws Exception {
+    StubScraper scraper = new StubScraper(new PageFetcher());
+    SeasonFollower follower = follower(scraper);
+    IntHashSet stored = new IntHashSet();
+    stored.add(10);
+    List<String> handled = Collections.synchronizedList(new ArrayList<>());
+
+    assertEquals(1, follower.poll(stored, (id, clues) -> handled.add(id), null));
+    assertEquals(List.of("11"), handled);
+    assertEquals(2, fullResponses.get());
+
+    assertEquals(0, follower.poll(stored, (id, clues) -> handled.add(id), null));
+    assertEquals(2, notModified.get());
+    assertEquals(2, fullResponses.get());
+    assertEquals(List.of(11), scraper.scraped);
+
+    seasonTwoGames.add("12");
+    assertEquals(1, follower.poll(stored, (id, clues) -> handled.add(id), null));
+    assertEquals(List.of("11", "12"), handled);
+    assertEquals(List.of(11, 12), scraper.scraped);
+  }
+
+  @Test
+  void testFailedGameRetriedWithoutRefetchingSeason() throws Exception {
+    StubScraper scraper = new StubScraper(new PageFetcher());
+    scraper.failOnce.add(11);
+    SeasonFollower follower = follower(scraper);
+    IntHashSet stored = new IntHashSet();
+
+    assertEquals(1, follower.poll(stored, (id, clues) -> { }, null));
+    assertFalse(stored.contains(11));
+    int responses = fullResponses.get();
+
+    assertEquals(1, follower.poll(stored, (id, clues) -> { }, null));
+    assertTrue(stored.contains(11));
+    assertEquals(responses, fullResponses.get());
+  }
+
+  @Test
+  void testSwitchesToNewSeason() throws Exception {
+    StubScraper scraper = new StubScraper(new PageFetcher());
+    SeasonFollower follower = follower(scraper);
+    IntHashSet stored = new IntHashSet();
+
+    assertEquals(2, follower.poll(stored, (id, clues) -> { }, null));
+    seasons.add(3);
+    assertEquals(1, follower.poll(stored, (id, clues) -> { }, null));
+    assertTrue(stored.contains(20));
+  }
+
+  @Test
+  void testGameRetriedWhenStoringFails() throws Exception {
+    StubScraper scraper = new StubScraper(new PageFetcher());
+    SeasonFollower follower = follower(scraper);
+    Set<Integer> failOnce = ConcurrentHashMap.newKeySet();
+    failOnce.add(11);
+    List<Integer> written = new CopyOnWriteArrayList<>();
+    Storer storer = new Storer(null) {
+      @Override
+      void insertTransaction(List<Clue> clues) throws SQLException {
+        int gameId = clues.getFirst().gameId();
+        if (failOnce.remove(gameId)) {
+          throw new SQLException("connection reset");
+        }
+        written.add(gameId);
+      }
+    };
+    IntHashSet stored = new IntHashSet();
+
+    try (ClueSink sink = storer.asyncSink(1, 4, 0)) {
+      SeasonScraper.GameHandler handler = (id, clues) -> sink.submit(clues);
+      assertEquals(1, follower.poll(stored, handler, sink));
+      assertTrue(stored.contains(10));
+      assertFalse(stored.contains(11));
+
+      assertEquals(1, follower.poll(stored, handler, sink));
+      assertTrue(stored.contains(11));
+      assertEquals(List.of(11, 11), scraper.scraped.stream().filter(id -> id == 11).toList());
+    }
+    assertEquals(Set.of(10, 11), Set.copyOf(written));
+  }
+}
@@ -0,0 +1,65 @@
+package org.storer;
+
+import org.junit.jupiter.api.Test;
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeasonScraperTest {
+
+  /** Returns one clue per game after a delay that shrinks with the game id. */
+  private static class StubScraper extends Scraper {
+    final AtomicInteger active = new AtomicInteger();
+    final AtomicInteger maxActive = new AtomicInteger();
+
+    StubScraper() {
+      super(new ScraperHelper());
+    }
+
+    @Override
+    protected List<Clue> scrapeGame(String url, int gameNumber) {
+      maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(40L - gameNumber * 5L);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        active.decrementAndGet();
+      }
+      return List.of(new Clue(Scraper.clueId(gameNumber, Round.J, 0, 1), "CAT", Round.J, 0, 200, url, "answer",
+          false, gameNumber, Clue.parseDate("2024-01-01")));
+    }
+  }
+
+  private final List<String> gameIds = List.of("1", "2", "3", "4", "5", "6");
+
+  @Test
+  void testOrderedDeliveryKeepsGameOrder() throws Exception {
+    List<String> delivered = new ArrayList<>();
+    new SeasonScraper(new StubScraper(), 4, true).scrape(gameIds, (id, clues) -> delivered.add(id));
+    assertEquals(gameIds, delivered);
+  }
+
+  @Test
+  void testUnorderedDeliversEveryGame() throws Exception {
+    List<String> delivered = new ArrayList<>();
+    new SeasonScraper(new StubScraper(), 6, false).scrape(gameIds, (id, clues) -> {
+      assertEquals(SeasonScraper.GAME_URL + id, clues.getFirst().question());
+      delivered.add(id);
+    });
+    assertEquals(6, delivered.size());
+    assertTrue(delivered.containsAll(gameIds));
+  }
+
+  @Test
+  void testInFlightBounded() throws Exception {
+    StubScraper scraper = new StubScraper();
+    new SeasonScraper(scraper, 2, true).scrape(gameIds, (id, clues) -> { });
+    assertTrue(scraper.maxActive.get() <= 2);
+  }
+}
@@ -0,0 +1,34 @@
+package org.storer;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.storer.meta.Clue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selector-based equivalent of {@link Scraper#scrapeGame(Document, int)}, which runs a CSS query
+ * per clue cell. The reference the single-pass board walk is checked and benchmarked against.
+ */
+final class SelectorScraper {
+
+  private SelectorScraper() {
+  }
+
+  static List<Clue> scrapeGame(Scraper scraper, Document doc, int gameNumber) {
+    int airDay = scraper.getAirDay(doc, gameNumber);
+
+    List<String> categories = new ArrayList<>();
+    for (Element element : doc.select(".category_name")) {
+      categories.add(element.text());
+    }
+
+    List<Scraper.ClueCell> cells = new ArrayList<>();
+    for (Element clue : doc.select("td.clue")) {
+      cells.add(new Scraper.ClueCell(clue.selectFirst("td.clue_text"), clue.selectFirst("td.clue_value"),
+          clue.selectFirst("td em.correct_response")));
+    }
+    return scraper.getClues(cells, categories, gameNumber, airDay);
+  }
+}
@@ -0,0 +1,315 @@
+package org.storer;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+import org.storer.util.IntHashSet;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorerTest {
+
+  private static HikariDataSource dataSource;
+  private static Storer storer;
+
+  @BeforeAll
+  static void setUpDatabase() throws Exception {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl("jdbc:h2:mem:storerdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+    config.setUsername("sa");
+    config.setPassword("");
+    dataSource = new HikariDataSource(config);
+    storer = new Storer(dataSource);
+
+    try (Connection conn = dataSource.getConnection();
+      Statement stmt = conn.createStatement()) {
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS clues_java (
+          id VARCHAR PRIMARY KEY,
+          category VARCHAR,
+          round VARCHAR,
+          category_number INT,
+          clue_value VARCHAR,
+          question TEXT,
+          answer TEXT,
+          is_daily_double BOOLEAN,
+          game_id INT,
+          game_date VARCHAR,
+          date_added VARCHAR,
+          clue_value_int INT,
+          air_date DATE,
+          canonical_topic VARCHAR
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS category_mappings (
+          jeopardy_category VARCHAR PRIMARY KEY,
+          canonical_topic VARCHAR NOT NULL
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS unmapped_categories (
+          jeopardy_category VARCHAR PRIMARY KEY,
+          queued_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS topic_stats (
+          canonical_topic VARCHAR NOT NULL,
+          round VARCHAR NOT NULL,
+          clue_count BIGINT NOT NULL,
+          value_sum BIGINT NOT NULL,
+          value_count BIGINT NOT NULL,
+          PRIMARY KEY (canonical_topic, round)
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS cluster_assignments (
+          clue_id VARCHAR PRIMARY KEY REFERENCES clues_java(id),
+          cluster_id INT NOT NULL,
+          cluster_label VARCHAR NOT NULL
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS clue_duplicates (
+          clue_id VARCHAR PRIMARY KEY REFERENCES clues_java(id) ON DELETE CASCADE,
+          duplicate_of VARCHAR NOT NULL REFERENCES clues_java(id) ON DELETE CASCADE,
+          similarity REAL NOT NULL
+        )
+      """);
+      stmt.execute("INSERT INTO category_mappings VALUES ('SCIENCE', 'Science')");
+    }
+  }
+
+  @AfterAll
+  static void tearDown() {
+    dataSource.close();
+  }
+
+  @BeforeEach
+  void clearTable() throws Exception {
+    try (Connection conn = dataSource.getConnection();
+      Statement stmt = conn.createStatement()) {
+      stmt.execute("DELETE FROM cluster_assignments");
+      stmt.execute("DELETE FROM clues_java");
+      stmt.execute("DELETE FROM topic_stats");
+      stmt.execute("DELETE FROM unmapped_categories");
+    }
+  }
+
+  private Clue clue(int gameId, String question) {
+    return new Clue(Scraper.clueId(gameId, Round.J, 0, question.hashCode()), "SCIENCE", Round.J, 0, 200,
+        question, "answer", false, gameId, Clue.parseDate("2024-10-29"));
+  }
+
+  private int count() throws Exception {
+    try (Connection conn = dataSource.getConnection();
+      ResultSet rs = conn.createStatement().executeQuery("SELECT COUNT(*) FROM clues_java")) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+  @Test
+  void testStoreClues() throws Exception {
+    storer.storeClues(List.of(clue(9036, "q1"), clue(9036, "q2")));
+    assertEquals(2, count());
+  }
+
+  @Test
+  void testRestoringGameIsIdempotent() throws Exception {
+    List<Clue> game = List.of(clue(9036, "q1"), clue(9036, "q2"));
+    storer.storeClues(game);
+    storer.storeClues(List.of(game.get(1), clue(9036, "q3")));
+    assertEquals(3, count());
+  }
+
+  private String scienceStats() throws Exception {
+    try (Connection conn = dataSource.getConnection();
+      ResultSet rs = conn.createStatement().executeQuery(
+          "SELECT clue_count, value_sum, value_count FROM topic_stats"
+              + " WHERE canonical_topic = 'Science' AND round = 'J'")) {
+      return rs.next() ? rs.getLong(1) + "/" + rs.getLong(2) + "/" + rs.getLong(3) : "none";
+    }
+  }
+
+  @Test
+  void testTopicStatsCountOnlyNewRows() throws Exception {
+    List<Clue> game = List.of(clue(9036, "q1"), clue(9036, "q2"));
+    storer.storeClues(game);
+    storer.storeClues(List.of(game.get(1), clue(9036, "q3")));
+    assertEquals("3/600/3", scienceStats());
+
+    assertEquals(1, storer.rebuildTopicStats());
+    assertEquals("3/600/3", scienceStats());
+  }
+
+  @Test
+  void testUnmappedCategoryQueuedUntilRemapped() throws Exception {
+    Clue unmapped = new Clue(Scraper.clueId(9036, Round.J, 1, 1), "CHEMISTRY", Round.J, 1, 400,
+        "q", "answer", false, 9036, Clue.parseDate("2024-10-29"));
+    storer.storeClues(List.of(clue(9036, "q1"), unmapped));
+    try (Connection conn = dataSource.getConnection();
+      Statement stmt = conn.createStatement()) {
+      ResultSet rs = stmt.executeQuery("SELECT jeopardy_category FROM unmapped_categories");
+      assertTrue(rs.next());
+      assertEquals("CHEMISTRY", rs.getString(1));
+      assertFalse(rs.next());
+      assertEquals("1/200/1", scienceStats());
+
+      stmt.execute("INSERT INTO category_mappings VALUES ('CHEMISTRY', 'Science')");
+      try {
+        assertEquals(1, storer.rebuildTopicStats());
+        assertEquals("2/600/2", scienceStats());
+        rs = stmt.executeQuery("SELECT COUNT(*) FROM clues_java WHERE canonical_topic = 'Science'");
+        rs.next();
+        assertEquals(2, rs.getInt(1));
+        rs = stmt.executeQuery("SELECT COUNT(*) FROM unmapped_categories");
+        rs.next();
+        assertEquals(0, rs.getInt(1));
+      } finally {
+        stmt.execute("DELETE FROM category_mappings WHERE jeopardy_category = 'CHEMISTRY'");
+      }
+    }
+  }
+
+  @Test
+  void testReplaceGameUpdatesTopicStats() throws Exception {
+    storer.storeClues(List.of(clue(9036, "q1"), clue(9036, "q2"), clue(9040, "q3")));
+    storer.replaceGame(9036, List.of(clue(9036, "q1")));
+    assertEquals(2, count());
+    assertEquals("2/400/2", scienceStats());
+  }
+
+  @Test
+  void testReplaceGameDropsClusterAssignments() throws Exception {
+    Clue kept = clue(9040, "q3");
+    storer.storeClues(List.of(clue(9036, "q1"), kept));
+    try (Connection conn = dataSource.getConnection();
+      Statement stmt = conn.createStatement()) {
+      stmt.execute("INSERT INTO cluster_assignments SELECT id, 0, 'science' FROM clues_java");
+    }
+
+    storer.replaceGame(9036, List.of(clue(9036, "q1")));
+
+    assertEquals(2, count());
+    try (Connection conn = dataSource.getConnection();
+      ResultSet rs = conn.createStatement().executeQuery("SELECT clue_id FROM cluster_assignments")) {
+      assertTrue(rs.next());
+      assertEquals(kept.id().toString(), rs.getString(1));
+      assertFalse(rs.next());
+    }
+  }
+
+  @Test
+  void testReplaceGameWithDuplicates() throws Exception {
+    storer.storeClues(List.of(clue(9036, "q1"), clue(9040, "q1"), clue(9040, "q2")));
+    try (Connection conn = dataSource.getConnection();
+      Statement stmt = conn.createStatement()) {
+      stmt.execute("INSERT INTO clue_duplicates SELECT c.id, k.id, 1.0 FROM clues_java c, clues_java k"
+          + " WHERE c.game_id = 9040 AND c.question = 'q1' AND k.game_id = 9036");
+    }
+
+    storer.replaceGame(9036, List.of(clue(9036, "q1")));
+
+    assertEquals(3, count());
+    try (Connection conn = dataSource.getConnection();
+      ResultSet rs = conn.createStatement().executeQuery("SELECT COUNT(*) FROM clue_duplicates")) {
+      rs.next();
+      assertEquals(0, rs.getInt(1));
+    }
+  }
+
+  @Test
+  void testLoadStoredGameIds() {
+    storer.storeClues(List.of(clue(9036, "q1"), clue(9036, "q2"), clue(9040, "q3")));
+    IntHashSet gameIds = storer.loadStoredGameIds();
+    assertEquals(2, gameIds.size());
+    assertTrue(gameIds.contains(9036));
+    assertTrue(gameIds.contains(9040));
+    assertFalse(gameIds.contains(9041));
+  }
+
+  @Test
+  void testAsyncSinkCombinesGames() throws Exception {
+    try (ClueSink sink = storer.asyncSink(3, 4, 50)) {
+      sink.submit(List.of(clue(1, "q1"), clue(1, "q2")));
+      sink.submit(List.of(clue(2, "q3"), clue(2, "q4")));
+      sink.submit(List.of());
+      sink.flush();
+      assertEquals(4, count());
+      sink.submit(List.of(clue(3, "q5")));
+    }
+    assertEquals(5, count());
+  }
+
+  @Test
+  void testAsyncSinkReportsFailures() {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl("jdbc:h2:mem:emptydb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+    config.setUsername("sa");
+    config.setPassword("");
+    try (HikariDataSource empty = new HikariDataSource(config)) {
+      ClueSink sink = new Storer(empty).asyncSink(100, 4, 0);
+      sink.submit(List.of(clue(1, "q1")));
+      sink.submit(List.of(clue(2, "q2")));
+      IllegalStateException error = assertThrows(IllegalStateException.class, sink::flush);
+      assertTrue(error.getMessage().contains("2 games"));
+      sink.close(); // failures were already reported by flush
+    }
+  }
+
+  @Test
+  void testAsyncSinkReportsRuntimeFailures() throws Exception {
+    Storer failing = new Storer(dataSource) {
+      @Override
+      void insertTransaction(List<Clue> clues) throws SQLException {
+        if (clues.getFirst().gameId() == 2) {
+          throw new IllegalStateException("no category mappings");
+        }
+        super.insertTransaction(clues);
+      }
+    };
+    try (ClueSink sink = failing.asyncSink(1, 4, 0)) {
+      sink.submit(List.of(clue(2, "q1")));
+      IllegalStateException error = assertThrows(IllegalStateException.class, sink::flush);
+      assertTrue(error.getMessage().contains("1 games"));
+      sink.submit(List.of(clue(1, "q2")));
+      sink.flush();
+    }
+    assertEquals(1, count());
+  }
+
+  @Test
+  @Timeout(10)
+  void testAsyncSinkFailsFastWhenWriterDies() {
+    Storer failing = new Storer(dataSource) {
+      @Override
+      void insertTransaction(List<Clue> clues) {
+        throw new AssertionError("writer killed");
+      }
+    };
+    ClueSink sink = failing.asyncSink(1, 1, 0);
+    sink.submit(List.of(clue(1, "q1")));
+    IllegalStateException error = assertThrows(IllegalStateException.class, () -> {
+      for (int i = 0; i < 5; i++) {
+        sink.submit(List.of(clue(1, "q" + i)));
+      }
+      sink.flush();
+    });
+    assertInstanceOf(AssertionError.class, error.getCause());
+    assertThrows(IllegalStateException.class, sink::close);
+  }
+}
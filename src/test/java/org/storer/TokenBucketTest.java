@@ -0,0 +1,53 @@
+package org.storer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+  private final AtomicLong now = new AtomicLong();
+
+  @Test
+  void testBurstIsImmediate() {
+    TokenBucket bucket = new TokenBucket(2.0, 3, now::get);
+    assertEquals(0, bucket.reserve());
+    assertEquals(0, bucket.reserve());
+    assertEquals(0, bucket.reserve());
+  }
+
+  @Test
+  void testWaitsOnceEmpty() {
+    TokenBucket bucket = new TokenBucket(2.0, 1, now::get);
+    assertEquals(0, bucket.reserve());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.reserve());
+    // The second caller's reservation is queued behind the first
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), bucket.reserve());
+  }
+
+  @Test
+  void testRefillsOverTime() {
+    TokenBucket bucket = new TokenBucket(2.0, 1, now::get);
+    bucket.reserve();
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+    assertEquals(0, bucket.reserve());
+  }
+
+  @Test
+  void testRefillCappedAtBurst() {
+    TokenBucket bucket = new TokenBucket(10.0, 2, now::get);
+    now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+    assertEquals(0, bucket.reserve());
+    assertEquals(0, bucket.reserve());
+    assertTrue(bucket.reserve() > 0);
+  }
+
+  @Test
+  void testPageFetcherHostKey() {
+    assertEquals("j-archive.com", PageFetcher.hostKey("https://www.j-archive.com/showseason.php?season=42"));
+    assertEquals("j-archive.com", PageFetcher.hostKey("https://J-Archive.com/showgame.php?game_id=1"));
+  }
+}
@@ -0,0 +1,90 @@
+package org.storer.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageArchiveTest {
+
+  private static final String SEASON_URL = "https://www.j-archive.com/showseason.php?season=41";
+  private static final String GAME_URL = "https://j-archive.com/showgame.php?game_id=9036";
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void testAppendAndRead() throws Exception {
+    try (PageArchive archive = PageArchive.open(dir)) {
+      PageArchive.Entry season = archive.append(SEASON_URL, -1, "<html>season</html>");
+      PageArchive.Entry game = archive.append(GAME_URL, 9036, "<html>game ✓</html>");
+      assertEquals("<html>season</html>", archive.read(season));
+      assertEquals("<html>game ✓</html>", archive.read(game));
+      assertTrue(game.offset() > season.offset());
+    }
+  }
+
+  @Test
+  void testIndexSurvivesReopen() throws Exception {
+    try (PageArchive archive = PageArchive.open(dir)) {
+      archive.append(SEASON_URL, -1, "<html>season</html>");
+      archive.append(GAME_URL, 9036, "<html>first</html>");
+    }
+    try (PageArchive archive = PageArchive.open(dir)) {
+      archive.append(GAME_URL, 9036, "<html>second</html>");
+      assertEquals(3, archive.entries().size());
+    }
+    try (PageArchive archive = PageArchive.open(dir)) {
+      assertEquals(3, archive.entries().size());
+      assertEquals("<html>second</html>", archive.read(archive.lookup(GAME_URL).orElseThrow()));
+      assertEquals("<html>second</html>", archive.read(archive.lookupGame(9036).orElseThrow()));
+      assertEquals("<html>season</html>", archive.read(archive.lookup(SEASON_URL).orElseThrow()));
+      assertTrue(archive.lookupGame(1).isEmpty());
+    }
+  }
+
+  @Test
+  void testTornAndCorruptIndexLinesAreDropped() throws Exception {
+    try (PageArchive archive = PageArchive.open(dir)) {
+      archive.append(SEASON_URL, -1, "<html>season</html>");
+    }
+    Path index = dir.resolve("index.tsv");
+    Files.writeString(index, "0\tabc\t1\t-1\thttps://bad\n0\t9", StandardOpenOption.APPEND);
+
+    try (PageArchive archive = PageArchive.open(dir)) {
+      assertEquals(1, archive.entries().size());
+      archive.append(GAME_URL, 9036, "<html>game</html>");
+    }
+    try (PageArchive archive = PageArchive.open(dir)) {
+      assertEquals(2, archive.entries().size());
+      assertEquals("<html>game</html>", archive.read(archive.lookupGame(9036).orElseThrow()));
+    }
+  }
+
+  @Test
+  void testLatestGamesSkipsNonGamePages() throws Exception {
+    try (PageArchive archive = PageArchive.open(dir)) {
+      archive.append(SEASON_URL, -1, "season");
+      archive.append(GAME_URL, 9036, "a");
+      archive.append("https://j-archive.com/showgame.php?game_id=9037", 9037, "b");
+      List<PageArchive.Entry> games = archive.latestGames();
+      assertEquals(List.of(9036, 9037), games.stream().map(PageArchive.Entry::gameId).toList());
+    }
+  }
+
+  @Test
+  void testPagesAreCompressed() throws Exception {
+    String html = "<td class=\"clue\">".repeat(10_000);
+    try (PageArchive archive = PageArchive.open(dir)) {
+      PageArchive.Entry entry = archive.append(GAME_URL, 9036, html);
+      assertTrue(entry.length() < html.length() / 10);
+      assertEquals(html, archive.read(entry));
+    }
+    assertTrue(Files.size(dir.resolve("segment-00000.dat")) < html.length() / 10);
+  }
+}
@@ -0,0 +1,139 @@
+package org.storer.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClueClustererTest {
+
+  private static final String[][] TOPICS = {
+      {"volcano", "lava", "magma", "eruption", "crater", "ash"},
+      {"symphony", "composer", "sonata", "orchestra", "concerto", "opus"},
+      {"senator", "congress", "ballot", "election", "senate", "vote"},
+  };
+
+  /** Questions mixing a few words of one topic with stop words and shared filler. */
+  private static List<String> corpus(int perTopic, List<Integer> topics) {
+    Random random = new Random(11);
+    List<String> questions = new ArrayList<>();
+    for (int i = 0; i < perTopic * TOPICS.length; i++) {
+      int topic = i % TOPICS.length;
+      StringBuilder question = new StringBuilder("This is the famous");
+      for (int w = 0; w < 4; w++) {
+        question.append(' ').append(TOPICS[topic][random.nextInt(TOPICS[topic].length)]);
+      }
+      question.append(random.nextBoolean() ? " of the year" : " in history");
+      questions.add(question.toString());
+      topics.add(topic);
+    }
+    return questions;
+  }
+
+  @Test
+  void testVectorsAreNormalizedWithoutStopWords() {
+    List<String> questions = List.of("The lava and the magma", "The the the", "Lava lava eruption");
+    TfIdfVectorizer.Vectors vectors = TfIdfVectorizer.vectorize(questions, 2, ForkJoinPool.commonPool());
+
+    assertEquals(Set.of("lava", "magma"), Set.of(vectors.terms()), "top two features by count");
+    assertEquals(0, vectors.rowStart()[2] - vectors.rowStart()[1], "stop words only");
+    for (int row : new int[] {0, 2}) {
+      double norm = 0;
+      for (int i = vectors.rowStart()[row]; i < vectors.rowStart()[row + 1]; i++) {
+        norm += vectors.weights()[i] * vectors.weights()[i];
+        if (i > vectors.rowStart()[row]) {
+          assertTrue(vectors.features()[i] > vectors.features()[i - 1]);
+        }
+      }
+      assertEquals(1.0, norm, 1e-5);
+    }
+  }
+
+  @Test
+  void testSeparatesTopicsAndLabelsClusters() {
+    List<Integer> topics = new ArrayList<>();
+    List<String> questions = corpus(200, topics);
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < questions.size(); i++) {
+      ids.add("id-" + i);
+    }
+
+    ClueClusterer clusterer = new ClueClusterer(3, 3, 100, 30, new ForkJoinPool(4));
+    ClueClusterer.Result result = clusterer.cluster(ids, questions);
+    int[] clusterOfTopic = {-1, -1, -1};
+    for (int i = 0; i < questions.size(); i++) {
+      int topic = topics.get(i);
+      if (clusterOfTopic[topic] < 0) {
+        clusterOfTopic[topic] = result.assignments()[i];
+      }
+      assertEquals(clusterOfTopic[topic], result.assignments()[i], "question " + i);
+    }
+    assertEquals(3, new HashSet<>(List.of(clusterOfTopic[0], clusterOfTopic[1], clusterOfTopic[2])).size());
+
+    for (int topic = 0; topic < TOPICS.length; topic++) {
+      ClueClusterer.Cluster cluster = result.clusters().get(clusterOfTopic[topic]);
+      assertEquals(200, cluster.size());
+      String firstWord = cluster.label().split(" \\| ")[0].toLowerCase();
+      assertTrue(List.of(TOPICS[topic]).contains(firstWord), cluster.label());
+    }
+
+    // Same seed, different parallelism: identical result
+    ClueClusterer.Result again = new ClueClusterer(3, 3, 100, 30, new ForkJoinPool(1)).cluster(ids, questions);
+    assertArrayEquals(result.assignments(), again.assignments());
+  }
+
+  @Test
+  void testReplacesClusterAssignments() throws Exception {
+    try (Connection connection = DriverManager.getConnection(
+        "jdbc:h2:mem:clusterdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE", "sa", "")) {
+      try (Statement stmt = connection.createStatement()) {
+        stmt.execute("CREATE TABLE clues_java (id VARCHAR PRIMARY KEY, question TEXT, air_date DATE)");
+        stmt.execute("""
+          CREATE TABLE cluster_assignments (
+            clue_id VARCHAR PRIMARY KEY REFERENCES clues_java(id),
+            cluster_id INT NOT NULL,
+            cluster_label VARCHAR NOT NULL
+          )
+        """);
+      }
+      List<Integer> topics = new ArrayList<>();
+      List<String> questions = corpus(20, topics);
+      try (PreparedStatement ps = connection.prepareStatement(
+          "INSERT INTO clues_java (id, question, air_date) VALUES (?, ?, ?)")) {
+        for (int i = 0; i < questions.size(); i++) {
+          ps.setString(1, String.format("id-%03d", i));
+          ps.setString(2, questions.get(i));
+          ps.setObject(3, LocalDate.of(2000 + i % 2, 1, 1));
+          ps.executeUpdate();
+        }
+      }
+
+      ClueClusterer clusterer = new ClueClusterer(3, 2, 100, 20, ForkJoinPool.commonPool());
+      ClueClusterer.write(connection, clusterer.run(connection, null));
+      ClueClusterer.Result recent = clusterer.run(connection, LocalDate.of(2001, 1, 1));
+      assertEquals(30, recent.clueIds().size());
+      ClueClusterer.write(connection, recent);
+
+      try (Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery(
+            "SELECT COUNT(*), COUNT(DISTINCT cluster_id), MIN(cluster_label) FROM cluster_assignments")) {
+        assertTrue(rs.next());
+        assertEquals(30, rs.getInt(1));
+        assertEquals(3, rs.getInt(2));
+        assertTrue(rs.getString(3).contains(" | "));
+      }
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package org.storer.dedupe;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClueDeduperTest {
+
+  private static final ClueDeduper DEDUPER = new ClueDeduper(ClueDeduper.DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+
+  @Test
+  void testFindsNearDuplicatesAndKeepsTheSmallestId() {
+    List<String> ids = List.of("a", "b", "c", "d", "e", "f", "g");
+    List<String> texts = List.of(
+        "This Roman emperor fiddled while the city burned | Nero",
+        "This early U.S. president appears on the $1 bill | George Washington",
+        "THIS ROMAN EMPEROR \"FIDDLED\" WHILE THE CITY BURNED... | nero",
+        " | ",
+        "This Roman general crossed the Rubicon in 49 B.C. | Julius Caesar",
+        " | ",
+        "This Roman emperor fiddled while the city burned! | Nero");
+
+    List<ClueDeduper.Duplicate> duplicates = DEDUPER.find(ids, texts, sameGroup(ids.size()));
+
+    assertEquals(2, duplicates.size(), duplicates.toString());
+    assertEquals("c", duplicates.get(0).clueId());
+    assertEquals("a", duplicates.get(0).duplicateOf());
+    assertEquals("g", duplicates.get(1).clueId());
+    assertEquals("a", duplicates.get(1).duplicateOf());
+    assertTrue(duplicates.get(0).similarity() >= ClueDeduper.DEFAULT_THRESHOLD);
+  }
+
+  private static int[] sameGroup(int rows) {
+    int[] groups = new int[rows];
+    Arrays.fill(groups, ClueDeduper.group(Date.valueOf("2024-10-29"), "J"));
+    return groups;
+  }
+
+  @Test
+  void testOnlyMergesCluesFromTheSameAirDateAndRound() {
+    String text = "This Roman emperor fiddled while the city burned | Nero";
+    String stub = "(video clue) | Default Correct Response";
+    List<String> ids = List.of("a", "b", "c", "d", "e", "f", "g");
+    List<String> texts = List.of(text, text, text, text, stub, stub, text);
+    int[] groups = {
+        ClueDeduper.group(Date.valueOf("2024-10-29"), "J"),
+        ClueDeduper.group(Date.valueOf("2019-03-04"), "J"),
+        ClueDeduper.group(Date.valueOf("2024-10-29"), "DJ"),
+        ClueDeduper.group(null, "J"),
+        ClueDeduper.group(Date.valueOf("2024-10-29"), "J"),
+        ClueDeduper.group(Date.valueOf("2024-10-30"), "J"),
+        ClueDeduper.group(Date.valueOf("2024-10-29"), "J"),
+    };
+
+    List<ClueDeduper.Duplicate> duplicates = DEDUPER.find(ids, texts, groups);
+
+    assertEquals(List.of(new ClueDeduper.Duplicate("g", "a", 1.0f)), duplicates);
+  }
+
+  @Test
+  void testChainMembersAreCheckedAgainstTheKeptClue() {
+    // Each text swaps a few more words, so neighbours match but the ends of the chain do not
+    String[] words = "the quick brown fox jumps over the lazy dog near the old river bank today".split(" ");
+    List<String> texts = new ArrayList<>();
+    for (int step = 0; step < 12; step++) {
+      String[] changed = words.clone();
+      for (int w = 0; w < step; w++) {
+        changed[w] = "x" + w;
+      }
+      texts.add(String.join(" ", changed) + " | answer");
+    }
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < texts.size(); i++) {
+      ids.add(String.format("%02d", i));
+    }
+
+    ClueDeduper loose = new ClueDeduper(0.5f, ForkJoinPool.commonPool());
+    for (ClueDeduper.Duplicate duplicate : loose.find(ids, texts, sameGroup(ids.size()))) {
+      assertTrue(duplicate.similarity() >= 0.5f, duplicate.toString());
+    }
+  }
+
+  @Test
+  void testRecallAndPrecisionOnALargerCorpus() {
+    Random random = new Random(17);
+    String[] vocabulary = new String[5_000];
+    for (int i = 0; i < vocabulary.length; i++) {
+      vocabulary[i] = Integer.toString(i * 7919 + 100_000, 36);
+    }
+    List<String> texts = new ArrayList<>();
+    List<Integer> groups = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      groups.add(random.nextInt(100) * 4);
+      StringBuilder text = new StringBuilder();
+      for (int w = 0; w < 14; w++) {
+        text.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+      }
+      texts.add(text.append("| ").append(vocabulary[random.nextInt(vocabulary.length)]).toString());
+    }
+    // Plant 500 copies that differ by one trailing word and punctuation
+    Map<Integer, Integer> planted = new HashMap<>();
+    for (int i = 0; i < 500; i++) {
+      int original = i * 40;
+      planted.put(texts.size(), original);
+      groups.add(groups.get(original));
+      texts.add(texts.get(original).toUpperCase().replace(" |", ", ok |") + "!");
+    }
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < texts.size(); i++) {
+      ids.add(String.format("%06d", i));
+    }
+
+    List<ClueDeduper.Duplicate> duplicates =
+        DEDUPER.find(ids, texts, groups.stream().mapToInt(Integer::intValue).toArray());
+
+    int found = 0;
+    for (ClueDeduper.Duplicate duplicate : duplicates) {
+      Integer original = planted.get(Integer.parseInt(duplicate.clueId()));
+      assertNotNull(original, "false positive " + duplicate);
+      assertEquals(original.intValue(), Integer.parseInt(duplicate.duplicateOf()));
+      found++;
+    }
+    assertTrue(found >= 490, "found " + found + " of 500");
+  }
+
+  @Test
+  void testReplacesClueDuplicates() throws Exception {
+    try (Connection connection = DriverManager.getConnection(
+        "jdbc:h2:mem:dedupedb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE", "sa", "")) {
+      try (Statement stmt = connection.createStatement()) {
+        stmt.execute("CREATE TABLE clues_java (id VARCHAR PRIMARY KEY, question TEXT, answer TEXT,"
+            + " air_date DATE, round VARCHAR)");
+        stmt.execute("""
+          CREATE TABLE clue_duplicates (
+            clue_id VARCHAR PRIMARY KEY REFERENCES clues_java(id) ON DELETE CASCADE,
+            duplicate_of VARCHAR NOT NULL REFERENCES clues_java(id) ON DELETE CASCADE,
+            similarity REAL NOT NULL
+          )
+        """);
+      }
+      try (PreparedStatement ps = connection.prepareStatement(
+          "INSERT INTO clues_java VALUES (?, ?, ?, DATE '2024-10-29', ?)")) {
+        String[][] rows = {
+            {"2", "Its capital is Canberra", "Australia", "J"},
+            {"1", "Its capital is Canberra.", "australia", "J"},
+            {"3", "Its capital is Ottawa", "Canada", "J"},
+            {"4", null, null, "J"},
+            {"5", "Its capital is Canberra", "Australia", "DJ"},
+        };
+        for (String[] row : rows) {
+          ps.setString(1, row[0]);
+          ps.setString(2, row[1]);
+          ps.setString(3, row[2]);
+          ps.setString(4, row[3]);
+          ps.executeUpdate();
+        }
+      }
+
+      ClueDeduper.write(connection, DEDUPER.run(connection));
+      ClueDeduper.write(connection, DEDUPER.run(connection));
+
+      try (Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT clue_id, duplicate_of, similarity FROM clue_duplicates")) {
+        assertTrue(rs.next());
+        assertEquals("2", rs.getString(1));
+        assertEquals("1", rs.getString(2));
+        assertEquals(1.0f, rs.getFloat(3));
+        assertFalse(rs.next());
+      }
+    }
+  }
+}
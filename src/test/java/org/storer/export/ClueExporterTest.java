@@ -0,0 +1,222 @@
+package org.storer.export;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClueExporterTest {
+
+  private static final UUID FIRST = UUID.nameUUIDFromBytes("1|J|0|1".getBytes());
+  private static final UUID SECOND = UUID.nameUUIDFromBytes("1|FJ|12|0".getBytes());
+  private static final UUID THIRD = UUID.nameUUIDFromBytes("2|DJ|6|3".getBytes());
+
+  private static Connection connection;
+
+  @TempDir
+  Path dir;
+
+  @BeforeAll
+  static void setUpDatabase() throws Exception {
+    connection = DriverManager.getConnection(
+        "jdbc:h2:mem:exportdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE", "sa", "");
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("""
+        CREATE TABLE clues_java (
+          id VARCHAR PRIMARY KEY,
+          category VARCHAR,
+          round VARCHAR,
+          category_number INT,
+          clue_value VARCHAR,
+          question TEXT,
+          answer TEXT,
+          is_daily_double BOOLEAN,
+          game_id INT,
+          game_date VARCHAR,
+          date_added VARCHAR,
+          clue_value_int INT,
+          air_date DATE,
+          canonical_topic VARCHAR
+        )
+      """);
+    }
+    insert(FIRST, "SCIENCE", "Science", "J", 0, 200, "Café \"au lait\"\twith\nnewline", "milk", false, 1,
+        "2024-10-29");
+    insert(SECOND, "SCIENCE", "Science", "FJ", 12, 0, "Final", null, false, 1, "2024-10-29");
+    insert(THIRD, "POTENT POTABLES", null, "DJ", 6, 1200, "Shaken", "martini", true, 2, null);
+  }
+
+  private static void insert(UUID id, String category, String topic, String round, int categoryNumber,
+                 int value, String question, String answer, boolean dailyDouble, int gameId, String date)
+      throws Exception {
+    try (PreparedStatement ps = connection.prepareStatement(
+        "INSERT INTO clues_java (id, category, canonical_topic, round, category_number, question, answer,"
+            + " is_daily_double, game_id, clue_value_int, air_date)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+      ps.setString(1, id.toString());
+      ps.setString(2, category);
+      ps.setString(3, topic);
+      ps.setString(4, round);
+      ps.setInt(5, categoryNumber);
+      ps.setString(6, question);
+      ps.setString(7, answer);
+      ps.setBoolean(8, dailyDouble);
+      ps.setInt(9, gameId);
+      ps.setInt(10, value);
+      ps.setObject(11, date == null ? null : LocalDate.parse(date));
+      ps.executeUpdate();
+    }
+  }
+
+  @AfterAll
+  static void tearDown() throws Exception {
+    connection.close();
+  }
+
+  private static final Clue FIRST_CLUE = new Clue(FIRST, "SCIENCE", Round.J, 0, 200,
+      "Café \"au lait\"\twith\nnewline", "milk", false, 1, Clue.parseDate("2024-10-29"));
+
+  private static ClueWriter collector(List<Clue> clues) {
+    return new ClueWriter() {
+      @Override
+      public void write(Clue clue, String topic) {
+        clues.add(clue);
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+
+  @Test
+  void testNdjsonEscapesAndNulls() throws Exception {
+    Path file = dir.resolve("clues.ndjson");
+    assertEquals(3, ClueExporter.export(connection, ExportFilter.ALL, true, ExportFormat.NDJSON, file));
+    assertTrue(connection.getAutoCommit());
+
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    assertEquals(3, lines.size());
+    assertEquals("{\"id\":\"" + FIRST + "\",\"category\":\"SCIENCE\",\"canonical_topic\":\"Science\","
+        + "\"round\":\"J\",\"category_number\":0,\"clue_value\":200,"
+        + "\"question\":\"Café \\\"au lait\\\"\\twith\\nnewline\",\"answer\":\"milk\","
+        + "\"is_daily_double\":false,\"game_id\":1,\"air_date\":\"2024-10-29\"}", lines.get(0));
+    assertTrue(lines.get(1).contains("\"answer\":null"), lines.get(1));
+    assertTrue(lines.get(2).contains("\"canonical_topic\":null"), lines.get(2));
+    assertTrue(lines.get(2).endsWith("\"game_id\":2,\"air_date\":null}"), lines.get(2));
+  }
+
+  @Test
+  void testGzippedTsvRoundTripsThroughCsvParser() throws Exception {
+    Path file = dir.resolve("clues.tsv.gz");
+    ClueExporter.export(connection, ExportFilter.ALL, false, ExportFormat.TSV, file);
+
+    List<CSVRecord> records;
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(file));
+      Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+      CSVParser parser = new CSVParser(reader, CSVFormat.TDF.builder().setHeader().build())) {
+      assertFalse(parser.getHeaderNames().contains("canonical_topic"));
+      records = parser.getRecords();
+    }
+    assertEquals(3, records.size());
+    assertEquals(FIRST_CLUE.question(), records.get(0).get("question"));
+    assertEquals("", records.get(1).get("answer"));
+    assertEquals("", records.get(2).get("air_date"));
+    assertEquals("true", records.get(2).get("is_daily_double"));
+  }
+
+  @Test
+  void testFiltersByDateAndRound() throws Exception {
+    List<Clue> clues = new ArrayList<>();
+    ClueWriter collect = collector(clues);
+
+    ExportFilter dated = new ExportFilter(LocalDate.of(2024, 10, 1), LocalDate.of(2024, 10, 31), Set.of());
+    assertEquals(2, ClueExporter.export(connection, dated, false, collect));
+    clues.clear();
+    ExportFilter rounds = new ExportFilter(null, null, Set.of(Round.J, Round.DJ));
+    assertEquals(2, ClueExporter.export(connection, rounds, false, collect));
+    assertEquals(List.of(FIRST, THIRD), clues.stream().map(Clue::id).toList());
+    ExportFilter both = new ExportFilter(LocalDate.of(2024, 10, 29), null, Set.of(Round.DJ));
+    assertEquals(0, ClueExporter.export(connection, both, false, collect));
+  }
+
+  @Test
+  void testSkipsUnknownRoundsAndKeepsNullValues() throws Exception {
+    UUID noValue = UUID.nameUUIDFromBytes("3|J|1|1".getBytes());
+    UUID noRound = UUID.nameUUIDFromBytes("3|?|2|1".getBytes());
+    insert(noValue, "LEGACY", null, "J", 1, 0, "Unparsed value", "a", false, 3, null);
+    insert(noRound, "LEGACY", null, null, 2, 400, "No round", "b", false, 3, null);
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("UPDATE clues_java SET clue_value_int = NULL WHERE id = '" + noValue + "'");
+
+      Path file = dir.resolve("legacy.ndjson");
+      assertEquals(4, ClueExporter.export(connection, ExportFilter.ALL, false, ExportFormat.NDJSON, file));
+      List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+      assertEquals(4, lines.size());
+      assertTrue(lines.get(3).contains("\"clue_value\":null"), lines.get(3));
+
+      Path tsv = dir.resolve("legacy.tsv");
+      ClueExporter.export(connection, ExportFilter.ALL, false, ExportFormat.TSV, tsv);
+      try (Reader reader = Files.newBufferedReader(tsv, StandardCharsets.UTF_8);
+        CSVParser parser = new CSVParser(reader, CSVFormat.TDF.builder().setHeader().build())) {
+        CSVRecord last = parser.getRecords().getLast();
+        assertEquals("Unparsed value", last.get("question"));
+        assertEquals("", last.get("clue_value"));
+      }
+    } finally {
+      try (Statement stmt = connection.createStatement()) {
+        stmt.execute("DELETE FROM clues_java WHERE game_id = 3");
+      }
+    }
+  }
+
+  @Test
+  void testColumnarRoundTripAcrossGroups() throws Exception {
+    List<Clue> expected = new ArrayList<>();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ColumnarWriter writer = new ColumnarWriter(bytes, true, 2)) {
+      ClueExporter.export(connection, ExportFilter.ALL, true, writer);
+      ClueExporter.export(connection, ExportFilter.ALL, true, collector(expected));
+    }
+
+    List<Clue> clues = new ArrayList<>();
+    List<String> topics = new ArrayList<>();
+    try (ColumnarReader reader = ColumnarReader.open(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertTrue(reader.topics());
+      assertEquals(3, reader.forEach((clue, topic) -> {
+        clues.add(clue);
+        topics.add(topic);
+      }));
+    }
+    assertEquals(expected, clues);
+    assertEquals(FIRST_CLUE, clues.getFirst());
+    assertEquals(Arrays.asList("Science", "Science", null), topics);
+  }
+}
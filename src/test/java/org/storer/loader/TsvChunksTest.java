@@ -0,0 +1,141 @@
+package org.storer.loader;
+
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.storer.meta.Clue;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TsvChunksTest {
+
+  private static final String HEADER =
+      "round\tclue_value\tdaily_double_value\tcategory\tcomments\tanswer\tquestion\tair_date\tnotes\n";
+
+  @TempDir
+  Path dir;
+
+  private Path write(String content) throws Exception {
+    Path file = dir.resolve("clues.tsv");
+    Files.writeString(file, content, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  /** Rows with quoted fields holding tabs, newlines and escaped quotes, plus bare quotes mid-field. */
+  private static String generate(int rows) {
+    Random random = new Random(7);
+    StringBuilder out = new StringBuilder(HEADER);
+    for (int i = 0; i < rows; i++) {
+      String question = switch (random.nextInt(4)) {
+        case 0 -> "\"Quoted\nacross\tlines, \"\"really\"\" " + i + "\"";
+        case 1 -> "Says \"hi\" mid-field " + i;
+        case 2 -> "  \"Padded quote\n" + i + "\"";
+        default -> "Plain café question " + i;
+      };
+      out.append(1 + random.nextInt(3)).append('\t').append(200 * (1 + random.nextInt(5))).append("\t0\t")
+          .append("CATEGORY ").append(i % 7).append("\t\t")
+          .append("answer ").append(i).append('\t')
+          .append(question).append('\t')
+          .append("1990-01-").append(String.format("%02d", 1 + i % 28)).append("\t\n");
+    }
+    return out.toString();
+  }
+
+  private static List<Clue> parseSerially(String content) throws Exception {
+    List<Clue> clues = new ArrayList<>();
+    try (CSVParser parser = new CSVParser(new StringReader(content), TsvLoader.tsvFormat())) {
+      for (CSVRecord record : parser) {
+        clues.add(TsvLoader.parseRecord(record));
+      }
+    }
+    return clues;
+  }
+
+  private static List<Clue> parseChunks(TsvChunks chunks) throws Exception {
+    List<Clue> clues = new ArrayList<>();
+    for (TsvChunks.Chunk chunk : chunks.chunks()) {
+      chunks.parse(chunk, clues::add);
+    }
+    return clues;
+  }
+
+  @Test
+  void testSplitsOnlyAtRecordBoundaries() throws Exception {
+    String content = generate(2_000);
+    Path file = write(content);
+    List<Clue> expected = parseSerially(content);
+
+    for (long pieceSize : new long[] {7, 64, 1_000, 1 << 20}) {
+      try (TsvChunks chunks = TsvChunks.open(file, pieceSize, 4)) {
+        assertEquals(HEADER.strip(), String.join("\t", chunks.header()));
+        assertEquals(expected, parseChunks(chunks), "piece size " + pieceSize);
+        for (TsvChunks.Chunk chunk : chunks.chunks()) {
+          assertTrue(chunk.end() > chunk.start());
+        }
+      }
+    }
+  }
+
+  @Test
+  void testFirstLineOfEachChunk() throws Exception {
+    String content = generate(500);
+    Path file = write(content);
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    try (TsvChunks chunks = TsvChunks.open(file, 100, 2)) {
+      assertTrue(chunks.chunks().size() > 10);
+      assertEquals(2, chunks.chunks().getFirst().firstLine());
+      for (TsvChunks.Chunk chunk : chunks.chunks()) {
+        long newlines = 0;
+        for (int i = 0; i < chunk.start(); i++) {
+          if (bytes[i] == '\n') {
+            newlines++;
+          }
+        }
+        assertEquals(1 + newlines, chunk.firstLine());
+        assertEquals('\n', bytes[(int) chunk.start() - 1]);
+      }
+    }
+  }
+
+  @Test
+  void testMalformedRecordReportsLine() throws Exception {
+    StringBuilder content = new StringBuilder(HEADER);
+    for (int i = 0; i < 50; i++) {
+      content.append("1\t200\t0\tGEOGRAPHY\t\tanswer\t\"two\nlines\"\t1990-01-01\t\n");
+    }
+    // Line 2 + 50 * 2 = 102
+    content.append("1\tnot-a-number\t0\tGEOGRAPHY\t\tanswer\tquestion\t1990-01-01\t\n");
+    Path file = write(content.toString());
+
+    try (TsvChunks chunks = TsvChunks.open(file, 128, 2)) {
+      TsvChunks.Chunk last = chunks.chunks().stream()
+          .max(Comparator.comparingLong(TsvChunks.Chunk::start)).orElseThrow();
+      IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+          () -> chunks.parse(last, clue -> { }));
+      assertEquals("Malformed record at line 102", e.getMessage());
+    }
+  }
+
+  @Test
+  void testHeaderOnlyAndCrlf() throws Exception {
+    try (TsvChunks chunks = TsvChunks.open(write(HEADER.strip()), 4)) {
+      assertTrue(chunks.chunks().isEmpty());
+      assertEquals(9, chunks.header().length);
+    }
+
+    String crlf = generate(200).replace("\t\n", "\t\r\n");
+    try (TsvChunks chunks = TsvChunks.open(write(crlf), 50, 3)) {
+      assertEquals(parseSerially(crlf), parseChunks(chunks));
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package org.storer.loader;
+
+import org.junit.jupiter.api.Test;
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TsvCopierTest {
+
+  private static final UUID ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+  private String row(Clue clue, String topic) {
+    StringBuilder out = new StringBuilder();
+    TsvCopier.appendRow(out, clue, "2026-01-01", topic);
+    return out.toString();
+  }
+
+  @Test
+  void testRowInColumnOrder() {
+    Clue clue = new Clue(ID, "GEOGRAPHY", Round.J, -1, 200, "This country's capital is Paris", "France",
+        false, 19840910, Clue.parseDate("1984-09-10"));
+    assertEquals(ID + "\tGEOGRAPHY\tJ\t-1\t$200\tThis country's capital is Paris\tFrance\tf\t19840910"
+        + "\t1984-09-10\t2026-01-01\t200\t1984-09-10\tGeography\n", row(clue, "Geography"));
+  }
+
+  @Test
+  void testSpecialCharactersEscaped() {
+    Clue clue = new Clue(ID, "A\tB", Round.DJ, -1, 400, "line one\nline two\r", "back\\slash",
+        true, 19840910, Clue.parseDate("1984-09-10"));
+    String row = row(clue, "History");
+    assertTrue(row.contains("A\\tB\t"));
+    assertTrue(row.contains("line one\\nline two\\r\t"));
+    assertTrue(row.contains("back\\\\slash\t"));
+    assertTrue(row.contains("\tt\t"));
+    assertEquals(14, row.split("\t", -1).length);
+  }
+
+  @Test
+  void testNullWrittenAsCopyNull() {
+    Clue clue = new Clue(ID, "SCIENCE", Round.J, -1, 200, "q", null, false, 0, Clue.NO_DATE);
+    String row = row(clue, null);
+    assertTrue(row.contains("\tq\t\\N\t"));
+    assertTrue(row.endsWith("\t200\t\\N\t\\N\n"));
+  }
+}
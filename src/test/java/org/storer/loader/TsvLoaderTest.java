@@ -6,12 +6,18 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.storer.topics.TopicStats;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,9 +48,36 @@ class TsvLoaderTest {
           is_daily_double BOOLEAN,
           game_id INT,
           game_date VARCHAR,
-          date_added VARCHAR
+          date_added VARCHAR,
+          clue_value_int INT,
+          air_date DATE,
+          canonical_topic VARCHAR
         )
       """);
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS category_mappings (
+          jeopardy_category VARCHAR PRIMARY KEY,
+          canonical_topic VARCHAR NOT NULL
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS unmapped_categories (
+          jeopardy_category VARCHAR PRIMARY KEY,
+          queued_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE IF NOT EXISTS topic_stats (
+          canonical_topic VARCHAR NOT NULL,
+          round VARCHAR NOT NULL,
+          clue_count BIGINT NOT NULL,
+          value_sum BIGINT NOT NULL,
+          value_count BIGINT NOT NULL,
+          PRIMARY KEY (canonical_topic, round)
+        )
+      """);
+      stmt.execute("INSERT INTO category_mappings VALUES ('GEOGRAPHY', 'Geography'), ('WORLD CAPITALS', 'Geography'),"
+          + " ('HISTORY', 'History')");
     }
   }
 
@@ -58,6 +91,8 @@ class TsvLoaderTest {
     try (Connection conn = dataSource.getConnection();
       Statement stmt = conn.createStatement()) {
       stmt.execute("DELETE FROM clues_java");
+      stmt.execute("DELETE FROM topic_stats");
+      stmt.execute("DELETE FROM unmapped_categories");
     }
   }
 
@@ -171,4 +206,93 @@ class TsvLoaderTest {
       assertEquals(-1,                           rs.getInt("category_number"));
     }
   }
+
+  @Test
+  void testTypedColumns() throws Exception {
+    load();
+    try (Connection conn = dataSource.getConnection();
+      ResultSet rs = conn.createStatement()
+          .executeQuery("SELECT id, clue_value_int, air_date FROM clues_java WHERE category = 'GEOGRAPHY'")) {
+      assertTrue(rs.next());
+      assertEquals(200, rs.getInt("clue_value_int"));
+      assertEquals(LocalDate.of(1984, 9, 10), rs.getObject("air_date", LocalDate.class));
+      // Same formula as before the typed model, so existing rows still deduplicate
+      assertEquals(UUID.nameUUIDFromBytes("J|GEOGRAPHY|This country's capital is Paris|1984-09-10"
+          .getBytes(StandardCharsets.UTF_8)).toString(), rs.getString("id"));
+    }
+  }
+
+  private List<String> topicStats() throws Exception {
+    List<String> rows = new ArrayList<>();
+    try (Connection conn = dataSource.getConnection();
+      ResultSet rs = conn.createStatement().executeQuery(
+          "SELECT * FROM topic_stats ORDER BY canonical_topic, round")) {
+      while (rs.next()) {
+        rows.add(rs.getString("canonical_topic") + " " + rs.getString("round") + " "
+            + rs.getLong("clue_count") + "/" + rs.getLong("value_sum") + "/" + rs.getLong("value_count"));
+      }
+    }
+    return rows;
+  }
+
+  @Test
+  void testTopicStatsMaintainedPerBatch() throws Exception {
+    load();
+    new TsvLoader(dataSource).loadParallel(FIXTURE, 2, 1);
+    List<String> expected = List.of("Geography FJ 1/0/1", "Geography J 1/200/1", "History DJ 1/800/1");
+    assertEquals(expected, topicStats());
+
+    try (Connection conn = dataSource.getConnection()) {
+      assertEquals(3, TopicStats.rebuild(conn));
+    }
+    assertEquals(expected, topicStats());
+  }
+
+  @Test
+  void testCanonicalTopicWrittenAndUnmappedQueued() throws Exception {
+    load();
+    new TsvLoader(dataSource).loadParallel(FIXTURE, 2, 1);
+    List<String> topics = new ArrayList<>();
+    List<String> unmapped = new ArrayList<>();
+    try (Connection conn = dataSource.getConnection();
+      Statement stmt = conn.createStatement()) {
+      try (ResultSet rs = stmt.executeQuery(
+          "SELECT category, canonical_topic FROM clues_java ORDER BY category")) {
+        while (rs.next()) {
+          topics.add(rs.getString(1) + "=" + rs.getString(2));
+        }
+      }
+      try (ResultSet rs = stmt.executeQuery("SELECT jeopardy_category FROM unmapped_categories")) {
+        while (rs.next()) {
+          unmapped.add(rs.getString(1));
+        }
+      }
+    }
+    assertEquals(List.of("GEOGRAPHY=Geography", "HISTORY=History", "SCIENCE=null",
+        "WORLD CAPITALS=Geography"), topics);
+    assertEquals(List.of("SCIENCE"), unmapped);
+  }
+
+  @Test
+  void testParallelLoadsAllRows() throws Exception {
+    new TsvLoader(dataSource).loadParallel(FIXTURE, 3, 2);
+    try (Connection conn = dataSource.getConnection();
+      ResultSet rs = conn.createStatement()
+          .executeQuery("SELECT COUNT(*) FROM clues_java")) {
+      rs.next();
+      assertEquals(4, rs.getInt(1));
+    }
+  }
+
+  @Test
+  void testParallelLoadMatchesSerialIds() throws Exception {
+    load();
+    new TsvLoader(dataSource).loadParallel(FIXTURE, 2, 1);
+    try (Connection conn = dataSource.getConnection();
+      ResultSet rs = conn.createStatement()
+          .executeQuery("SELECT COUNT(*) FROM clues_java")) {
+      rs.next();
+      assertEquals(4, rs.getInt(1)); // parallel re-run is idempotent against a serial load
+    }
+  }
 }
@@ -0,0 +1,83 @@
+package org.storer.loader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.storer.meta.Round;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TsvValidatorTest {
+
+  private static final String HEADER =
+      "round\tclue_value\tdaily_double_value\tcategory\tcomments\tanswer\tquestion\tair_date\tnotes\n";
+
+  @TempDir
+  Path dir;
+
+  private static String row(String round, String value, String category, String question, String airDate) {
+    return round + "\t" + value + "\t0\t" + category + "\t\tanswer\t" + question + "\t" + airDate + "\t\n";
+  }
+
+  private TsvValidator.Report validate(String content, long pieceSize) throws Exception {
+    Path file = dir.resolve("clues.tsv");
+    Files.writeString(file, content, StandardCharsets.UTF_8);
+    try (TsvChunks chunks = TsvChunks.open(file, pieceSize, 4)) {
+      return TsvValidator.validate(chunks, 4);
+    }
+  }
+
+  @Test
+  void testCleanFileCounts() throws Exception {
+    StringBuilder content = new StringBuilder(HEADER);
+    for (int i = 0; i < 300; i++) {
+      content.append(row(String.valueOf(1 + i % 3), "400", "CATEGORY " + i % 12, "\"Question\n" + i + "\"",
+          (1990 + i % 5) + "-03-01"));
+    }
+    content.append(row("1", "", "UNDATED", "Question without a date", ""));
+
+    TsvValidator.Report report = validate(content.toString(), 200);
+    assertTrue(report.clean(), report.format());
+    assertEquals(301, report.rows());
+    assertEquals(Map.of(Round.J, 101L, Round.DJ, 100L, Round.FJ, 100L), report.rounds());
+    assertEquals(List.of(1990, 1991, 1992, 1993, 1994), List.copyOf(report.years().keySet()));
+    assertEquals(60L, report.years().get(1990));
+    assertEquals(1, report.undated());
+    assertEquals(13, report.categories());
+  }
+
+  @Test
+  void testErrorsAndDuplicatesReportedWithLines() throws Exception {
+    StringBuilder content = new StringBuilder(HEADER);
+    for (int i = 0; i < 200; i++) {
+      content.append(row("1", "200", "GEOGRAPHY", "Question " + i, "1990-01-01"));
+    }
+    content.append(row("1", "abc", "GEOGRAPHY", "Bad value", "1990-01-01"));      // line 202
+    content.append(row("1", "200", "GEOGRAPHY", "Bad date", "1990-13-45"));       // line 203
+    content.append(row("7", "200", "GEOGRAPHY", "Bad round", "1990-01-01"));      // line 204
+    content.append(row("1", "200", "GEOGRAPHY", "Question 17", "1990-01-01"));    // line 205
+    content.append(row("1", "xyz", "GEOGRAPHY", "Another bad value", "1990-01-01"));
+    content.append("1\t200\n");                                                   // line 207
+
+    TsvValidator.Report report = validate(content.toString(), 100);
+    assertFalse(report.clean());
+    assertEquals(201, report.rows());
+    assertEquals(5, report.errorCount());
+    assertEquals(new TsvValidator.ErrorKind(2, List.of(202L, 206L)), report.errors().get("Invalid clue_value"));
+    assertEquals(List.of(203L), report.errors().get("Invalid air_date").sampleLines());
+    assertEquals(List.of(204L), report.errors().get("Unknown round").sampleLines());
+    assertEquals(List.of(207L), report.errors().get("Missing air_date").sampleLines());
+
+    assertEquals(1, report.duplicateCount());
+    TsvValidator.Duplicate duplicate = report.duplicates().getFirst();
+    assertEquals(19, duplicate.firstLine());
+    assertEquals(205, duplicate.line());
+    assertEquals(TsvLoader.clueId(Round.J, "GEOGRAPHY", "Question 17", "1990-01-01"), duplicate.id());
+    assertTrue(report.format().contains("Invalid clue_value: 2 (lines 202, 206)"), report.format());
+  }
+}
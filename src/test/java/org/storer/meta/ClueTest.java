@@ -2,36 +2,45 @@ package org.storer.meta;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.UUID;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ClueTest {
 
+  private static final UUID ID = UUID.nameUUIDFromBytes("1234|J|0|1".getBytes());
+
   private Clue buildClue(boolean isDailyDouble) {
     return new Clue(
+        ID,
         "SCIENCE",
-        "J",
+        Round.J,
         0,
-        "$200",
+        200,
         "This is the clue text",
         "What is the answer",
         isDailyDouble,
         1234,
-        "2024-10-29"
+        Clue.parseDate("2024-10-29")
     );
   }
 
   @Test
   void testAccessors() {
     Clue clue = buildClue(false);
+    assertEquals(ID, clue.id());
     assertEquals("SCIENCE", clue.category());
-    assertEquals("J", clue.round());
+    assertEquals(Round.J, clue.round());
     assertEquals(0, clue.categoryNumber());
+    assertEquals(200, clue.value());
     assertEquals("$200", clue.clueValue());
     assertEquals("This is the clue text", clue.question());
     assertEquals("What is the answer", clue.answer());
     assertFalse(clue.isDailyDouble());
     assertEquals(1234, clue.gameId());
     assertEquals("2024-10-29", clue.gameDate());
+    assertEquals(LocalDate.of(2024, 10, 29), clue.airDate());
   }
 
   @Test
@@ -47,4 +56,31 @@ class ClueTest {
     assertTrue(str.contains("This is the clue text"));
     assertTrue(str.contains("What is the answer"));
   }
+
+  @Test
+  void testParseValue() {
+    assertEquals(1000, Clue.parseValue("$1,000"));
+    assertEquals(400, Clue.parseValue("400"));
+    assertThrows(NumberFormatException.class, () -> Clue.parseValue("DD: $400"));
+  }
+
+  @Test
+  void testUnknownDate() {
+    Clue clue = new Clue(ID, "SCIENCE", Round.J, 0, 200, "q", "a", false, 0, Clue.parseDate(""));
+    assertEquals(Clue.NO_DATE, clue.airDay());
+    assertEquals("", clue.gameDate());
+    assertNull(clue.airDate());
+  }
+
+  @Test
+  void testUnknownValue() {
+    Clue clue = new Clue(ID, "SCIENCE", Round.J, 0, Clue.NO_VALUE, "q", "a", false, 0, 0);
+    assertEquals("", clue.clueValue());
+  }
+
+  @Test
+  void testCategoryInterned() {
+    Clue clue = new Clue(ID, new String("SCIENCE"), Round.J, 0, 200, "q", "a", false, 0, 0);
+    assertSame("SCIENCE", clue.category());
+  }
 }
@@ -0,0 +1,75 @@
+package org.storer.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+
+  @AfterEach
+  void tearDown() {
+    Metrics.reset();
+  }
+
+  @Test
+  void testNothingRecordedWhileDisabled() {
+    Histogram histogram = Metrics.timer("test.disabled");
+    assertEquals(0, Metrics.startTimer());
+    histogram.record(42);
+    histogram.recordSince(Metrics.startTimer());
+    assertEquals(0, histogram.getCount());
+  }
+
+  @Test
+  void testPercentilesWithinBucketError() {
+    Histogram histogram = Metrics.distribution("test.percentiles");
+    Metrics.Reporter reporter = Metrics.start(null, Duration.ofHours(1));
+    try (reporter) {
+      for (long value = 1; value <= 10_000; value++) {
+        histogram.record(value);
+      }
+    }
+    assertEquals(10_000, histogram.getCount());
+    assertEquals(10_000, histogram.getMax());
+    assertEquals(5_000.5, histogram.getMean(), 1e-9);
+    assertEquals(5_000, histogram.getP50(), 5_000 * 0.07);
+    assertEquals(9_900, histogram.getP99(), 9_900 * 0.07);
+    for (long value = 0; value < 100_000; value += 7) {
+      long estimate = Histogram.bucketValue(Histogram.bucket(value));
+      assertEquals(value, estimate, Math.max(1, value * 0.07), "value " + value);
+    }
+  }
+
+  @Test
+  void testPublishedOverJmxAndWrittenAsJson(@TempDir Path dir) throws Exception {
+    Histogram histogram = Metrics.timer("test.jmx");
+    Path json = dir.resolve("metrics.json");
+    Metrics.Reporter reporter = Metrics.start(json, Duration.ofHours(1));
+    try (reporter) {
+      Metrics.gauge("test.gauge", () -> 7);
+      histogram.record(3_000_000);
+
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      assertEquals(1L, server.getAttribute(
+          new ObjectName("org.storer:type=Histogram,name=\"test.jmx\""), "Count"));
+      assertEquals(7L, server.getAttribute(
+          new ObjectName("org.storer:type=Gauge,name=\"test.gauge\""), "Value"));
+      assertTrue(Metrics.summary().contains("test.jmx n=1"), Metrics.summary());
+    }
+
+    String written = Files.readString(json);
+    assertTrue(written.contains("\"test.jmx\": {\"unit\": \"nanos\", \"count\": 1, \"sum\": 3000000"),
+        written);
+    assertTrue(written.contains("\"test.gauge\": 7"), written);
+  }
+}
@@ -0,0 +1,95 @@
+package org.storer.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClueIndexTest {
+
+  private static final UUID TRUMAN = UUID.nameUUIDFromBytes("truman".getBytes());
+  private static final UUID FDR = UUID.nameUUIDFromBytes("fdr".getBytes());
+  private static final UUID CAFE = UUID.nameUUIDFromBytes("cafe".getBytes());
+  private static final UUID DEAL = UUID.nameUUIDFromBytes("deal".getBytes());
+
+  private ClueIndex index;
+
+  @TempDir
+  Path dir;
+
+  @BeforeEach
+  void setUp() {
+    IndexBuilder builder = new IndexBuilder();
+    builder.add(TRUMAN, "He followed the New Deal with the Fair Deal", "Harry Truman");
+    builder.add(FDR, "His New Deal programs began in 1933", "Franklin Roosevelt");
+    builder.add(CAFE, "A Parisian café serves this with a croissant", "Café au lait");
+    builder.add(DEAL, "In a card game, it's the act of passing out cards; a new one restarts play",
+        "Deal");
+    index = builder.build();
+  }
+
+  private static List<UUID> ids(List<ClueIndex.Hit> hits) {
+    return hits.stream().map(ClueIndex.Hit::id).toList();
+  }
+
+  @Test
+  void testSingleTermMatchesQuestionAndAnswer() {
+    assertEquals(List.of(TRUMAN), ids(index.search("truman", 10)));
+    assertEquals(3, index.search("deal", 10).size());
+    assertEquals(3, index.docFreq("deal"));
+    assertTrue(index.search("eisenhower", 10).isEmpty());
+  }
+
+  @Test
+  void testBooleanOperators() {
+    assertEquals(List.of(FDR), ids(index.search("deal 1933", 10)));
+    assertEquals(List.of(TRUMAN), ids(index.search("deal -roosevelt -card", 10)));
+    assertEquals(Set.of(FDR, CAFE), Set.copyOf(ids(index.search("roosevelt OR croissant", 10))));
+    assertTrue(index.search("-deal", 10).isEmpty());
+  }
+
+  @Test
+  void testPhraseRequiresAdjacentTerms() {
+    assertEquals(List.of(TRUMAN), ids(index.search("\"fair deal\"", 10)));
+    assertEquals(2, index.search("\"new deal\"", 10).size());
+    assertTrue(index.search("\"deal new\"", 10).isEmpty());
+    // "restarts" ends the question and "deal" is the whole answer: no phrase across fields
+    assertTrue(index.search("\"restarts deal\"", 10).isEmpty());
+  }
+
+  @Test
+  void testAccentsAndCaseAreFolded() {
+    assertEquals(List.of(CAFE), ids(index.search("CAFE", 10)));
+    assertEquals(List.of(CAFE), ids(index.search("\"café au lait\"", 10)));
+  }
+
+  @Test
+  void testBm25PrefersDenserMatches() {
+    List<ClueIndex.Hit> hits = index.search("deal", 10);
+    // Truman's clue uses "deal" twice in a short question
+    assertEquals(TRUMAN, hits.getFirst().id());
+    for (int i = 1; i < hits.size(); i++) {
+      assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+    }
+    assertEquals(1, index.search("deal", 1).size());
+  }
+
+  @Test
+  void testSaveAndLoad() throws Exception {
+    Path file = dir.resolve("clues.index");
+    index.save(file);
+    ClueIndex loaded = ClueIndex.load(file);
+
+    assertEquals(index.docCount(), loaded.docCount());
+    assertEquals(index.termCount(), loaded.termCount());
+    for (String query : List.of("deal", "\"new deal\" -roosevelt", "cafe OR truman")) {
+      assertEquals(index.search(query, 10), loaded.search(query, 10));
+    }
+  }
+}
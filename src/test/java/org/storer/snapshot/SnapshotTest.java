@@ -0,0 +1,161 @@
+package org.storer.snapshot;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+import org.storer.topics.CategoryTopics;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest {
+
+  private static final UUID FIRST = UUID.nameUUIDFromBytes("1|J|0|1".getBytes());
+  private static final UUID SECOND = UUID.nameUUIDFromBytes("1|FJ|12|0".getBytes());
+  private static final UUID THIRD = UUID.nameUUIDFromBytes("2|DJ|6|3".getBytes());
+
+  private static Connection connection;
+
+  @TempDir
+  Path dir;
+
+  @BeforeAll
+  static void setUpDatabase() throws Exception {
+    connection = DriverManager.getConnection(
+        "jdbc:h2:mem:snapshotdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE", "sa", "");
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("""
+        CREATE TABLE clues_java (
+          id VARCHAR PRIMARY KEY,
+          category VARCHAR,
+          round VARCHAR,
+          category_number INT,
+          clue_value VARCHAR,
+          question TEXT,
+          answer TEXT,
+          is_daily_double BOOLEAN,
+          game_id INT,
+          game_date VARCHAR,
+          date_added VARCHAR,
+          clue_value_int INT,
+          air_date DATE,
+          canonical_topic VARCHAR
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE category_mappings (
+          jeopardy_category VARCHAR PRIMARY KEY,
+          canonical_topic VARCHAR NOT NULL
+        )
+      """);
+      stmt.execute("""
+        CREATE TABLE unmapped_categories (
+          jeopardy_category VARCHAR PRIMARY KEY,
+          queued_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+        )
+      """);
+      stmt.execute("INSERT INTO category_mappings VALUES ('SCIENCE', 'Science')");
+    }
+    insert(FIRST, "SCIENCE", "J", 0, 200, "Café au lait — with ✓", "milk", false, 1, "2024-10-29");
+    insert(SECOND, "SCIENCE", "FJ", 12, 0, "Final", null, false, 1, "2024-10-29");
+    insert(THIRD, "POTENT POTABLES", "DJ", 6, 1200, "Shaken", "martini", true, 2, null);
+    CategoryTopics.remap(connection);
+  }
+
+  private static void insert(UUID id, String category, String round, int categoryNumber, int value,
+                 String question, String answer, boolean dailyDouble, int gameId, String date)
+      throws Exception {
+    try (PreparedStatement ps = connection.prepareStatement(
+        "INSERT INTO clues_java (id, category, round, category_number, clue_value, question, answer,"
+            + " is_daily_double, game_id, game_date, clue_value_int, air_date)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+      ps.setString(1, id.toString());
+      ps.setString(2, category);
+      ps.setString(3, round);
+      ps.setInt(4, categoryNumber);
+      ps.setString(5, "$" + value);
+      ps.setString(6, question);
+      ps.setString(7, answer);
+      ps.setBoolean(8, dailyDouble);
+      ps.setInt(9, gameId);
+      ps.setString(10, date == null ? "" : date);
+      ps.setInt(11, value);
+      ps.setObject(12, date == null ? null : LocalDate.parse(date));
+      ps.executeUpdate();
+    }
+  }
+
+  @AfterAll
+  static void tearDown() throws Exception {
+    connection.close();
+  }
+
+  private Snapshot write() throws Exception {
+    Path file = dir.resolve("clues.snapshot");
+    assertEquals(3, SnapshotWriter.write(connection, file));
+    assertFalse(Files.exists(dir.resolve("clues.snapshot.tmp")));
+    return Snapshot.open(file);
+  }
+
+  @Test
+  void testRoundTrip() throws Exception {
+    try (Snapshot snapshot = write()) {
+      assertEquals(3, snapshot.size());
+      ClueView first = snapshot.get(0);
+      assertEquals(FIRST, first.id());
+      assertEquals("SCIENCE", first.category());
+      assertEquals("Science", first.topic());
+      assertEquals(Round.J, first.round());
+      assertEquals(0, first.categoryNumber());
+      assertEquals(200, first.value());
+      assertEquals("Café au lait — with ✓", first.question());
+      assertEquals("milk", first.answer());
+      assertFalse(first.isDailyDouble());
+      assertEquals(1, first.gameId());
+      assertEquals(LocalDate.of(2024, 10, 29).toEpochDay(), first.airDay());
+
+      assertEquals(new Clue(FIRST, "SCIENCE", Round.J, 0, 200, "Café au lait — with ✓", "milk", false, 1,
+          Clue.parseDate("2024-10-29")), first.toClue());
+    }
+  }
+
+  @Test
+  void testDictionariesAndMissingValues() throws Exception {
+    try (Snapshot snapshot = write()) {
+      assertEquals(2, snapshot.categoryCount());
+      assertEquals(1, snapshot.topicCount());
+
+      ClueView fj = snapshot.get(1);
+      assertEquals(SECOND, fj.id());
+      assertEquals(Round.FJ, fj.round());
+      assertNull(fj.answer());
+      assertEquals(snapshot.get(0).categoryIndex(), fj.categoryIndex());
+
+      ClueView unmapped = snapshot.get(2);
+      assertEquals("POTENT POTABLES", unmapped.category());
+      assertNull(unmapped.topic());
+      assertEquals(-1, unmapped.topicIndex());
+      assertTrue(unmapped.isDailyDouble());
+      assertEquals(Clue.NO_DATE, unmapped.airDay());
+      assertEquals(1200, unmapped.value());
+    }
+  }
+
+  @Test
+  void testRejectsOtherFiles() throws Exception {
+    Path file = dir.resolve("not-a-snapshot");
+    Files.write(file, new byte[256]);
+    assertThrows(java.io.IOException.class, () -> Snapshot.open(file));
+  }
+}
@@ -0,0 +1,156 @@
+package org.storer.study;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsRecorderTest {
+
+  private static final String CREATE_TABLE = """
+      CREATE TABLE user_stats (
+        id SERIAL PRIMARY KEY,
+        canonical_topic VARCHAR NOT NULL,
+        passed BOOLEAN NOT NULL,
+        recorded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+      )
+      """;
+
+  private static JdbcDataSource dataSource(String name) {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+    dataSource.setUser("sa");
+    return dataSource;
+  }
+
+  private static void execute(JdbcDataSource dataSource, String sql) throws Exception {
+    try (Connection connection = dataSource.getConnection();
+      Statement stmt = connection.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+
+  private static int rows(JdbcDataSource dataSource) throws Exception {
+    try (Connection connection = dataSource.getConnection();
+      Statement stmt = connection.createStatement();
+      ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM user_stats")) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+  @Test
+  void testRestoresAndRecordsFromManyThreads() throws Exception {
+    JdbcDataSource dataSource = dataSource("statsrestoredb");
+    execute(dataSource, CREATE_TABLE);
+    execute(dataSource, "INSERT INTO user_stats (canonical_topic, passed) VALUES"
+        + " ('History', TRUE), ('History', FALSE), ('History', FALSE), ('Science', TRUE)");
+
+    try (StatsRecorder recorder = StatsRecorder.start(dataSource)) {
+      StatsRecorder.TopicAccuracy history = recorder.accuracy("History");
+      assertEquals(3, history.attempts());
+      assertEquals(1, history.passes());
+      assertEquals(0.4, history.recent(), 1e-9, "seeded from the smoothed lifetime accuracy");
+
+      List<Thread> threads = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        threads.add(Thread.ofVirtual().start(() -> {
+          for (int i = 0; i < 250; i++) {
+            recorder.record(i % 2 == 0 ? "Opera" : "History", i % 5 != 0);
+          }
+        }));
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      recorder.flush();
+
+      assertEquals(1_004, rows(dataSource));
+      assertEquals(new StatsRecorder.TopicAccuracy(500, 400, recorder.accuracy("Opera").recent()),
+          recorder.accuracy("Opera"));
+      Map<String, StudySampler.Accuracy> totals = recorder.totals();
+      assertEquals(new StudySampler.Accuracy(503, 401), totals.get("History"));
+      assertEquals(new StudySampler.Accuracy(1, 1), totals.get("Science"));
+      assertEquals(0, recorder.dropped());
+    }
+    try (StatsRecorder restarted = StatsRecorder.start(dataSource)) {
+      assertEquals(503, restarted.accuracy("History").attempts());
+    }
+  }
+
+  @Test
+  void testRecentAccuracyFollowsTheLatestAnswers() throws Exception {
+    JdbcDataSource dataSource = dataSource("statsdecaydb");
+    execute(dataSource, CREATE_TABLE);
+    try (StatsRecorder recorder = new StatsRecorder(dataSource,
+        Map.of("Opera", new StudySampler.Accuracy(98, 0)), 100, 10, 1_000)) {
+      assertEquals(1.0 / 100, recorder.accuracy("Opera").recent(), 1e-9);
+      for (int i = 0; i < 20; i++) {
+        recorder.record("Opera", true);
+      }
+      StatsRecorder.TopicAccuracy opera = recorder.accuracy("Opera");
+      // 20 answers is one half-life: halfway from 0.01 to 1
+      assertEquals(0.505, opera.recent(), 1e-9);
+      assertEquals(20.0 / 118, (double) opera.passes() / opera.attempts(), 1e-9);
+      assertEquals(0.5, recorder.accuracy("Never studied").recent());
+    }
+  }
+
+  @Test
+  void testWritesFullBatchesEarlyAndRetriesFailures() throws Exception {
+    JdbcDataSource dataSource = dataSource("statsbatchdb");
+    try (StatsRecorder recorder = new StatsRecorder(dataSource, Map.of(), 3, 60_000, 1_000)) {
+      // No table yet: the write fails and the answer is kept
+      recorder.record("History", true);
+      recorder.flush();
+      execute(dataSource, CREATE_TABLE);
+
+      for (int i = 0; i < 5; i++) {
+        recorder.record("Science", false);
+      }
+      // The kept answer is retried after the backoff, without waiting for the minute-long linger
+      long deadline = System.nanoTime() + 5_000_000_000L;
+      while (rows(dataSource) < 6 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(6, rows(dataSource));
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      assertEquals(Map.of("History", new StudySampler.Accuracy(1, 1), "Science", new StudySampler.Accuracy(5, 0)),
+          StudySampler.loadAccuracy(connection));
+    }
+  }
+
+  @Test
+  void testBacksOffAndCapsAnswersKeptWhileTheDatabaseIsDown() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    DataSource failing = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+        new Class<?>[] {DataSource.class}, (proxy, method, args) -> {
+          attempts.incrementAndGet();
+          throw new SQLException("Connection refused");
+        });
+    try (StatsRecorder recorder = new StatsRecorder(failing, Map.of(), 2, 10, 1_000)) {
+      int answers = 2 * StatsRecorder.MAX_RETAINED_BATCHES + 10;
+      for (int i = 0; i < answers; i++) {
+        recorder.record("History", true);
+      }
+      recorder.flush();
+
+      assertEquals(1, attempts.get(), "retries wait for the backoff instead of every new answer");
+      assertEquals(10, recorder.dropped());
+      assertEquals(answers, recorder.accuracy("History").attempts());
+    }
+    assertEquals(2, attempts.get(), "close tries once more");
+  }
+}
@@ -0,0 +1,138 @@
+package org.storer.study;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudySamplerTest {
+
+  private static Connection connection;
+  private static final Map<UUID, String> topicOf = new HashMap<>();
+
+  @BeforeAll
+  static void setUpDatabase() throws Exception {
+    connection = DriverManager.getConnection(
+        "jdbc:h2:mem:samplerdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE", "sa", "");
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("CREATE TABLE clues_java (id VARCHAR PRIMARY KEY, clue_value_int INT, canonical_topic VARCHAR)");
+      stmt.execute("CREATE TABLE clue_duplicates (clue_id VARCHAR PRIMARY KEY, duplicate_of VARCHAR, similarity REAL)");
+      stmt.execute("""
+        CREATE TABLE user_stats (
+          id SERIAL PRIMARY KEY,
+          canonical_topic VARCHAR NOT NULL,
+          passed BOOLEAN NOT NULL,
+          recorded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+        )
+      """);
+    }
+    // History and Science have the same values; Opera is worth twice as much
+    insert("History", 200, 50);
+    insert("Science", 200, 50);
+    insert("Opera", 400, 50);
+    insert(null, 1000, 10);
+    // A second copy of a History clue, which the sampler must skip
+    UUID duplicate = insert("History", 200, 1);
+    try (PreparedStatement ps = connection.prepareStatement("INSERT INTO clue_duplicates VALUES (?, ?, 0.9)")) {
+      ps.setString(1, duplicate.toString());
+      ps.setString(2, topicOf.keySet().iterator().next().toString());
+      ps.executeUpdate();
+    }
+    topicOf.remove(duplicate);
+    try (Statement stmt = connection.createStatement()) {
+      for (int i = 0; i < 8; i++) {
+        // History: 8 of 8 right, Science: 0 of 8
+        stmt.execute("INSERT INTO user_stats (canonical_topic, passed) VALUES ('History', TRUE)");
+        stmt.execute("INSERT INTO user_stats (canonical_topic, passed) VALUES ('Science', FALSE)");
+      }
+    }
+  }
+
+  private static UUID insert(String topic, int value, int count) throws Exception {
+    UUID id = null;
+    try (PreparedStatement ps = connection.prepareStatement("INSERT INTO clues_java VALUES (?, ?, ?)")) {
+      for (int i = 0; i < count; i++) {
+        id = UUID.randomUUID();
+        topicOf.put(id, topic);
+        ps.setString(1, id.toString());
+        ps.setInt(2, value);
+        ps.setString(3, topic);
+        ps.executeUpdate();
+      }
+    }
+    return id;
+  }
+
+  @AfterAll
+  static void tearDown() throws Exception {
+    connection.close();
+  }
+
+  @Test
+  void testAliasTableMatchesWeights() {
+    double[] weights = {1, 0, 3, 6};
+    AliasTable table = new AliasTable(weights);
+    SplittableRandom random = new SplittableRandom(7);
+    int[] counts = new int[weights.length];
+    int draws = 200_000;
+    for (int i = 0; i < draws; i++) {
+      counts[table.sample(random)]++;
+    }
+    assertEquals(0, counts[1]);
+    for (int i = 0; i < weights.length; i++) {
+      assertEquals(weights[i] / 10, (double) counts[i] / draws, 0.005, "index " + i);
+    }
+    assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[] {0, 0}));
+  }
+
+  @Test
+  void testWeakHighValueTopicsComeUpMost() throws Exception {
+    StudySampler sampler = StudySampler.load(connection);
+    assertEquals(3, sampler.topicCount());
+    assertEquals(150, sampler.clueCount());
+
+    // Weights: History 200 × 1/10, Science 200 × 9/10, Opera 400 × 1/2
+    assertEquals(20.0 / 400, sampler.probability("History"), 1e-9);
+    assertEquals(180.0 / 400, sampler.probability("Science"), 1e-9);
+    assertEquals(200.0 / 400, sampler.probability("Opera"), 1e-9);
+
+    Map<String, Integer> counts = new HashMap<>();
+    SplittableRandom random = new SplittableRandom(3);
+    for (int session = 0; session < 2_000; session++) {
+      for (UUID id : sampler.draw(10, random)) {
+        counts.merge(topicOf.get(id), 1, Integer::sum);
+      }
+    }
+    assertNull(counts.get(null), "clues without a topic are never drawn");
+    assertEquals(0.05, counts.get("History") / 20_000.0, 0.01);
+    assertEquals(0.45, counts.get("Science") / 20_000.0, 0.02);
+
+    // Acing Opera moves its weight elsewhere
+    sampler.updateStats(Map.of("History", new StudySampler.Accuracy(8, 8),
+        "Science", new StudySampler.Accuracy(8, 0), "Opera", new StudySampler.Accuracy(98, 98)));
+    assertEquals(180.0 / 204, sampler.probability("Science"), 1e-9);
+    sampler.reloadStats(connection);
+    assertEquals(200.0 / 400, sampler.probability("Opera"), 1e-9);
+  }
+
+  @Test
+  void testSessionsHaveDistinctClues() throws Exception {
+    StudySampler sampler = StudySampler.load(connection);
+    List<UUID> session = sampler.draw(100, new SplittableRandom(5));
+    assertEquals(100, session.size());
+    assertEquals(100, new HashSet<>(session).size());
+    assertTrue(sampler.draw(1_000).size() <= 150);
+  }
+}
@@ -0,0 +1,97 @@
+package org.storer.topics;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnthropicClassifierTest {
+
+  private HttpServer server;
+  private final AtomicReference<String> requestBody = new AtomicReference<>();
+  private final AtomicReference<String> apiKey = new AtomicReference<>();
+  private final AtomicInteger status = new AtomicInteger(200);
+  private final AtomicReference<String> replyText = new AtomicReference<>();
+  private AnthropicClassifier classifier;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/v1/messages", exchange -> {
+      requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+      apiKey.set(exchange.getRequestHeaders().getFirst("x-api-key"));
+      String body = status.get() == 200
+          ? "{\"id\":\"msg_1\",\"content\":[{\"type\":\"text\",\"text\":" + Json.quote(replyText.get()) + "}],"
+              + "\"usage\":{\"input_tokens\":120,\"output_tokens\":9}}"
+          : "{\"type\":\"error\",\"error\":{\"type\":\"rate_limit_error\"}}";
+      byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(status.get(), bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(bytes);
+      }
+    });
+    server.start();
+    URI endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/messages");
+    classifier = new AnthropicClassifier(HttpClient.newHttpClient(), endpoint, "test-key", "test-model",
+        List.of("Science", "Wordplay & Puzzles", "Other"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void testSendsNumberedPromptAndReadsFencedReply() throws Exception {
+    replyText.set("Here you go:\n```json\n[\"Science\", \"Wordplay & Puzzles\"]\n```");
+
+    assertEquals(List.of("Science", "Wordplay & Puzzles"), classifier.classify(List.of("\"CHEM\" 101", "RHYME TIME")));
+
+    assertEquals("test-key", apiKey.get());
+    Map<?, ?> request = (Map<?, ?>) Json.parse(requestBody.get());
+    assertEquals("test-model", request.get("model"));
+    String prompt = (String) ((Map<?, ?>) ((List<?>) request.get("messages")).getFirst()).get("content");
+    assertTrue(prompt.startsWith("Canonical topics: [\"Science\", \"Wordplay & Puzzles\", \"Other\"]"), prompt);
+    assertTrue(prompt.contains("exactly 2 strings"), prompt);
+    assertTrue(prompt.endsWith("1. \"CHEM\" 101\n2. RHYME TIME\n"), prompt);
+  }
+
+  @Test
+  void testErrorsAreRetryable() {
+    status.set(429);
+    IOException e = assertThrows(IOException.class, () -> classifier.classify(List.of("SCIENCE")));
+    assertTrue(e.getMessage().startsWith("HTTP 429"), e.getMessage());
+
+    status.set(200);
+    replyText.set("I'm not sure.");
+    assertThrows(IOException.class, () -> classifier.classify(List.of("SCIENCE")));
+    replyText.set("[\"Science\", 3]");
+    assertThrows(IOException.class, () -> classifier.classify(List.of("SCIENCE", "MATH")));
+  }
+
+  @Test
+  void testClientErrorsAreNotRetryable() {
+    status.set(401);
+    IllegalStateException e = assertThrows(IllegalStateException.class,
+        () -> classifier.classify(List.of("SCIENCE")));
+    assertTrue(e.getMessage().startsWith("HTTP 401"), e.getMessage());
+
+    status.set(408);
+    assertThrows(IOException.class, () -> classifier.classify(List.of("SCIENCE")));
+    status.set(529);
+    assertThrows(IOException.class, () -> classifier.classify(List.of("SCIENCE")));
+  }
+}
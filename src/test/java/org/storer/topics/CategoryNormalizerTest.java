@@ -0,0 +1,165 @@
+package org.storer.topics;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryNormalizerTest {
+
+  private static Connection connection;
+
+  /** Maps each category to "Topic <first letter>", failing each batch's first attempt. */
+  private static class StubClassifier implements CategoryClassifier {
+    final List<String> seen = new CopyOnWriteArrayList<>();
+    final Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Override
+    public List<String> classify(List<String> categories) throws IOException, InterruptedException {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(5);
+        if (categories.contains("POISON")) {
+          throw new IOException("Always fails");
+        }
+        if (failedOnce.add(categories.getFirst())) {
+          throw new IOException("Rate limited");
+        }
+        seen.addAll(categories);
+        List<String> topics = new ArrayList<>();
+        for (String category : categories) {
+          topics.add("Topic " + category.charAt(0));
+        }
+        return topics;
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }
+  }
+
+  @BeforeAll
+  static void setUpDatabase() throws Exception {
+    connection = DriverManager.getConnection(
+        "jdbc:h2:mem:normalizerdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE", "sa", "");
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("CREATE TABLE clues_java (id VARCHAR PRIMARY KEY, category VARCHAR)");
+      stmt.execute("""
+        CREATE TABLE category_mappings (
+          jeopardy_category VARCHAR PRIMARY KEY,
+          canonical_topic VARCHAR NOT NULL
+        )
+      """);
+    }
+  }
+
+  @AfterAll
+  static void tearDown() throws Exception {
+    connection.close();
+  }
+
+  @BeforeEach
+  void clearTables() throws Exception {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("DELETE FROM clues_java");
+      stmt.execute("DELETE FROM category_mappings");
+    }
+  }
+
+  private static void insertClues(List<String> categories) throws Exception {
+    try (PreparedStatement ps = connection.prepareStatement("INSERT INTO clues_java VALUES (?, ?)")) {
+      for (int i = 0; i < categories.size(); i++) {
+        // Two clues per category, so the anti-join must also de-duplicate
+        for (int copy = 0; copy < 2; copy++) {
+          ps.setString(1, categories.get(i) + "-" + copy);
+          ps.setString(2, categories.get(i));
+          ps.executeUpdate();
+        }
+      }
+    }
+  }
+
+  private static int count(String query) throws Exception {
+    try (Statement stmt = connection.createStatement();
+      ResultSet rs = stmt.executeQuery(query)) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+  @Test
+  void testClassifiesOnlyUnmappedCategories() throws Exception {
+    List<String> categories = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      categories.add((char) ('A' + i % 26) + " CATEGORY " + i);
+    }
+    insertClues(categories);
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("INSERT INTO category_mappings VALUES ('A CATEGORY 0', 'Hand-picked')");
+      stmt.execute("INSERT INTO category_mappings VALUES ('B CATEGORY 1', 'Hand-picked')");
+    }
+
+    StubClassifier classifier = new StubClassifier();
+    CategoryNormalizer normalizer = new CategoryNormalizer(classifier, 7, 3, 3, Duration.ZERO);
+    CategoryNormalizer.Result result = normalizer.normalize(connection);
+
+    assertEquals(new CategoryNormalizer.Result(98, 98, 0), result);
+    assertEquals(98, classifier.seen.size());
+    assertFalse(classifier.seen.contains("A CATEGORY 0"));
+    assertTrue(classifier.maxInFlight.get() > 1, "batches run concurrently");
+    assertTrue(classifier.maxInFlight.get() <= 3, "at most 3 in flight");
+    assertEquals(100, count("SELECT COUNT(*) FROM category_mappings"));
+    assertEquals(2, count("SELECT COUNT(*) FROM category_mappings WHERE canonical_topic = 'Hand-picked'"));
+    assertEquals(1, count("SELECT COUNT(*) FROM category_mappings"
+        + " WHERE jeopardy_category = 'C CATEGORY 2' AND canonical_topic = 'Topic C'"));
+
+    // A new season only costs its new categories
+    insertClues(List.of("NEW CATEGORY"));
+    classifier.seen.clear();
+    assertEquals(new CategoryNormalizer.Result(1, 1, 0), normalizer.normalize(connection));
+    assertEquals(List.of("NEW CATEGORY"), classifier.seen);
+    assertEquals(0, normalizer.normalize(connection).categories());
+  }
+
+  @Test
+  void testFailedBatchIsLeftForTheNextRun() throws Exception {
+    insertClues(List.of("ALPHA", "BRAVO", "CHARLIE", "POISON"));
+    StubClassifier classifier = new StubClassifier();
+
+    CategoryNormalizer.Result result =
+        new CategoryNormalizer(classifier, 2, 2, 3, Duration.ZERO).normalize(connection);
+
+    assertEquals(new CategoryNormalizer.Result(4, 2, 1), result);
+    assertEquals(2, count("SELECT COUNT(*) FROM category_mappings"));
+    assertEquals(List.of("CHARLIE", "POISON"), CategoryNormalizer.unmapped(connection));
+  }
+
+  @Test
+  void testWriteCountsOnlyNewMappings() throws Exception {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("INSERT INTO category_mappings VALUES ('ALPHA', 'Mapped elsewhere')");
+    }
+    List<String[]> rows = List.of(new String[] {"ALPHA", "Topic A"}, new String[] {"BRAVO", "Topic B"});
+
+    assertEquals(1, CategoryNormalizer.write(connection, rows));
+    assertEquals(0, CategoryNormalizer.write(connection, rows));
+    assertEquals(1, count("SELECT COUNT(*) FROM category_mappings WHERE canonical_topic = 'Mapped elsewhere'"));
+  }
+}
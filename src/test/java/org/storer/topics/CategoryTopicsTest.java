@@ -0,0 +1,91 @@
+package org.storer.topics;
+
+import org.junit.jupiter.api.Test;
+import org.storer.meta.Clue;
+import org.storer.meta.Round;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryTopicsTest {
+
+  @Test
+  void testLookup() {
+    CategoryTopics topics = new CategoryTopics(List.of("GEOGRAPHY", "WORLD CAPITALS", "HISTORY"),
+        List.of("Geography", "Geography", "History"));
+    assertEquals(3, topics.size());
+    assertEquals("Geography", topics.topic("WORLD CAPITALS"));
+    // A non-interned key still matches by equals
+    assertEquals("History", topics.topic(new String("HISTORY")));
+    assertNull(topics.topic("SCIENCE"));
+    assertNull(topics.topic(null));
+  }
+
+  @Test
+  void testManyCategoriesAndCollidingHashes() {
+    List<String> categories = new ArrayList<>();
+    List<String> canonical = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      categories.add("CATEGORY " + i);
+      canonical.add("Topic " + i % 74);
+    }
+    // "Aa" and "BB" have the same String hash code
+    categories.add("Aa");
+    canonical.add("First");
+    categories.add("BB");
+    canonical.add("Second");
+
+    CategoryTopics topics = new CategoryTopics(categories, canonical);
+    assertEquals(10_002, topics.size());
+    for (int i = 0; i < 10_000; i++) {
+      assertEquals("Topic " + i % 74, topics.topic("CATEGORY " + i));
+    }
+    assertEquals("First", topics.topic("Aa"));
+    assertEquals("Second", topics.topic("BB"));
+    assertNull(topics.topic("CATEGORY 10000"));
+  }
+
+  @Test
+  void testEmpty() {
+    CategoryTopics topics = new CategoryTopics(List.of(), List.of());
+    assertEquals(0, topics.size());
+    assertNull(topics.topic("GEOGRAPHY"));
+  }
+
+  @Test
+  void testRolledBackCategoriesAreQueuedAgain() throws Exception {
+    CategoryTopics topics = new CategoryTopics(List.of("HISTORY"), List.of("History"));
+    List<Clue> clues = List.of(clue("HISTORY"), clue("CHEMISTRY"), clue("CHEMISTRY"));
+    try (Connection conn = DriverManager.getConnection(
+        "jdbc:h2:mem:category_topics;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE")) {
+      conn.createStatement().execute(
+          "CREATE TABLE IF NOT EXISTS unmapped_categories (jeopardy_category VARCHAR(255) PRIMARY KEY)");
+      conn.setAutoCommit(false);
+
+      assertEquals(List.of("CHEMISTRY"), topics.queueUnmapped(conn, clues));
+      conn.rollback();
+      List<String> queued = topics.queueUnmapped(conn, clues);
+      assertEquals(List.of("CHEMISTRY"), queued);
+      conn.commit();
+      topics.markQueued(queued);
+      assertEquals(List.of(), topics.queueUnmapped(conn, clues));
+
+      try (Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM unmapped_categories")) {
+        rs.next();
+        assertEquals(1, rs.getInt(1));
+      }
+    }
+  }
+
+  private static Clue clue(String category) {
+    return new Clue(UUID.randomUUID(), category, Round.J, 0, 200, "q", "a", false, 1, 0);
+  }
+}
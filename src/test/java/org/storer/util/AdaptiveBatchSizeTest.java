@@ -0,0 +1,68 @@
+package org.storer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBatchSizeTest {
+
+  private static final long MS = 1_000_000;
+
+  @Test
+  void testGrowsTowardTargetWhenBatchesAreFast() {
+    AdaptiveBatchSize batching = new AdaptiveBatchSize("fast", 500, 100, 3_000, Duration.ofMillis(100));
+
+    // 20 µs per row: the target allows 5,000 rows, but each step at most doubles
+    batching.record(500, 10 * MS);
+    assertEquals(1_000, batching.size());
+    batching.record(1_000, 20 * MS);
+    assertEquals(2_000, batching.size());
+    batching.record(2_000, 40 * MS);
+    assertEquals(3_000, batching.size());
+    // 400 ms per commit at 60 ms per batch
+    assertEquals(7, batching.batchesPerCommit());
+    assertEquals(21_000, batching.transactionRows(Integer.MAX_VALUE));
+    assertEquals(50, batching.transactionRows(50));
+  }
+
+  @Test
+  void testShrinksToMinimumWhenBatchesAreSlow() {
+    AdaptiveBatchSize batching = new AdaptiveBatchSize("slow", 500, 100, 3_000, Duration.ofMillis(100));
+
+    // 2 ms per row: the target allows 50 rows, but each step at most halves
+    batching.record(500, 1_000 * MS);
+    assertEquals(250, batching.size());
+    assertEquals(1, batching.batchesPerCommit());
+    batching.record(250, 500 * MS);
+    assertEquals(125, batching.size());
+    batching.record(125, 250 * MS);
+    assertEquals(100, batching.size());
+    assertTrue(batching.summary().contains("range 100-500"), batching.summary());
+  }
+
+  @Test
+  void testSmoothsOutASingleSlowBatch() {
+    AdaptiveBatchSize batching = new AdaptiveBatchSize("spiky", 1_000, 100, 10_000, Duration.ofMillis(100));
+    batching.record(1_000, 100 * MS);
+    assertEquals(1_000, batching.size());
+
+    // One batch ten times slower moves the average to 3.7x, not 10x, and the step stops at half
+    batching.record(1_000, 1_000 * MS);
+    assertEquals(500, batching.size());
+    // A batch at the 370 µs/row average then settles on the target's 270 rows
+    batching.record(500, 185 * MS);
+    assertEquals(270, batching.size());
+    batching.record(0, 0);
+    assertEquals(270, batching.size());
+  }
+
+  @Test
+  void testRejectsInvalidBounds() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new AdaptiveBatchSize("bad", 10, 50, 100, Duration.ofMillis(100)));
+    assertThrows(IllegalArgumentException.class,
+        () -> new AdaptiveBatchSize("bad", 50, 50, 100, Duration.ZERO));
+  }
+}
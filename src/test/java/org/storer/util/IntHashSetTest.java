@@ -0,0 +1,56 @@
+package org.storer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashSetTest {
+
+  @Test
+  void testAddAndContains() {
+    IntHashSet set = new IntHashSet();
+    assertTrue(set.add(9036));
+    assertFalse(set.add(9036));
+    assertTrue(set.contains(9036));
+    assertFalse(set.contains(9037));
+    assertEquals(1, set.size());
+  }
+
+  @Test
+  void testZeroIsAValidKey() {
+    IntHashSet set = new IntHashSet();
+    assertFalse(set.contains(0));
+    assertTrue(set.add(0));
+    assertTrue(set.contains(0));
+    assertFalse(set.add(0));
+    assertArrayEquals(new int[] {0}, set.toArray());
+  }
+
+  @Test
+  void testGrowsAndMatchesJavaSet() {
+    IntHashSet set = new IntHashSet(2);
+    Set<Integer> expected = new HashSet<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 50_000; i++) {
+      int value = random.nextInt(100_000) - 50_000;
+      assertEquals(expected.add(value), set.add(value));
+    }
+    assertEquals(expected.size(), set.size());
+    for (int i = -50_000; i < 50_000; i++) {
+      assertEquals(expected.contains(i), set.contains(i));
+    }
+  }
+
+  @Test
+  void testToArraySorted() {
+    IntHashSet set = new IntHashSet();
+    set.add(30);
+    set.add(-5);
+    set.add(12);
+    assertArrayEquals(new int[] {-5, 12, 30}, set.toArray());
+  }
+}